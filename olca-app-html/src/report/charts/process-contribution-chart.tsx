@@ -9,7 +9,9 @@ import {
 } from "../model";
 import { colorOf } from "./charts";
 import { IndicatorCombo } from "../indicator-combo";
-import { hasResults, isEmpty, variantResultOf } from "../util";
+import {
+  hasResults, isEmpty, loadContributions, variantResultOf,
+} from "../util";
 
 export const ProcessContributionChart = ({ report }: { report: Report }) => {
   if (!hasResults(report)) {
@@ -19,6 +21,7 @@ export const ProcessContributionChart = ({ report }: { report: Report }) => {
   // the selected indicator
   const indicators = report.indicators;
   const [indicator, setIndicator] = useState(indicators[0]);
+  loadContributions(report, indicator);
 
   const canvas = useRef<HTMLCanvasElement>(null);
   useEffect(() => {
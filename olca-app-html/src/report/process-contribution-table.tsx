@@ -1,6 +1,8 @@
 import React, { useState } from "react";
 import { Report, VariantResult } from "./model";
-import { formatScientific, hasResults, variantResultOf } from "./util";
+import {
+    formatScientific, hasResults, loadContributions, variantResultOf,
+} from "./util";
 import { IndicatorCombo } from "./indicator-combo";
 
 export const ProcessContributionTable = ({ report }: { report: Report }) => {
@@ -11,6 +13,7 @@ export const ProcessContributionTable = ({ report }: { report: Report }) => {
     // the selected indicator
     const indicators = report.indicators;
     const [indicator, setIndicator] = useState(indicators[0]);
+    loadContributions(report, indicator);
 
     const header = [<th key="_empty" />];
     const results: VariantResult[] = [];
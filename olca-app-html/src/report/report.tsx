@@ -88,9 +88,28 @@ const setData = (report: Report) => {
     document.getElementById("react-root"));
 };
 
+/**
+ * Requests the report data from the application via the `getReport` function
+ * of the browser. The process contributions are not contained in these data
+ * but are requested per indicator when they are displayed.
+ */
+const loadData = () => {
+  if (typeof window.getReport !== "function") {
+    return;
+  }
+  const json = window.getReport();
+  if (json) {
+    setData(JSON.parse(json));
+  }
+};
+
 declare global {
   interface Window {
     setData: any;
+    loadData: any;
+    getReport: any;
+    getContributions: any;
   }
 }
 window.setData = setData;
+window.loadData = loadData;
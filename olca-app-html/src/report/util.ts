@@ -1,4 +1,6 @@
-import { Report, ReportIndicator, ReportVariant, VariantResult } from "./model";
+import {
+  Report, ReportImpactResult, ReportIndicator, ReportVariant, VariantResult,
+} from "./model";
 
 export function isEmpty<T>(xs: T[]): boolean {
   return !xs || xs.length === 0;
@@ -36,6 +38,37 @@ export function variantResultOf(report: Report, indicator: ReportIndicator,
   return null;
 }
 
+/**
+ * Makes sure that the process contributions of the given indicator are loaded.
+ * In the application, the contributions are calculated on demand and requested
+ * via the `getContributions` function of the browser. In exported reports,
+ * they are already contained in the report data.
+ */
+export function loadContributions(report: Report, indicator: ReportIndicator) {
+  if (!report?.results || !indicator?.impact) {
+    return;
+  }
+  const id = indicator.impact.refId;
+  const idx = report.results.findIndex(r => r.indicatorId === id);
+  const current = idx >= 0 ? report.results[idx] : null;
+  if (current && (current.variantResults || []).every(vr => vr.contributions)) {
+    return;
+  }
+  if (typeof window.getContributions !== "function") {
+    return;
+  }
+  const json = window.getContributions(id);
+  if (!json) {
+    return;
+  }
+  const loaded: ReportImpactResult = JSON.parse(json);
+  if (idx >= 0) {
+    report.results[idx] = loaded;
+  } else {
+    report.results.push(loaded);
+  }
+}
+
 export function totalResultOf(report: Report, indicator: ReportIndicator,
   variant: ReportVariant): number {
   return variantResultOf(report, indicator, variant)?.totalAmount || 0;
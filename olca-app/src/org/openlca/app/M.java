@@ -299,6 +299,7 @@ public class M extends NLS {
 	public static String EvaluationSchema;
 	public static String Example;
 	public static String ExcelExport;
+	public static String ExcelExportOnlySingleThread;
 	public static String ExchangeDataQualitySchema;
 	public static String ExchangesAreUsed;
 	public static String ExchangesAreUsedOrNotDisconnected;
@@ -321,6 +322,7 @@ public class M extends NLS {
 	public static String ExportProcess;
 	public static String ExportReport;
 	public static String ExportResults;
+	public static String ExportResultsToCsv;
 	public static String ExportResultsToExcel;
 	public static String ExportToExcel;
 	public static String ExportingProcesses;
@@ -643,6 +645,7 @@ public class M extends NLS {
 	public static String OverwriteFileQuestion;
 
 	// P
+	public static String ParallelCalculations;
 	public static String Parameter;
 	public static String ParameterAlreadyAdded;
 	public static String ParameterDescriptionTable;
@@ -898,6 +901,7 @@ public class M extends NLS {
 	public static String TextReference;
 	public static String Theme;
 	public static String ThisWillCompressTheDatabase;
+	public static String Threads;
 	public static String Time;
 	public static String TimeAndAuthor;
 	public static String TimeDescription;
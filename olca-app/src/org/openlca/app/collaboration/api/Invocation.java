@@ -1,6 +1,7 @@
 package org.openlca.app.collaboration.api;
 
 import java.io.InputStream;
+import java.util.Map;
 
 import org.openlca.app.collaboration.util.Valid;
 import org.openlca.app.collaboration.util.WebRequests;
@@ -10,6 +11,7 @@ import org.openlca.util.Strings;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.ClientResponse.Status;
 
 abstract class Invocation<E, T> {
@@ -45,9 +47,14 @@ abstract class Invocation<E, T> {
 			url += part;
 		}
 		try {
-			var response = WebRequests.call(type, url, sessionId, data());
-			if (response.getStatus() == Status.NO_CONTENT.getStatusCode())
+			var response = WebRequests.call(type, url, sessionId, data(), headers());
+			if (response.getStatus() == Status.NO_CONTENT.getStatusCode()) {
+				// release the connection so that it can be reused
+				response.close();
 				return process(null);
+			}
+			if (entityClass == ClientResponse.class)
+				return process((E) response);
 			if (entityClass != null && InputStream.class.isAssignableFrom(entityClass))
 				return process((E) response.getEntityInputStream());
 			var string = response.getEntity(String.class);
@@ -79,6 +86,11 @@ abstract class Invocation<E, T> {
 		return null;
 	}
 
+	protected Map<String, String> headers() {
+		// subclasses may override
+		return Map.of();
+	}
+
 	@SuppressWarnings("unchecked")
 	protected T process(E response) {
 		// subclasses may override
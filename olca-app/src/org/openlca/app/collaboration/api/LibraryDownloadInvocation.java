@@ -1,17 +1,14 @@
 package org.openlca.app.collaboration.api;
 
-import java.io.InputStream;
-
 import org.openlca.app.collaboration.util.Valid;
 import org.openlca.app.collaboration.util.WebRequests;
-import org.openlca.app.collaboration.util.WebRequests.Type;
 
-class LibraryDownloadInvocation extends Invocation<InputStream, InputStream> {
+class LibraryDownloadInvocation extends RangeInvocation {
 
 	private final String library;
 
-	LibraryDownloadInvocation(String library) {
-		super(Type.GET, "libraries", InputStream.class);
+	LibraryDownloadInvocation(String library, long from, long to) {
+		super("libraries", from, to);
 		this.library = library;
 	}
 
@@ -0,0 +1,38 @@
+package org.openlca.app.collaboration.api;
+
+import java.util.Map;
+
+import org.openlca.app.collaboration.util.WebRequests.Type;
+import org.openlca.app.util.Download;
+
+import com.sun.jersey.api.client.ClientResponse;
+
+/**
+ * Invokes a web service call to download a byte range of a file; see
+ * {@link Download}.
+ */
+abstract class RangeInvocation extends Invocation<ClientResponse, Download.Response> {
+
+	private final long from;
+	private final long to;
+
+	RangeInvocation(String path, long from, long to) {
+		super(Type.GET, path, ClientResponse.class);
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected Map<String, String> headers() {
+		return Download.rangeHeaders(from, to);
+	}
+
+	@Override
+	protected Download.Response process(ClientResponse response) {
+		if (response == null)
+			return null;
+		return Download.Response.of(response.getStatus(),
+				response.getHeaders()::getFirst, response.getEntityInputStream());
+	}
+
+}
@@ -2,9 +2,9 @@ package org.openlca.app.collaboration.api;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.openlca.app.collaboration.dialogs.AuthenticationDialog;
 import org.openlca.app.collaboration.model.Announcement;
@@ -12,8 +12,10 @@ import org.openlca.app.collaboration.model.Comment;
 import org.openlca.app.collaboration.model.Restriction;
 import org.openlca.app.collaboration.model.SearchResult;
 import org.openlca.app.collaboration.util.Comments;
+import org.openlca.app.collaboration.util.WebRequests;
 import org.openlca.app.collaboration.util.WebRequests.WebRequestException;
 import org.openlca.app.db.Repository;
+import org.openlca.app.util.Download;
 import org.openlca.core.model.ModelType;
 import org.openlca.git.model.ModelRef;
 import org.openlca.git.util.TypedRefId;
@@ -29,7 +31,7 @@ public class RepositoryClient {
 	public final String serverUrl;
 	public final String repositoryId;
 	private final String apiUrl;
-	private String sessionId;
+	private volatile String sessionId;
 
 	public RepositoryClient(String serverUrl, String repositoryId) throws IOException {
 		this.serverUrl = serverUrl;
@@ -52,8 +54,15 @@ public class RepositoryClient {
 		return invocation.execute();
 	}
 
-	public InputStream downloadLibrary(String library) throws WebRequestException {
-		return executeLoggedIn(new LibraryDownloadInvocation(library));
+	/**
+	 * Returns the download source of the given library or null if the user
+	 * could not be logged in. The login is done when this method is called,
+	 * so that the range requests of the download share the same session.
+	 */
+	public Download.Source libraryDownload(String library) throws WebRequestException {
+		if (!ensureLoggedIn())
+			return null;
+		return (from, to) -> download(new LibraryDownloadInvocation(library, from, to));
 	}
 
 	public boolean hasAccess() throws WebRequestException {
@@ -72,30 +81,71 @@ public class RepositoryClient {
 		return new Comments(executeLoggedIn(new CommentsInvocation(repositoryId, type, refId)));
 	}
 
+	/**
+	 * Fetches the comments of the given data sets with concurrent requests.
+	 * The user is logged in before the requests are sent, so that they share
+	 * the same session.
+	 */
+	public Map<TypedRefId, Comments> getComments(Collection<? extends TypedRefId> refs)
+			throws WebRequestException {
+		if (refs == null || refs.isEmpty() || !ensureLoggedIn())
+			return Map.of();
+		return WebRequests.callAll(refs, ref -> getComments(ref.type, ref.refId));
+	}
+
 	public List<String> listRepositories() throws WebRequestException {
 		return executeLoggedIn(new ListRepositoriesInvocation());
 	}
 
 	public void downloadJson(Collection<? extends TypedRefId> requestedData, File toFile)
-			throws WebRequestException {
+			throws WebRequestException, IOException {
 		var token = executeLoggedIn(new DownloadJsonPrepareInvocation(repositoryId, requestedData));
-		executeLoggedIn(new DownloadJsonInvocation(token, toFile));
+		if (token == null)
+			return;
+		Download.of((from, to) -> download(new DownloadJsonInvocation(token, from, to)), toFile).run();
 	}
 
 	public SearchResult search(String query, ModelType type, int page, int pageSize) throws WebRequestException {
 		return executeLoggedIn(new SearchInvocation(repositoryId, query, type, page, pageSize));
 	}
 
+	/**
+	 * Executes a range request of a download. These requests run on the worker
+	 * threads of the download, where no login dialog can be opened; thus, an
+	 * expired session is not renewed here but fails the request. The session
+	 * is discarded then, so that the user is logged in again when the
+	 * download is restarted.
+	 */
+	private Download.Response download(RangeInvocation invocation) throws IOException {
+		invocation.baseUrl = apiUrl;
+		var usedSession = sessionId;
+		if (usedSession == null)
+			throw new IOException("Not logged in to repository server " + serverUrl);
+		invocation.sessionId = usedSession;
+		try {
+			var response = invocation.execute();
+			if (response == null)
+				throw new IOException("No response from repository server " + serverUrl);
+			return response;
+		} catch (WebRequestException e) {
+			if (e.isUnauthorized()) {
+				expire(usedSession);
+			}
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
 	private <T> T executeLoggedIn(Invocation<?, T> invocation) throws WebRequestException {
 		invocation.baseUrl = apiUrl;
-		if (sessionId == null && !login(false))
+		if (!ensureLoggedIn())
 			return null;
-		invocation.sessionId = sessionId;
+		var usedSession = sessionId;
+		invocation.sessionId = usedSession;
 		try {
 			return invocation.execute();
 		} catch (WebRequestException e) {
 			if (e.getErrorCode() == Status.UNAUTHORIZED.getStatusCode()) {
-				if (!login(true))
+				if (!relogin(usedSession))
 					return null;
 				invocation.sessionId = sessionId;
 				return invocation.execute();
@@ -107,6 +157,26 @@ public class RepositoryClient {
 		}
 	}
 
+	private synchronized boolean ensureLoggedIn() throws WebRequestException {
+		return sessionId != null || login(false);
+	}
+
+	/**
+	 * Logs in again when the given session expired; when concurrent requests
+	 * failed with the same session, the credentials are only requested once.
+	 */
+	private synchronized boolean relogin(String expiredSession) throws WebRequestException {
+		if (sessionId != null && !sessionId.equals(expiredSession))
+			return true;
+		return login(true);
+	}
+
+	private synchronized void expire(String session) {
+		if (session.equals(sessionId)) {
+			sessionId = null;
+		}
+	}
+
 	private boolean login(boolean forceCredentials) throws WebRequestException {
 		var invocation = new LoginInvocation();
 		invocation.baseUrl = apiUrl;
@@ -19,11 +19,16 @@ import static org.openlca.core.model.ModelType.SOURCE;
 import static org.openlca.core.model.ModelType.UNIT_GROUP;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import org.openlca.app.App;
@@ -31,14 +36,14 @@ import org.openlca.app.M;
 import org.openlca.app.collaboration.navigation.NavElement.ElementType;
 import org.openlca.app.db.Database;
 import org.openlca.app.db.Repository;
-import org.openlca.app.navigation.Navigator;
-import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.core.database.CategoryDao;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.ParameterDao;
 import org.openlca.core.model.Category;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.git.util.TypedRefId;
+import org.slf4j.LoggerFactory;
 
 public class NavRoot {
 
@@ -52,10 +57,19 @@ public class NavRoot {
 			FLOW_PROPERTY, UNIT_GROUP, CURRENCY, ACTOR, SOURCE, LOCATION
 	};
 
+	/**
+	 * The refreshes run one after another on a single background thread, so
+	 * that the tree is never built or patched concurrently.
+	 */
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		var thread = new Thread(runnable, "NavRoot refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private static NavRoot INSTANCE = new NavRoot(null);
-	private Boolean changes;
 	private final IDatabase database;
-	private final Map<Long, Category> categoryMap = new HashMap<>();
+	private final Set<Long> categoryIds = new HashSet<>();
 	private final EnumMap<ModelType, Map<Long, List<Category>>> categories = new EnumMap<>(ModelType.class);
 	private final EnumMap<ModelType, Map<Long, List<RootDescriptor>>> descriptors = new EnumMap<>(ModelType.class);
 	private final NavElement root = new NavElement(ElementType.DATABASE, null);
@@ -70,37 +84,57 @@ public class NavRoot {
 
 	public static void init() {
 		var database = Database.get();
-		INSTANCE = new NavRoot(database);
-		if (database == null || !Repository.isConnected())
-			return;
-		INSTANCE.build();
+		var navRoot = new NavRoot(database);
+		if (database != null && Repository.isConnected()) {
+			navRoot.build();
+		}
+		INSTANCE = navRoot;
+		RepositoryState.update(navRoot.root);
 	}
 
 	public static void refresh(Runnable navigatorRefresh) {
-		navigatorRefresh.run();
-		new Thread(() -> {
-			init();
-			App.runInUI("Refreshing navigator", () -> {
-				navigatorRefresh.run();
-				INSTANCE.changes = null;
-			});
-		}).start();
+		refresh(navigatorRefresh, null);
 	}
 
-	static NavElement get(INavigationElement<?> elem) {
-		return new NavFinder(NavRoot.get().categoryMap).find(NavRoot.get().root, elem);
+	/**
+	 * Refreshes the tree in the background and then runs the given navigator
+	 * refresh in the UI thread. If the changed models are given, only these
+	 * models are reloaded from the database and the tree is patched; an empty
+	 * collection means that only the repository state changed (e.g. after a
+	 * commit or fetch). If they are not given (null) or when the tree cannot
+	 * be patched (e.g. because a model was moved into a new category), the
+	 * tree is rebuilt completely.
+	 */
+	public static void refresh(Runnable navigatorRefresh, Collection<? extends TypedRefId> changed) {
+		navigatorRefresh.run();
+		executor.execute(() -> {
+			try {
+				var current = INSTANCE;
+				if (changed == null || !current.patch(changed)) {
+					init();
+				} else {
+					RepositoryState.update(current.root);
+				}
+			} catch (Exception e) {
+				LoggerFactory.getLogger(NavRoot.class).error("failed to refresh navigation tree", e);
+				init();
+			}
+			App.runInUI("Refreshing navigator", navigatorRefresh);
+		});
 	}
 
 	public boolean hasChanges() {
-		if (changes == null) {
-			changes = RepositoryLabel.hasChanged(Navigator.findElement(Database.getActiveConfiguration()));
-		}
-		return changes;
+		return RepositoryState.get().hasChanges();
 	}
 
 	private void build() {
 		loadCategories();
 		loadDescriptors();
+		buildTree();
+	}
+
+	private void buildTree() {
+		root.children().clear();
 		buildGroup(root, null, UNGROUPED_TYPES);
 		buildGroup(root, M.IndicatorsAndParameters, GROUP1_TYPES);
 		buildGroup(root, M.BackgroundData, GROUP2_TYPES);
@@ -152,8 +186,48 @@ public class NavRoot {
 				continue;
 			var parentId = category.category != null ? category.category.id : null;
 			put(categories, category.modelType, parentId, category);
-			categoryMap.put(category.id, category);
+			categoryIds.add(category.id);
+		}
+	}
+
+	/**
+	 * Reloads the descriptors of the given models and rebuilds the tree from
+	 * the loaded categories and descriptors. Returns false if the tree cannot
+	 * be patched and needs to be rebuilt completely.
+	 */
+	private boolean patch(Collection<? extends TypedRefId> changed) {
+		if (database == null || database != Database.get() || !Repository.isConnected())
+			return false;
+		if (changed.isEmpty())
+			return true;
+		var refIds = new EnumMap<ModelType, Set<String>>(ModelType.class);
+		var updated = new ArrayList<RootDescriptor>();
+		for (var ref : changed) {
+			if (ref.type == null || ref.type == ModelType.CATEGORY || ref.type.getModelClass() == null)
+				return false;
+			refIds.computeIfAbsent(ref.type, t -> new HashSet<>()).add(ref.refId);
+			var d = database.getDescriptor(ref.type.getModelClass(), ref.refId);
+			if (d == null)
+				continue;
+			if (!(d instanceof RootDescriptor rd))
+				return false;
+			if (rd.category != null && !categoryIds.contains(rd.category))
+				return false;
+			updated.add(rd);
+		}
+		refIds.forEach((type, ids) -> {
+			var map = descriptors.get(type);
+			if (map == null)
+				return;
+			for (var list : map.values()) {
+				list.removeIf(d -> ids.contains(d.refId));
+			}
+		});
+		for (var d : updated) {
+			put(descriptors, d.type, d.category, d);
 		}
+		buildTree();
+		return true;
 	}
 
 	private void loadDescriptors() {
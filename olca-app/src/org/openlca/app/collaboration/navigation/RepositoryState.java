@@ -0,0 +1,280 @@
+package org.openlca.app.collaboration.navigation;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.openlca.app.collaboration.navigation.NavElement.ElementType;
+import org.openlca.app.db.Cache;
+import org.openlca.app.db.Database;
+import org.openlca.app.db.Repository;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.git.GitIndex;
+import org.openlca.git.util.Constants;
+import org.openlca.git.util.GitUtil;
+import org.openlca.git.util.Repositories;
+import org.openlca.jsonld.LibraryLink;
+import org.openlca.util.Strings;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A snapshot of the state of the connected repository that is used to
+ * decorate the navigation elements: the number of commits the local branch is
+ * ahead of and behind the remote branch and the change flags of the elements
+ * of the navigation tree. The snapshot is computed in a single pass over the
+ * tree of {@link NavRoot} when the tree is rebuilt, which happens in the
+ * background after each Git or database change. The label providers only read
+ * the current snapshot.
+ */
+public final class RepositoryState {
+
+	private static volatile RepositoryState current = new RepositoryState();
+
+	private int ahead;
+	private int behind;
+	private String repositoryText;
+	private boolean databaseChanged;
+	private boolean librariesChanged;
+	private final Set<String> newLibraries = new HashSet<>();
+	private final Set<String> changedGroups = new HashSet<>();
+	private final Set<ModelType> changedTypes = EnumSet.noneOf(ModelType.class);
+	private final Set<Long> changedCategories = new HashSet<>();
+	private final Map<ModelType, Set<Long>> changedModels = new EnumMap<>(ModelType.class);
+	private final Map<ModelType, Set<Long>> newModels = new EnumMap<>(ModelType.class);
+
+	private RepositoryState() {
+	}
+
+	public static RepositoryState get() {
+		return current;
+	}
+
+	/**
+	 * Computes the state of the given navigation tree and the current
+	 * repository and makes it the current state.
+	 */
+	static void update(NavElement root) {
+		var state = new RepositoryState();
+		var repo = Repository.get();
+		if (repo != null && Database.get() != null && root != null) {
+			try {
+				state.compute(repo, root);
+			} catch (Exception e) {
+				LoggerFactory.getLogger(RepositoryState.class)
+						.error("failed to compute repository state", e);
+			}
+		}
+		current = state;
+	}
+
+	/** The number of local commits that are not pushed yet. */
+	public int ahead() {
+		return ahead;
+	}
+
+	/** The number of remote commits that are not merged yet. */
+	public int behind() {
+		return behind;
+	}
+
+	/**
+	 * The repository text that is appended to the label of the active
+	 * database or {@code null} if there is no connected repository.
+	 */
+	String repositoryText() {
+		return repositoryText;
+	}
+
+	public boolean hasChanges() {
+		return databaseChanged;
+	}
+
+	boolean isLibraryDirChanged() {
+		return librariesChanged;
+	}
+
+	boolean isNewLibrary(String library) {
+		return newLibraries.contains(library);
+	}
+
+	boolean isGroupChanged(String label) {
+		return changedGroups.contains(label);
+	}
+
+	boolean isModelTypeChanged(ModelType type) {
+		return changedTypes.contains(type);
+	}
+
+	boolean isCategoryChanged(Category category) {
+		return category != null && changedCategories.contains(category.id);
+	}
+
+	boolean isModelChanged(RootDescriptor d) {
+		return contains(changedModels, d);
+	}
+
+	boolean isNewModel(RootDescriptor d) {
+		return contains(newModels, d);
+	}
+
+	private static boolean contains(Map<ModelType, Set<Long>> map, RootDescriptor d) {
+		if (d == null || d.type == null)
+			return false;
+		var ids = map.get(d.type);
+		return ids != null && ids.contains(d.id);
+	}
+
+	private void compute(Repository repo, NavElement root) {
+		ahead = repo.localHistory.getAheadOf(Constants.REMOTE_REF).size();
+		behind = repo.localHistory.getBehindOf(Constants.REMOTE_REF).size();
+		repositoryText = repositoryText(repo);
+
+		var info = Repositories.infoOf(repo.git);
+		var libsBefore = info == null ? new ArrayList<LibraryLink>() : info.libraries();
+		var libsNow = LibraryLink.of(Database.get().getLibraries());
+		librariesChanged = !new HashSet<>(libsBefore).equals(new HashSet<>(libsNow));
+		var before = libsBefore.stream()
+				.map(LibraryLink::id)
+				.collect(Collectors.toSet());
+		for (var lib : libsNow) {
+			if (!before.contains(lib.id())) {
+				newLibraries.add(lib.id());
+			}
+		}
+
+		new Visitor(repo.gitIndex).visit(root);
+	}
+
+	private String repositoryText(Repository repo) {
+		var user = repo.user();
+		var text = " [";
+		if (!Strings.nullOrEmpty(user)) {
+			text += user + "@";
+		}
+		if (repo.client != null) {
+			text += repo.client.serverUrl + "/" + repo.client.repositoryId;
+		} else {
+			text += "local";
+		}
+		if (ahead > 0) {
+			text += " \u2191" + ahead;
+		}
+		if (behind > 0) {
+			text += " \u2193" + behind;
+		}
+		return text + "]";
+	}
+
+	/**
+	 * Computes the change flags of the navigation elements bottom-up, so that
+	 * each element and each path of the Git index is checked only once.
+	 */
+	private class Visitor {
+
+		private final GitIndex index;
+		private final Map<NavElement, Boolean> deleted = new IdentityHashMap<>();
+
+		Visitor(GitIndex index) {
+			this.index = index;
+		}
+
+		/**
+		 * Returns true if the given element is changed; for models this
+		 * excludes new models, which are tracked separately.
+		 */
+		boolean visit(NavElement elem) {
+			if (elem.isFromLibrary())
+				return false;
+			if (elem.is(ElementType.MODEL))
+				return visitModel((RootDescriptor) elem.content());
+			if (elem.is(ElementType.LIBRARY_DIR))
+				return librariesChanged;
+			if (elem.is(ElementType.LIBRARY))
+				return false;
+
+			boolean changed = false;
+			for (var child : elem.children()) {
+				if (visit(child)) {
+					changed = true;
+				} else if (child.is(ElementType.MODEL)
+						&& isNewModel((RootDescriptor) child.content())) {
+					changed = true;
+				}
+			}
+			if (!changed) {
+				changed = containsDeleted(elem);
+			}
+			if (elem.is(ElementType.DATABASE) && librariesChanged) {
+				changed = true;
+			}
+			if (!changed)
+				return false;
+
+			switch (elem.type()) {
+				case DATABASE -> databaseChanged = true;
+				case GROUP -> changedGroups.add((String) elem.content());
+				case MODEL_TYPE -> changedTypes.add((ModelType) elem.content());
+				case CATEGORY -> changedCategories.add(((Category) elem.content()).id);
+				default -> {
+				}
+			}
+			return true;
+		}
+
+		private boolean visitModel(RootDescriptor d) {
+			var pathCache = Cache.getPathCache();
+			if (!index.has(pathCache, d)) {
+				newModels.computeIfAbsent(d.type, t -> new HashSet<>()).add(d.id);
+				return false;
+			}
+			var entry = index.get(pathCache, d);
+			if (d.lastChange == entry.lastChange() && d.version == entry.version())
+				return false;
+			changedModels.computeIfAbsent(d.type, t -> new HashSet<>()).add(d.id);
+			return true;
+		}
+
+		private boolean containsDeleted(NavElement elem) {
+			if (elem.is(ElementType.MODEL))
+				return false;
+			var cached = deleted.get(elem);
+			if (cached != null)
+				return cached;
+			boolean result = false;
+			for (var child : elem.children()) {
+				if (containsDeleted(child)) {
+					result = true;
+					break;
+				}
+			}
+			if (!result && elem.is(ElementType.MODEL_TYPE, ElementType.CATEGORY)) {
+				result = hasDeletedChildren(elem);
+			}
+			deleted.put(elem, result);
+			return result;
+		}
+
+		private boolean hasDeletedChildren(NavElement elem) {
+			List<String> fromIndex = index.getSubPaths(elem.getPath(index))
+					.stream().filter(Predicate.not(GitUtil::isBinDir))
+					.toList();
+			var fromNavigation = elem.children()
+					.stream().map(e -> e.getPath(index))
+					.collect(Collectors.toSet());
+			for (var entry : fromIndex)
+				if (!fromNavigation.contains(entry))
+					return true;
+			return false;
+		}
+	}
+
+}
@@ -3,6 +3,7 @@ package org.openlca.app.collaboration.navigation.actions;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
@@ -24,6 +25,7 @@ import org.openlca.git.actions.GitProgressAction;
 import org.openlca.git.actions.GitRemoteAction;
 import org.openlca.git.actions.GitStashApply;
 import org.openlca.git.model.Commit;
+import org.openlca.git.util.TypedRefId;
 import org.openlca.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +35,16 @@ class Actions {
 	private static final Logger log = LoggerFactory.getLogger(Actions.class);
 
 	static void refresh() {
-		Navigator.refresh();
+		refresh(null);
+	}
+
+	/**
+	 * Refreshes the navigation and the repository views. The given models are
+	 * the models that were changed in the database by the action; see
+	 * {@link Navigator#refresh(Collection)}.
+	 */
+	static void refresh(Collection<? extends TypedRefId> changed) {
+		Navigator.refresh(changed);
 		HistoryView.refresh();
 		CompareView.clear();
 	}
@@ -86,7 +86,8 @@ public class CommitAction extends Action implements INavigationAction {
 			Actions.handleException("Error during commit", e);
 			return false;
 		} finally {
-			Actions.refresh();
+			// the database is not changed by this action
+			Actions.refresh(List.of());
 		}
 	}
 
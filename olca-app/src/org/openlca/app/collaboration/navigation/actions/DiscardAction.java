@@ -51,8 +51,9 @@ public class DiscardAction extends Action implements INavigationAction {
 		if (!Question.ask("Discard changes", "Do you really want to discard the selected changes? This action can not be undone."))
 			return;
 		var repo = Repository.get();
+		List<Change> selected = null;
 		try {
-			var selected = Diffs.of(repo.git)
+			selected = Diffs.of(repo.git)
 					.filter(PathFilters.of(selection))
 					.with(Database.get(), repo.gitIndex)
 					.stream().map(Change::new).toList();
@@ -65,7 +66,7 @@ public class DiscardAction extends Action implements INavigationAction {
 			Actions.handleException("Error discarding changes", e);
 		} finally {
 			Cache.evictAll();
-			Actions.refresh();
+			Actions.refresh(selected);
 		}
 	}
 
@@ -61,7 +61,8 @@ public class FetchAction extends Action implements INavigationAction {
 				Actions.handleException("Error fetching from remote", e);
 			}
 		} finally {
-			Actions.refresh();
+			// the database is not changed by this action
+			Actions.refresh(List.of());
 		}
 
 	}
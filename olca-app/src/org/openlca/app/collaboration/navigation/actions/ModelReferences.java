@@ -1,10 +1,20 @@
 package org.openlca.app.collaboration.navigation.actions;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -16,12 +26,58 @@ import org.openlca.core.model.ModelType;
 import org.openlca.git.util.TypedRefIdMap;
 import org.openlca.git.util.TypedRefId;
 import org.openlca.util.Strings;
-
+import org.slf4j.LoggerFactory;
+
+/**
+ * The references between the models of a database. The references can be
+ * collected with a full scan of the model tables or they can be loaded from a
+ * file (see {@link #update}) that is stored next to the Git index of a
+ * repository. In the latter case, only the references of the models that were
+ * changed since the file was written are scanned again. A model is considered
+ * as changed when its version or last-change time stamp differs from the
+ * stored one, when it is new, or when it is contained in the given set of
+ * changed datasets. The references of deleted models are removed.
+ */
 class ModelReferences {
 
+	private static final int MAGIC = 0x01ca4ef;
+	private static final int VERSION = 1;
+
+	/** Rows are filtered by ID lists of at most this size. */
+	private static final int MAX_IN_SIZE = 500;
+
+	/**
+	 * When more than this share of the models changed, a full scan is
+	 * faster than the filtered scans.
+	 */
+	private static final double FULL_SCAN_SHARE = 0.25;
+
+	private static final EnumMap<ModelType, String> TABLES = new EnumMap<>(ModelType.class);
+
+	static {
+		TABLES.put(ModelType.LOCATION, "tbl_locations");
+		TABLES.put(ModelType.SOURCE, "tbl_sources");
+		TABLES.put(ModelType.ACTOR, "tbl_actors");
+		TABLES.put(ModelType.CURRENCY, "tbl_currencies");
+		TABLES.put(ModelType.UNIT_GROUP, "tbl_unit_groups");
+		TABLES.put(ModelType.FLOW_PROPERTY, "tbl_flow_properties");
+		TABLES.put(ModelType.DQ_SYSTEM, "tbl_dq_systems");
+		TABLES.put(ModelType.PARAMETER, "tbl_parameters");
+		TABLES.put(ModelType.SOCIAL_INDICATOR, "tbl_social_indicators");
+		TABLES.put(ModelType.IMPACT_CATEGORY, "tbl_impact_categories");
+		TABLES.put(ModelType.IMPACT_METHOD, "tbl_impact_methods");
+		TABLES.put(ModelType.RESULT, "tbl_results");
+		TABLES.put(ModelType.EPD, "tbl_epds");
+		TABLES.put(ModelType.FLOW, "tbl_flows");
+		TABLES.put(ModelType.PROCESS, "tbl_processes");
+		TABLES.put(ModelType.PRODUCT_SYSTEM, "tbl_product_systems");
+		TABLES.put(ModelType.PROJECT, "tbl_projects");
+	}
+
 	private IDatabase database;
 	private TypedRefIdMap<Long> refIdToId = new TypedRefIdMap<>();
 	private EnumMap<ModelType, Map<Long, String>> idToRefId = new EnumMap<>(ModelType.class);
+	private EnumMap<ModelType, Map<Long, Stamp>> stamps = new EnumMap<>(ModelType.class);
 	private ReferenceMap references = new ReferenceMap();
 	private ReferenceMap usages = new ReferenceMap();
 	private Map<String, Long> nameToParameter = new HashMap<>();
@@ -33,10 +89,31 @@ class ModelReferences {
 	public static ModelReferences scan(IDatabase database) {
 		var refs = new ModelReferences(database);
 		refs.init();
+		refs.scanStamps();
 		refs.scan();
 		return refs;
 	}
 
+	/**
+	 * Loads the references from the given file, updates the references of the
+	 * changed models, and writes them back to the file. When the file does not
+	 * exist or cannot be read, a full scan is done.
+	 */
+	public static ModelReferences update(IDatabase database, File file,
+			Collection<? extends TypedRefId> changed) {
+		var refs = new ModelReferences(database);
+		refs.init();
+		if (!file.exists() || !refs.read(file)) {
+			refs.clear();
+			refs.scanStamps();
+			refs.scan();
+		} else {
+			refs.update(changed);
+		}
+		refs.write(file);
+		return refs;
+	}
+
 	public Set<ModelReference> get(TypedRefId pair) {
 		var refs = new HashSet<ModelReference>();
 		refs.addAll(getReferences(pair));
@@ -63,7 +140,8 @@ class ModelReferences {
 			return refs;
 		idMap.keySet().forEach(targetType -> idMap.get(targetType)
 				.forEach(targetId -> {
-					var refId = idToRefId.get(targetType).get(targetId);
+					var refIds = idToRefId.get(targetType);
+					var refId = refIds != null ? refIds.get(targetId) : null;
 					if (!Strings.nullOrEmpty(refId)) {
 						refs.add(new ModelReference(targetType, targetId, refId));
 					}
@@ -79,129 +157,221 @@ class ModelReferences {
 		});
 	}
 
+	private void clear() {
+		refIdToId = new TypedRefIdMap<>();
+		idToRefId.clear();
+		stamps.clear();
+		references.clear();
+		usages.clear();
+	}
+
 	private void scan() {
-		scanLocations();
-		scanSources();
-		scanActors();
-		scanCurrencies();
-		scanUnitGroups();
-		scanFlowProperties();
-		scanDQSystems();
-		scanGlobalParameters();
-		scanSocialIndicators();
-		scanImpactCategories();
-		scanImpactMethods();
-		scanResults();
-		scanEpds();
-		scanFlows();
-		scanProcesses();
-		scanProductSystems();
-		scanProjects();
-	}
-
-	private void scanLocations() {
-		scanTable("tbl_locations", true,
+		scan(Map.of());
+	}
+
+	/**
+	 * Scans the references of the models with the given IDs. For types that
+	 * are not contained in the given map, all models are scanned.
+	 */
+	private void scan(Map<ModelType, Set<Long>> filter) {
+		scanLocations(filter.get(ModelType.LOCATION));
+		scanSources(filter.get(ModelType.SOURCE));
+		scanActors(filter.get(ModelType.ACTOR));
+		scanCurrencies(filter.get(ModelType.CURRENCY));
+		scanUnitGroups(filter.get(ModelType.UNIT_GROUP));
+		scanFlowProperties(filter.get(ModelType.FLOW_PROPERTY));
+		scanDQSystems(filter.get(ModelType.DQ_SYSTEM));
+		scanSocialIndicators(filter.get(ModelType.SOCIAL_INDICATOR));
+		scanImpactCategories(filter.get(ModelType.IMPACT_CATEGORY));
+		scanImpactMethods(filter.get(ModelType.IMPACT_METHOD));
+		scanResults(filter.get(ModelType.RESULT));
+		scanEpds(filter.get(ModelType.EPD));
+		scanFlows(filter.get(ModelType.FLOW));
+		scanProcesses(filter.get(ModelType.PROCESS));
+		scanProductSystems(filter.get(ModelType.PRODUCT_SYSTEM));
+		scanProjects(filter.get(ModelType.PROJECT));
+	}
+
+	/**
+	 * Reads the current IDs, reference IDs, versions, and last-change time
+	 * stamps of all models and updates the references of the models that
+	 * changed.
+	 */
+	private void update(Collection<? extends TypedRefId> changed) {
+		var previous = stamps;
+		stamps = new EnumMap<>(ModelType.class);
+		refIdToId = new TypedRefIdMap<>();
+		idToRefId.clear();
+		scanStamps();
+
+		int total = 0;
+		var dirty = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var type : TABLES.keySet()) {
+			var current = stamps.getOrDefault(type, Map.of());
+			var old = previous.getOrDefault(type, Map.of());
+			total += current.size();
+			var ids = new HashSet<Long>();
+			current.forEach((id, stamp) -> {
+				if (!stamp.equals(old.get(id))) {
+					ids.add(id);
+				}
+			});
+			for (var id : old.keySet()) {
+				if (!current.containsKey(id)) {
+					ids.add(id);
+				}
+			}
+			dirty.put(type, ids);
+		}
+		if (changed != null) {
+			for (var ref : changed) {
+				var id = refIdToId.get(ref);
+				var ids = dirty.get(ref.type);
+				if (id != null && ids != null) {
+					ids.add(id);
+				}
+			}
+		}
+
+		int count = dirty.values().stream().mapToInt(Set::size).sum();
+		if (count == 0)
+			return;
+		if (count > FULL_SCAN_SHARE * total) {
+			references.clear();
+			usages.clear();
+			scan();
+			return;
+		}
+
+		dirty.forEach((type, ids) -> ids.forEach(id -> removeReferences(type, id)));
+
+		// parameter redefinitions are linked by name, so when a global
+		// parameter changed (e.g. it was renamed, added, or deleted), the
+		// redefinitions with its old links and its current name are linked
+		// again
+		var parameters = dirty.get(ModelType.PARAMETER);
+		if (!parameters.isEmpty()) {
+			for (var id : parameters) {
+				removeUsages(ModelType.PARAMETER, id, ModelType.PRODUCT_SYSTEM);
+				removeUsages(ModelType.PARAMETER, id, ModelType.PROJECT);
+			}
+			scanParameterRedefsOf(parameters);
+		}
+		scan(dirty);
+		LoggerFactory.getLogger(getClass())
+				.trace("updated references of {} changed models", count);
+	}
+
+	private void scanStamps() {
+		TABLES.forEach((type, table) -> {
+			var query = "SELECT id, ref_id, version, last_change FROM " + table;
+			if (type == ModelType.PARAMETER) {
+				query += " WHERE scope = 'GLOBAL'";
+			}
+			var map = stamps.computeIfAbsent(type, t -> new HashMap<>());
+			NativeSql.on(database).query(query, rs -> {
+				var id = rs.getLong(1);
+				putRefId(type, id, rs.getString(2));
+				map.put(id, new Stamp(rs.getLong(3), rs.getLong(4)));
+				return true;
+			});
+		});
+	}
+
+	private void scanLocations(Set<Long> ids) {
+		scanTable("tbl_locations", true, ids,
 				new ModelField(ModelType.LOCATION, "id"));
 	}
 
-	private void scanSources() {
-		scanTable("tbl_sources", true,
+	private void scanSources(Set<Long> ids) {
+		scanTable("tbl_sources", true, ids,
 				new ModelField(ModelType.SOURCE, "id"));
 	}
 
-	private void scanActors() {
-		scanTable("tbl_actors", true,
+	private void scanActors(Set<Long> ids) {
+		scanTable("tbl_actors", true, ids,
 				new ModelField(ModelType.ACTOR, "id"));
 	}
 
-	private void scanCurrencies() {
-		scanTable("tbl_currencies", true,
+	private void scanCurrencies(Set<Long> ids) {
+		scanTable("tbl_currencies", true, ids,
 				new ModelField(ModelType.CURRENCY, "id"),
 				new ModelField(ModelType.CURRENCY, "f_reference_currency"));
 	}
 
-	private void scanUnitGroups() {
-		scanTable("tbl_unit_groups", true,
+	private void scanUnitGroups(Set<Long> ids) {
+		scanTable("tbl_unit_groups", true, ids,
 				new ModelField(ModelType.UNIT_GROUP, "id"),
 				new ModelField(ModelType.FLOW_PROPERTY, "f_default_flow_property"));
 	}
 
-	private void scanFlowProperties() {
-		scanTable("tbl_flow_properties", true,
+	private void scanFlowProperties(Set<Long> ids) {
+		scanTable("tbl_flow_properties", true, ids,
 				new ModelField(ModelType.FLOW_PROPERTY, "id"),
 				new ModelField(ModelType.UNIT_GROUP, "f_unit_group"));
 	}
 
-	private void scanDQSystems() {
-		scanTable("tbl_dq_systems", true,
+	private void scanDQSystems(Set<Long> ids) {
+		scanTable("tbl_dq_systems", true, ids,
 				new ModelField(ModelType.DQ_SYSTEM, "id"));
 	}
 
-	private void scanGlobalParameters() {
-		var query = "SELECT id, ref_id FROM tbl_parameters WHERE scope = 'GLOBAL'";
-		NativeSql.on(database).query(query, rs -> {
-			var id = rs.getLong(1);
-			var refId = rs.getString(2);
-			putRefId(ModelType.PARAMETER, id, refId);
-			return true;
-		});
-	}
-
-	private void scanSocialIndicators() {
-		scanTable("tbl_social_indicators", true,
+	private void scanSocialIndicators(Set<Long> ids) {
+		scanTable("tbl_social_indicators", true, ids,
 				new ModelField(ModelType.SOCIAL_INDICATOR, "id"),
 				new ModelField(ModelType.FLOW_PROPERTY, "f_activity_quantity"));
 	}
 
-	private void scanImpactCategories() {
-		scanTable("tbl_impact_categories", true,
+	private void scanImpactCategories(Set<Long> ids) {
+		scanTable("tbl_impact_categories", true, ids,
 				new ModelField(ModelType.IMPACT_CATEGORY, "id"),
 				new ModelField(ModelType.IMPACT_METHOD, "id"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_impact_factors", false,
+		scanTable("tbl_impact_factors", false, ids,
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"),
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.LOCATION, "f_location"));
 	}
 
-	private void scanImpactMethods() {
-		scanTable("tbl_impact_methods", true,
+	private void scanImpactMethods(Set<Long> ids) {
+		scanTable("tbl_impact_methods", true, ids,
 				new ModelField(ModelType.IMPACT_METHOD, "id"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_source_links", false,
+		scanTable("tbl_source_links", false, ids,
 				new ModelField(ModelType.IMPACT_METHOD, "f_owner"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_impact_links", false,
+		scanTable("tbl_impact_links", false, ids,
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"),
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"));
 	}
 
-	private void scanFlows() {
-		scanTable("tbl_flows", true,
+	private void scanFlows(Set<Long> ids) {
+		scanTable("tbl_flows", true, ids,
 				new ModelField(ModelType.FLOW, "id"));
-		scanTable("tbl_flow_property_factors", false,
+		scanTable("tbl_flow_property_factors", false, ids,
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.FLOW_PROPERTY, "f_flow_property"));
 	}
 
-	private void scanProcesses() {
-		var docsToProcess = scanTable("tbl_processes", true, "f_process_doc",
+	private void scanProcesses(Set<Long> ids) {
+		var docsToProcess = scanTable("tbl_processes", true, "f_process_doc", ids,
 				new ModelField(ModelType.PROCESS, "id"),
 				new ModelField(ModelType.LOCATION, "f_location"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_dq_system"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_exchange_dq_system"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_social_dq_system"));
-		scanTable("tbl_process_docs", false,
+		var docs = ids != null ? docsToProcess.keySet() : null;
+		scanTable("tbl_process_docs", false, docs,
 				new ModelField(ModelType.PROCESS, "id", docsToProcess::get),
 				new ModelField(ModelType.ACTOR, "f_reviewer"),
 				new ModelField(ModelType.ACTOR, "f_data_documentor"),
 				new ModelField(ModelType.ACTOR, "f_data_generator"),
 				new ModelField(ModelType.ACTOR, "f_dataset_owner"),
 				new ModelField(ModelType.SOURCE, "f_publication"));
-		scanTable("tbl_source_links", false,
+		scanTable("tbl_source_links", false, docs,
 				new ModelField(ModelType.PROCESS, "f_owner", docsToProcess::get),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_exchanges", false,
+		scanTable("tbl_exchanges", false, ids,
 				new ModelField(ModelType.PROCESS, "f_owner"),
 				new ModelField(ModelType.PROCESS, "f_default_provider"),
 				new ModelField(ModelType.FLOW, "f_flow"),
@@ -209,111 +379,185 @@ class ModelReferences {
 				new ModelField(ModelType.FLOW, "f_currency"));
 	}
 
-	private void scanProductSystems() {
-		scanTable("tbl_product_systems", true,
+	private void scanProductSystems(Set<Long> ids) {
+		scanTable("tbl_product_systems", true, ids,
 				new ModelField(ModelType.PRODUCT_SYSTEM, "id"),
 				new ModelField(ModelType.PROCESS, "f_reference_process"));
-		scanTable("tbl_process_links", false,
+		scanTable("tbl_process_links", false, ids,
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"),
 				new ModelField(ModelType.PROCESS, "f_process"),
 				new ModelField(ModelType.PROCESS, "f_provider"));
-		var setToSystem = scanTable("tbl_parameter_redef_sets", false, "id",
+		var setToSystem = scanTable("tbl_parameter_redef_sets", false, "id", ids,
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, setToSystem::get);
+		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, setToSystem, ids != null);
 	}
 
-	private void scanProjects() {
-		scanTable("tbl_projects", true,
+	private void scanProjects(Set<Long> ids) {
+		scanTable("tbl_projects", true, ids,
 				new ModelField(ModelType.PROJECT, "id"),
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"));
-		var variantToProject = scanTable("tbl_project_variants", false, "id",
+		var variantToProject = scanTable("tbl_project_variants", false, "id", ids,
 				new ModelField(ModelType.PROJECT, "f_project"),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PROJECT, variantToProject::get);
+		scanParameterRedefs(ModelType.PROJECT, variantToProject, ids != null);
 	}
 
-	private void scanEpds() {
-		scanTable("tbl_epds", true,
+	private void scanEpds(Set<Long> ids) {
+		scanTable("tbl_epds", true, ids,
 				new ModelField(ModelType.EPD, "id"),
 				new ModelField(ModelType.ACTOR, "f_manufacturer"),
 				new ModelField(ModelType.ACTOR, "f_verifier"),
 				new ModelField(ModelType.ACTOR, "f_program_operator"),
 				new ModelField(ModelType.SOURCE, "f_pcr"),
 				new ModelField(ModelType.FLOW, "f_flow"));
-		scanTable("tbl_epd_modules", false,
+		scanTable("tbl_epd_modules", false, ids,
 				new ModelField(ModelType.EPD, "f_epd"),
 				new ModelField(ModelType.RESULT, "f_result"));
 	}
 
-	private void scanResults() {
-		scanTable("tbl_results", true,
+	private void scanResults(Set<Long> ids) {
+		scanTable("tbl_results", true, ids,
 				new ModelField(ModelType.RESULT, "id"),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"),
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"));
-		scanTable("tbl_flow_results", false,
+		scanTable("tbl_flow_results", false, ids,
 				new ModelField(ModelType.RESULT, "f_result"),
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.LOCATION, "f_location"));
-		scanTable("tbl_impact_results", false,
+		scanTable("tbl_impact_results", false, ids,
 				new ModelField(ModelType.RESULT, "f_result"),
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"));
 	}
 
-	private void scanParameterRedefs(ModelType ownerType, Function<Long, Long> mediator) {
+	/**
+	 * Scans the parameter redefinitions of the given owners; the given map
+	 * maps the IDs of the redefinition owners (parameter sets, project
+	 * variants) to the IDs of the actual owners. If filtered is true, only the
+	 * redefinitions of these owners are queried; otherwise the table is
+	 * scanned once.
+	 */
+	private void scanParameterRedefs(ModelType ownerType, Map<Long, Long> owners,
+			boolean filtered) {
+		if (owners.isEmpty())
+			return;
 		var query = "SELECT f_owner,name FROM tbl_parameter_redefs WHERE context_type IS NULL";
+		if (!filtered) {
+			queryParameterRedefs(query, owners, ownerType);
+			return;
+		}
+		var chunk = new ArrayList<String>(MAX_IN_SIZE);
+		for (var id : owners.keySet()) {
+			chunk.add(id.toString());
+			if (chunk.size() == MAX_IN_SIZE) {
+				queryParameterRedefs(query + " AND f_owner IN ("
+						+ String.join(",", chunk) + ")", owners, ownerType);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			queryParameterRedefs(query + " AND f_owner IN ("
+					+ String.join(",", chunk) + ")", owners, ownerType);
+		}
+	}
+
+	private void queryParameterRedefs(String query, Map<Long, Long> owners,
+			ModelType ownerType) {
 		NativeSql.on(database).query(query, rs -> {
 			var ownerId = rs.getLong(1);
-			var actualOwnerId = mediator.apply(ownerId);
+			var actualOwnerId = owners.get(ownerId);
 			if (actualOwnerId == null)
 				return true;
 			var name = rs.getString(2);
 			var parameterId = nameToParameter.get(name);
-			putRef(ownerType, ownerId, ModelType.PARAMETER, parameterId);
+			if (parameterId == null)
+				return true;
+			putRef(ownerType, actualOwnerId, ModelType.PARAMETER, parameterId);
+			return true;
+		});
+	}
+
+	/**
+	 * Links the redefinitions of the given global parameters with their
+	 * product systems and projects. Only the redefinitions with the current
+	 * names of these parameters are queried, with a join on the parameter
+	 * sets and project variants.
+	 */
+	private void scanParameterRedefsOf(Set<Long> parameters) {
+		var names = new ArrayList<String>();
+		nameToParameter.forEach((name, id) -> {
+			if (parameters.contains(id)) {
+				names.add("'" + name.replace("'", "''") + "'");
+			}
+		});
+		for (int i = 0; i < names.size(); i += MAX_IN_SIZE) {
+			var in = " IN (" + String.join(",",
+					names.subList(i, Math.min(i + MAX_IN_SIZE, names.size()))) + ")";
+			queryRedefsByName(ModelType.PRODUCT_SYSTEM,
+					"SELECT s.f_product_system, r.name FROM tbl_parameter_redefs r"
+							+ " JOIN tbl_parameter_redef_sets s ON r.f_owner = s.id"
+							+ " WHERE r.context_type IS NULL AND r.name" + in);
+			queryRedefsByName(ModelType.PROJECT,
+					"SELECT v.f_project, r.name FROM tbl_parameter_redefs r"
+							+ " JOIN tbl_project_variants v ON r.f_owner = v.id"
+							+ " WHERE r.context_type IS NULL AND r.name" + in);
+		}
+	}
+
+	private void queryRedefsByName(ModelType ownerType, String query) {
+		NativeSql.on(database).query(query, rs -> {
+			var parameterId = nameToParameter.get(rs.getString(2));
+			if (parameterId != null) {
+				putRef(ownerType, rs.getLong(1), ModelType.PARAMETER, parameterId);
+			}
 			return true;
 		});
 	}
 
-	private void scanTable(String table, boolean isRootEntity, ModelField source, ModelField... targets) {
-		scanTable(table, isRootEntity, null, source, targets);
+	private void scanTable(String table, boolean isRootEntity, Set<Long> ids, ModelField source,
+			ModelField... targets) {
+		scanTable(table, isRootEntity, null, ids, source, targets);
 	}
 
 	/**
 	 * if idField is not null, idField is queried additionally and a map between
 	 * the value of source.field and value of idField is returned, otherwise an
-	 * empty map
+	 * empty map; if ids is not null, only the rows where source.field is one of
+	 * these IDs are scanned
 	 */
-	private Map<Long, Long> scanTable(String table, boolean isRootEntity, String idField, ModelField source,
-			ModelField... targets) {
+	private Map<Long, Long> scanTable(String table, boolean isRootEntity, String idField, Set<Long> ids,
+			ModelField source, ModelField... targets) {
 		var targetFields = targets != null
 				? Arrays.stream(targets).map(t -> t.field).toArray(n -> new String[n])
 				: new String[0];
 		var map = new HashMap<Long, Long>();
-		query(table, isRootEntity, source, idField, targetFields, ids -> {
+		query(table, isRootEntity, source, idField, targetFields, ids, row -> {
 			var col = 0;
-			var sourceId = ids[col++];
+			Long sourceId = row[col++];
 			if (idField != null) {
-				map.put(ids[col++], sourceId);
+				map.put(row[col++], sourceId);
 			}
 			if (source.mediator != null) {
 				sourceId = source.mediator.apply(sourceId);
 			}
-			if (targets == null)
+			if (targets == null || sourceId == null)
 				return;
 			for (var target : targets) {
-				var targetId = ids[col++];
+				Long targetId = row[col++];
 				if (targetId == 0l)
 					continue;
 				if (target.mediator != null) {
 					targetId = target.mediator.apply(targetId);
 				}
-				putRef(source.type, sourceId, target.type, targetId);
+				if (targetId != null) {
+					putRef(source.type, sourceId, target.type, targetId);
+				}
 			}
 		});
 		return map;
 	}
 
 	private void query(String table, boolean isRootEntity, ModelField sourceField, String idField, String[] targets,
-			ResultHandler handler) {
+			Set<Long> ids, ResultHandler handler) {
 		var fields = new ArrayList<String>();
 		fields.add(sourceField.field);
 		if (idField != null) {
@@ -323,14 +567,33 @@ class ModelReferences {
 		var query = "SELECT " + fields.stream().collect(Collectors.joining(","))
 				+ (isRootEntity ? ",ref_id " : "")
 				+ " FROM " + table;
+		if (ids == null) {
+			query(query, isRootEntity, sourceField, fields.size(), handler);
+			return;
+		}
+		var chunk = new ArrayList<Long>(MAX_IN_SIZE);
+		for (var id : ids) {
+			chunk.add(id);
+			if (chunk.size() == MAX_IN_SIZE) {
+				query(query + in(sourceField.field, chunk), isRootEntity, sourceField, fields.size(), handler);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			query(query + in(sourceField.field, chunk), isRootEntity, sourceField, fields.size(), handler);
+		}
+	}
+
+	private void query(String query, boolean isRootEntity, ModelField sourceField, int fieldCount,
+			ResultHandler handler) {
 		NativeSql.on(database).query(query, rs -> {
-			var ids = new long[fields.size()];
-			for (var i = 0; i < fields.size(); i++) {
+			var ids = new long[fieldCount];
+			for (var i = 0; i < fieldCount; i++) {
 				ids[i] += rs.getLong(i + 1);
 			}
 			var id = ids[0];
 			if (isRootEntity) {
-				var refId = rs.getString(fields.size() + 1);
+				var refId = rs.getString(fieldCount + 1);
 				putRefId(sourceField.type, id, refId);
 			}
 			handler.handle(ids);
@@ -338,6 +601,12 @@ class ModelReferences {
 		});
 	}
 
+	private static String in(String field, List<Long> ids) {
+		return " WHERE " + field + " IN ("
+				+ ids.stream().map(Object::toString).collect(Collectors.joining(","))
+				+ ")";
+	}
+
 	private void putRef(ModelType sourceType, long sourceId, ModelType targetType, long targetId) {
 		references.computeIfAbsent(sourceType, t -> new HashMap<>())
 				.computeIfAbsent(sourceId, t -> new EnumMap<>(ModelType.class))
@@ -349,11 +618,140 @@ class ModelReferences {
 				.add(sourceId);
 	}
 
+	/**
+	 * Removes the references of the given model to other models; the usages
+	 * of the model by other models are kept.
+	 */
+	private void removeReferences(ModelType sourceType, long sourceId) {
+		var typeMap = references.get(sourceType);
+		if (typeMap == null)
+			return;
+		var targets = typeMap.remove(sourceId);
+		if (targets == null)
+			return;
+		targets.forEach((targetType, targetIds) -> targetIds
+				.forEach(targetId -> removeUsage(targetType, targetId, sourceType, sourceId)));
+	}
+
+	/**
+	 * Removes the references of all models of the given source type to the
+	 * given model.
+	 */
+	private void removeUsages(ModelType targetType, long targetId, ModelType sourceType) {
+		var typeMap = usages.get(targetType);
+		if (typeMap == null)
+			return;
+		var sources = typeMap.get(targetId);
+		if (sources == null)
+			return;
+		var sourceIds = sources.remove(sourceType);
+		if (sourceIds == null)
+			return;
+		var refs = references.get(sourceType);
+		if (refs == null)
+			return;
+		for (var sourceId : sourceIds) {
+			var targets = refs.get(sourceId);
+			var targetIds = targets != null ? targets.get(targetType) : null;
+			if (targetIds != null) {
+				targetIds.remove(targetId);
+			}
+		}
+	}
+
+	private void removeUsage(ModelType targetType, long targetId, ModelType sourceType, long sourceId) {
+		var typeMap = usages.get(targetType);
+		if (typeMap == null)
+			return;
+		var sources = typeMap.get(targetId);
+		if (sources == null)
+			return;
+		var sourceIds = sources.get(sourceType);
+		if (sourceIds != null) {
+			sourceIds.remove(sourceId);
+		}
+	}
+
 	private void putRefId(ModelType type, long id, String refId) {
 		refIdToId.put(new TypedRefId(type, refId), id);
 		idToRefId.computeIfAbsent(type, t -> new HashMap<>()).put(id, refId);
 	}
 
+	private boolean read(File file) {
+		try (var in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return false;
+			int typeCount = in.readInt();
+			for (int i = 0; i < typeCount; i++) {
+				var type = ModelType.valueOf(in.readUTF());
+				var map = stamps.computeIfAbsent(type, t -> new HashMap<>());
+				int count = in.readInt();
+				for (int j = 0; j < count; j++) {
+					map.put(in.readLong(), new Stamp(in.readLong(), in.readLong()));
+				}
+			}
+			int sourceCount = in.readInt();
+			for (int i = 0; i < sourceCount; i++) {
+				var sourceType = ModelType.valueOf(in.readUTF());
+				long sourceId = in.readLong();
+				int targetTypes = in.readInt();
+				for (int j = 0; j < targetTypes; j++) {
+					var targetType = ModelType.valueOf(in.readUTF());
+					int count = in.readInt();
+					for (int k = 0; k < count; k++) {
+						putRef(sourceType, sourceId, targetType, in.readLong());
+					}
+				}
+			}
+			return true;
+		} catch (Exception e) {
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to read model references " + file + "; rescan", e);
+			return false;
+		}
+	}
+
+	private void write(File file) {
+		try (var out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(stamps.size());
+			for (var e : stamps.entrySet()) {
+				out.writeUTF(e.getKey().name());
+				out.writeInt(e.getValue().size());
+				for (var stamp : e.getValue().entrySet()) {
+					out.writeLong(stamp.getKey());
+					out.writeLong(stamp.getValue().version);
+					out.writeLong(stamp.getValue().lastChange);
+				}
+			}
+			int sourceCount = references.values().stream().mapToInt(Map::size).sum();
+			out.writeInt(sourceCount);
+			for (var e : references.entrySet()) {
+				for (var source : e.getValue().entrySet()) {
+					out.writeUTF(e.getKey().name());
+					out.writeLong(source.getKey());
+					out.writeInt(source.getValue().size());
+					for (var targets : source.getValue().entrySet()) {
+						out.writeUTF(targets.getKey().name());
+						out.writeInt(targets.getValue().size());
+						for (var targetId : targets.getValue()) {
+							out.writeLong(targetId);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to write model references " + file, e);
+			if (file.exists()) {
+				file.delete();
+			}
+		}
+	}
+
 	private class ModelField {
 
 		private final ModelType type;
@@ -383,6 +781,9 @@ class ModelReferences {
 
 	}
 
+	private record Stamp(long version, long lastChange) {
+	}
+
 	private class ReferenceMap extends EnumMap<ModelType, Map<Long, EnumMap<ModelType, Set<Long>>>> {
 
 		private static final long serialVersionUID = 8651176950184800797L;
@@ -59,7 +59,8 @@ public class PushAction extends Action implements INavigationAction {
 		} catch (GitAPIException | InvocationTargetException | InterruptedException e) {
 			Actions.handleException("Error pushing to remote", e);
 		} finally {
-			Actions.refresh();
+			// the database is not changed by this action
+			Actions.refresh(List.of());
 		}
 	}
 
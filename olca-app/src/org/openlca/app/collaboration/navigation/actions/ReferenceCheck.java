@@ -1,5 +1,6 @@
 package org.openlca.app.collaboration.navigation.actions;
 
+import java.io.File;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,6 +16,7 @@ import org.openlca.app.collaboration.preferences.CollaborationPreference;
 import org.openlca.app.collaboration.viewers.diff.DiffNodeBuilder;
 import org.openlca.app.collaboration.viewers.diff.TriDiff;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.Repository;
 import org.openlca.core.database.IDatabase;
 import org.openlca.git.model.Diff;
 import org.openlca.git.model.DiffType;
@@ -24,6 +26,9 @@ import org.openlca.git.util.TypedRefIdSet;
 
 class ReferenceCheck {
 
+	/** The file of the model references, stored next to the Git index. */
+	static final String REFERENCES_FILE = "references.index";
+
 	private final IDatabase database;
 	private final TypedRefIdMap<Diff> diffs;
 	private final ModelReferences references;
@@ -36,7 +41,19 @@ class ReferenceCheck {
 		this.diffs = TypedRefIdMap.of(all);
 		this.input = input;
 		this.selection = new TypedRefIdSet(input);
-		this.references = App.exec("Collecting references", () -> ModelReferences.scan(Database.get()));
+		this.references = App.exec("Collecting references", () -> scan(all));
+	}
+
+	/**
+	 * Updates the persisted model references of the repository with the
+	 * changed datasets. Without a connected repository, a full scan is done.
+	 */
+	private static ModelReferences scan(List<Diff> changed) {
+		var repo = Repository.get();
+		if (repo == null)
+			return ModelReferences.scan(Database.get());
+		var file = new File(repo.git.getDirectory(), REFERENCES_FILE);
+		return ModelReferences.update(Database.get(), file, changed);
 	}
 
 	static Set<TriDiff> forRemote(IDatabase database, List<Diff> all, Set<TriDiff> input) {
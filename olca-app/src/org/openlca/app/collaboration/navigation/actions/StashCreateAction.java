@@ -48,6 +48,7 @@ public class StashCreateAction extends Action implements INavigationAction {
 	@Override
 	public void run() {
 		var repo = Repository.get();
+		List<Change> changes = null;
 		try {
 			var input = Datasets.select(selection, false, true);
 			if (input == null)
@@ -55,7 +56,7 @@ public class StashCreateAction extends Action implements INavigationAction {
 			var user = AuthenticationDialog.promptUser(repo);
 			if (user == null)
 				return;
-			var changes = input.datasets().stream()
+			changes = input.datasets().stream()
 					.map(d -> new Change(d.leftDiffType, d))
 					.collect(Collectors.toList());
 			Actions.run(GitStashCreate.from(Database.get())
@@ -67,7 +68,7 @@ public class StashCreateAction extends Action implements INavigationAction {
 			Actions.handleException("Error stashing changes", e);
 		} finally {
 			Cache.evictAll();
-			Actions.refresh();
+			Actions.refresh(changes);
 		}
 	}
 
@@ -88,8 +88,7 @@ class WorkspaceLibraryResolver implements LibraryResolver {
 			if (dialog.isFileSelected())
 				return App.exec("Extracting library " + newLib.id(),
 						() -> Libraries.importFromFile(new File(dialog.getLocation())));
-			return App.exec("Downloading and extracting library " + newLib.id(),
-					() -> Libraries.importFromUrl(dialog.getLocation()));
+			return Libraries.importFromUrl(dialog.getLocation());
 		} catch (IOException e) {
 			return null;
 		}
@@ -100,11 +99,10 @@ class WorkspaceLibraryResolver implements LibraryResolver {
 		if (!repo.isCollaborationServer())
 			return null;
 		try {
-			var stream = repo.client.downloadLibrary(newLib.id());
-			if (stream == null)
+			var source = repo.client.libraryDownload(newLib.id());
+			if (source == null)
 				return null;
-			return App.exec("Downloading and extracting library " + newLib.id(),
-					() -> Libraries.importFromStream(stream));
+			return Libraries.download(newLib.id(), source);
 		} catch (WebRequestException e) {
 			Actions.handleException("Error downloading library " + newLib.id(), e);
 			return null;
@@ -9,6 +9,10 @@ public class CollaborationPreference extends AbstractPreferenceInitializer {
 	public static final String CHECK_RESTRICTIONS = "olca-collaboration-check-restrictions";
 	public static final String CHECK_REFERENCES = "olca-collaboration-check-references";
 	public static final String DISPLAY_COMMENTS = "olca-collaboration-display-comments";
+	/** The connect timeout of server requests in seconds. */
+	public static final String CONNECT_TIMEOUT = "olca-collaboration-connect-timeout";
+	/** The read timeout of server requests in seconds; 0 means no timeout. */
+	public static final String READ_TIMEOUT = "olca-collaboration-read-timeout";
 
 	@Override
 	public void initializeDefaultPreferences() {
@@ -16,6 +20,8 @@ public class CollaborationPreference extends AbstractPreferenceInitializer {
 		store.setDefault(CHECK_RESTRICTIONS, false);
 		store.setDefault(CHECK_REFERENCES, false);
 		store.setDefault(DISPLAY_COMMENTS, false);
+		store.setDefault(CONNECT_TIMEOUT, 30);
+		store.setDefault(READ_TIMEOUT, 300);
 	}
 
 	public static boolean checkRestrictions() {
@@ -30,6 +36,14 @@ public class CollaborationPreference extends AbstractPreferenceInitializer {
 		return is(CHECK_REFERENCES);
 	}
 
+	public static int connectTimeout() {
+		return Math.max(0, getStore().getInt(CONNECT_TIMEOUT));
+	}
+
+	public static int readTimeout() {
+		return Math.max(0, getStore().getInt(READ_TIMEOUT));
+	}
+
 	public static boolean didReadAnnouncement(String serverUrl, String announcementId) {
 		var last = getStore().getString("olca-collaboration-last-announcement-" + serverUrl);
 		if (last == null)
@@ -61,6 +61,7 @@ public class Ssl {
 	public static void addCertificate(String name, Certificate certificate) {
 		try {
 			keyStore.setCertificateEntry(name, certificate);
+			WebRequests.reset();
 		} catch (Exception e) {
 			log.error("Error adding certificate to keystore", e);
 		}
@@ -69,6 +70,7 @@ public class Ssl {
 	public static void removeCertificate(String name) {
 		try {
 			keyStore.deleteEntry(name);
+			WebRequests.reset();
 		} catch (Exception e) {
 			log.error("Error removing certificate from keystore", e);
 		}
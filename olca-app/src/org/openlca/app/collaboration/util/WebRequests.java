@@ -5,6 +5,15 @@ import java.net.ConnectException;
 import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLHandshakeException;
@@ -13,6 +22,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status.Family;
 
 import org.openlca.app.collaboration.api.RepositoryClient;
+import org.openlca.app.collaboration.preferences.CollaborationPreference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,14 +35,35 @@ import com.sun.jersey.api.client.ClientResponse.Status;
 import com.sun.jersey.api.client.WebResource.Builder;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 
+/**
+ * Executes the HTTP requests of the collaboration server API. All requests
+ * share a single client with the same SSL context, so that the connections
+ * of the JDK connection cache (keep-alive) and the TLS sessions can be
+ * reused. The client is created on the first request and again after the
+ * trust store was changed (see {@link #reset()}).
+ * <p>
+ * The Jersey client sends its requests via the JDK URL connections, which
+ * keep idle connections in a JVM-wide cache; its size per host is the
+ * system property {@code http.maxConnections} (default 5) that we only read
+ * but do not change. Bulk calls (see {@link #callAll}) run at most that many
+ * requests at the same time, so that all their connections are kept alive.
+ */
 public class WebRequests {
 
 	private static final Logger log = LoggerFactory.getLogger(WebRequests.class);
 
-	static {
-	}
+	/**
+	 * The maximum number of concurrent requests of {@link #callAll}; this is
+	 * the number of idle connections per host that the JDK keeps alive.
+	 */
+	private static final int MAX_CONNECTIONS = Math.max(1,
+			Integer.getInteger("http.maxConnections", 5));
+
+	private static Client client;
+	private static ExecutorService executor;
 
 	public static String encodeQuery(String query) {
 		try {
@@ -47,14 +78,25 @@ public class WebRequests {
 	}
 
 	public static ClientResponse call(Type type, String url, String sessionId, Object data) throws WebRequestException {
+		return call(type, url, sessionId, data, Map.of());
+	}
+
+	public static ClientResponse call(Type type, String url, String sessionId, Object data,
+			Map<String, String> headers) throws WebRequestException {
 		log.info(type.name() + " " + url);
 		var request = builder(url, sessionId, data);
+		if (headers != null) {
+			headers.forEach(request::header);
+		}
 		try {
 			var response = call(type, request);
 			if (response.getStatus() >= 400 && response.getStatus() <= 599)
 				throw new WebRequestException(url, response);
-			if (response.getStatusInfo().getFamily() == Family.REDIRECTION)
-				return call(type, response.getLocation().toString(), sessionId, data);
+			if (response.getStatusInfo().getFamily() == Family.REDIRECTION) {
+				var location = response.getLocation().toString();
+				response.close();
+				return call(type, location, sessionId, data, headers);
+			}
 			return response;
 		} catch (Exception e) {
 			if (e instanceof WebRequestException)
@@ -63,6 +105,60 @@ public class WebRequests {
 		}
 	}
 
+	/**
+	 * Executes the given call for each of the given inputs concurrently, with
+	 * at most {@link #MAX_CONNECTIONS} requests at the same time. Returns the
+	 * results in the order of the inputs. When a call fails, the remaining
+	 * calls are canceled and the error is rethrown.
+	 */
+	public static <T, R> Map<T, R> callAll(Collection<? extends T> inputs, Call<T, R> call)
+			throws WebRequestException {
+		var results = new LinkedHashMap<T, R>();
+		if (inputs == null || inputs.isEmpty())
+			return results;
+		var exec = executor();
+		var futures = new ArrayList<Future<R>>();
+		var keys = new ArrayList<T>(inputs);
+		for (var input : keys) {
+			futures.add(exec.submit(() -> call.call(input)));
+		}
+		try {
+			for (int i = 0; i < keys.size(); i++) {
+				results.put(keys.get(i), futures.get(i).get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return results;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof WebRequestException w)
+				throw w;
+			if (e.getCause() instanceof RuntimeException r)
+				throw r;
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (var future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the shared client with a new one, e.g. with an updated SSL
+	 * context. The new client is set before the old one is destroyed, so that
+	 * new requests do not run into a destroyed client.
+	 */
+	public static void reset() {
+		Client old;
+		synchronized (WebRequests.class) {
+			old = client;
+			if (old == null)
+				return;
+			client = createClient();
+		}
+		old.destroy();
+	}
+
 	private static ClientResponse call(Type type, Builder builder) {
 		switch (type) {
 			case GET:
@@ -79,7 +175,7 @@ public class WebRequests {
 	}
 
 	private static Builder builder(String url, String sessionId, Object data) {
-		var resource = createClient().resource(url);
+		var resource = client().resource(url);
 		var builder = resource.accept(MediaType.APPLICATION_JSON_TYPE, MediaType.TEXT_PLAIN_TYPE,
 				MediaType.APPLICATION_OCTET_STREAM_TYPE);
 		builder.header("lca-cs-client-api-version", RepositoryClient.API_VERSION);
@@ -94,6 +190,25 @@ public class WebRequests {
 		return builder;
 	}
 
+	private static synchronized Client client() {
+		if (client == null) {
+			client = createClient();
+		}
+		return client;
+	}
+
+	private static synchronized ExecutorService executor() {
+		if (executor == null) {
+			var count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(MAX_CONNECTIONS, runnable -> {
+				var thread = new Thread(runnable, "WebRequests-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
 	private static Client createClient() {
 		var config = new DefaultClientConfig();
 		var context = Ssl.createContext();
@@ -104,6 +219,10 @@ public class WebRequests {
 		config.getProperties().put(ClientConfig.PROPERTY_FOLLOW_REDIRECTS, false);
 		var client = Client.create(config);
 		client.setChunkedEncodingSize(1024 * 100); // 100kb
+		client.setConnectTimeout(CollaborationPreference.connectTimeout() * 1000);
+		client.setReadTimeout(CollaborationPreference.readTimeout() * 1000);
+		// only accept compressed responses, requests are sent uncompressed
+		client.addFilter(new GZIPContentEncodingFilter(false));
 		return client;
 	}
 
@@ -111,6 +230,13 @@ public class WebRequests {
 		GET, POST, PUT, DELETE;
 	}
 
+	@FunctionalInterface
+	public interface Call<T, R> {
+
+		R call(T input) throws WebRequestException;
+
+	}
+
 	public static class WebRequestException extends Exception {
 
 		private static final long serialVersionUID = 1423557937866180113L;
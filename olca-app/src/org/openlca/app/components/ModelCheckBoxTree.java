@@ -48,7 +48,9 @@ public class ModelCheckBoxTree implements ICheckStateListener {
 		tree = new CheckboxTreeViewer(comp,
 			SWT.VIRTUAL | SWT.MULTI | SWT.BORDER);
 		tree.setUseHashlookup(true);
-		tree.setContentProvider(new NavigationContentProvider());
+		// checkChildren works with the child elements directly, thus we load
+		// them synchronously
+		tree.setContentProvider(NavigationContentProvider.synchronous());
 		tree.setLabelProvider(NavigationLabelProvider.withoutRepositoryState());
 		tree.setComparator(new NavigationComparator());
 		tree.addFilter(new ModelTypeFilter(types));
@@ -2,6 +2,7 @@ package org.openlca.app.db;
 
 import java.util.Objects;
 
+import org.openlca.app.search.SearchIndex;
 import org.openlca.core.database.EntityCache;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.matrix.cache.MatrixCache;
@@ -22,6 +23,7 @@ public final class Cache {
 	private static EntityCache entityCache;
 	private static MatrixCache matrixCache;
 	private static PathBuilder pathCache;
+	private static SearchIndex searchIndex;
 
 	private Cache() {
 	}
@@ -42,8 +44,23 @@ public final class Cache {
 		return pathCache;
 	}
 
-	public static void close() {
+	/**
+	 * Returns the full-text search index of the active database.
+	 */
+	public static synchronized SearchIndex getSearchIndex() {
+		if (searchIndex == null) {
+			var db = Objects.requireNonNull(Database.get());
+			searchIndex = SearchIndex.of(db);
+		}
+		return searchIndex;
+	}
+
+	public static synchronized void close() {
 		log.trace("close cache");
+		if (searchIndex != null) {
+			searchIndex.save();
+			searchIndex = null;
+		}
 		evictAll();
 		entityCache = null;
 		matrixCache = null;
@@ -55,11 +72,12 @@ public final class Cache {
 	 * Initializes the caches for the given database. Old cache instances are
 	 * closed.
 	 */
-	public static void create(IDatabase database) {
+	public static synchronized void create(IDatabase database) {
 		log.trace("create cache");
 		close();
 		entityCache = EntityCache.create(database);
 		matrixCache = MatrixCache.createLazy(database);
+		searchIndex = SearchIndex.of(database);
 		appCache = new AppCache();
 	}
 
@@ -71,6 +89,9 @@ public final class Cache {
 		if (d == null)
 			return;
 		log.trace("evict {} with ID {}", d.getClass(), d.id);
+		if (searchIndex != null) {
+			searchIndex.update(d);
+		}
 		if (d.type == null)
 			evictAll(); // to be on the save side
 		else if (shouldEvictAll(d.type)) {
@@ -99,6 +120,9 @@ public final class Cache {
 			matrixCache.evictAll();
 		}
 		pathCache = null;
+		if (searchIndex != null) {
+			searchIndex.markStale();
+		}
 	}
 
 	private static void evictEntity(Descriptor d) {
@@ -125,6 +149,9 @@ public final class Cache {
 	}
 
 	public static void registerNew(Descriptor descriptor) {
+		if (searchIndex != null) {
+			searchIndex.update(descriptor);
+		}
 		if (matrixCache == null)
 			return;
 		log.trace("register new model {}", descriptor);
@@ -1,11 +1,34 @@
 package org.openlca.app.db;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 import org.openlca.app.rcp.RcpActivator;
+import org.openlca.app.rcp.Workspace;
+import org.openlca.util.Dirs;
+import org.slf4j.LoggerFactory;
 import org.zeroturnaround.zip.ZipUtil;
 
+/**
+ * The database templates of the application. A template is packed as zip
+ * file in the application bundle. To not unpack it each time a database is
+ * created, it is extracted once into the template cache of the workspace
+ * (folder {@code db_templates}) and new databases are then copied from this
+ * image on file level. The image is tagged with the SHA-256 hash of the zip
+ * file in a file {@code <name>.id} next to it; it is replaced when the
+ * packed template changes. The reference data build can write such images
+ * directly into the cache (see {@code olca-refdata}).
+ */
 public enum DbTemplate {
 
 	EMPTY("db_templates/empty.zolca"),
@@ -14,7 +37,11 @@ public enum DbTemplate {
 
 	FLOWS("db_templates/flows.zolca");
 
+	private static final String CACHE_DIR = "db_templates";
+	private static final Object lock = new Object();
+
 	private final String resourcePath;
+	private volatile String hash;
 
 	DbTemplate(String resourcePath) {
 		this.resourcePath = resourcePath;
@@ -25,6 +52,24 @@ public enum DbTemplate {
 	 * given directory will be the name of the database.
 	 */
 	public void extract(File dir) {
+		try {
+			if (!dir.exists()) {
+				Files.createDirectories(dir.toPath());
+			}
+			var image = image();
+			if (image != null) {
+				copy(image.toPath(), dir.toPath());
+				return;
+			}
+		} catch (Exception e) {
+			LoggerFactory.getLogger(getClass()).warn(
+					"failed to use cached database template " + name()
+							+ "; unpack it directly", e);
+		}
+		unpack(dir);
+	}
+
+	private void unpack(File dir) {
 		try (var in = RcpActivator.getStream(resourcePath)) {
 			if (!dir.exists()) {
 				Files.createDirectories(dir.toPath());
@@ -36,4 +81,85 @@ public enum DbTemplate {
 		}
 	}
 
+	/**
+	 * Returns the extracted image of this template in the template cache.
+	 * Creates or replaces it if the cache does not contain an image of the
+	 * current template. Returns null if there is no template cache.
+	 */
+	private File image() throws IOException {
+		var root = Workspace.root();
+		if (root == null)
+			return null;
+		var cache = new File(root, CACHE_DIR);
+		var name = name().toLowerCase();
+		var image = new File(cache, name);
+		var idFile = new File(cache, name + ".id");
+		var hash = hash();
+		synchronized (lock) {
+			if (image.isDirectory() && idFile.exists()
+					&& hash.equals(Files.readString(idFile.toPath()).trim()))
+				return image;
+
+			// extract it into a temporary folder first, so that an
+			// interrupted extraction does not leave a broken image
+			Files.createDirectories(cache.toPath());
+			var temp = Files.createTempDirectory(cache.toPath(), name + "-").toFile();
+			unpack(temp);
+			Files.deleteIfExists(idFile.toPath());
+			if (image.exists()) {
+				Dirs.delete(image);
+			}
+			Files.move(temp.toPath(), image.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+			Files.writeString(idFile.toPath(), hash);
+			return image;
+		}
+	}
+
+	/**
+	 * The SHA-256 hash of the packed template; it is calculated once per
+	 * session.
+	 */
+	private String hash() throws IOException {
+		if (hash != null)
+			return hash;
+		try (InputStream in = RcpActivator.getStream(resourcePath)) {
+			if (in == null)
+				throw new IOException("template not found: " + resourcePath);
+			var digest = MessageDigest.getInstance("SHA-256");
+			var buffer = new byte[64 * 1024];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, n);
+			}
+			hash = HexFormat.of().formatHex(digest.digest());
+			return hash;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Copies the files of the image into the database folder. Hard links are
+	 * not used here because Derby writes into its segment and log files in
+	 * place, which would change the image too.
+	 */
+	private static void copy(Path image, Path target) throws IOException {
+		Files.walkFileTree(image, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(
+					Path dir, BasicFileAttributes attrs) throws IOException {
+				Files.createDirectories(target.resolve(image.relativize(dir)));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(
+					Path file, BasicFileAttributes attrs) throws IOException {
+				Files.copy(file, target.resolve(image.relativize(file)),
+						StandardCopyOption.REPLACE_EXISTING);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
 }
@@ -3,7 +3,8 @@ package org.openlca.app.db;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -12,10 +13,16 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.App;
 import org.openlca.app.rcp.Workspace;
+import org.openlca.app.util.Download;
 import org.openlca.app.util.MsgBox;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.library.Library;
@@ -155,13 +162,55 @@ public final class Libraries {
 		return libDir.getLibrary(info.name()).orElse(null);
 	}
 
+	/**
+	 * Downloads the library package from the given URL and imports it; see
+	 * {@link #download(String, Download.Source)}.
+	 */
 	public static Library importFromUrl(String url) {
-		try (var stream = new URL(url).openStream()) {
-			return importFromStream(stream);
-		} catch (IOException e) {
-			MsgBox.error("Error trying to resolve library url", e);
+		var name = UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8));
+		return download(name.toString(), Download.url(url));
+	}
+
+	/**
+	 * Downloads the library package with the given name from the given source
+	 * and imports it into the library folder. The download runs with a
+	 * cancelable progress dialog and is continued when the same library is
+	 * downloaded again after it was canceled or interrupted. This method needs
+	 * to be called from the UI thread. It returns null when the download or
+	 * import failed or was canceled.
+	 */
+	public static Library download(String name, Download.Source source) {
+		if (source == null)
+			return null;
+		var dir = new File(System.getProperty("java.io.tmpdir"), "olca-downloads");
+		var file = new File(dir, name.replaceAll("[^\\w.-]", "_") + ".zip");
+		var library = new AtomicReference<Library>();
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true, monitor -> {
+				try {
+					Download.of(source, file).withProgress(monitor).run();
+				} catch (OperationCanceledException e) {
+					throw new InterruptedException();
+				} catch (IOException e) {
+					throw new InvocationTargetException(e);
+				}
+				monitor.beginTask("Extracting library " + name, IProgressMonitor.UNKNOWN);
+				library.set(importFromFile(file));
+				monitor.done();
+			});
+		} catch (InterruptedException e) {
 			return null;
+		} catch (InvocationTargetException e) {
+			log.error("failed to download library " + name, e.getCause());
+			MsgBox.error("Error downloading library " + name, e.getCause());
+			return null;
+		}
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			log.trace("Error deleting downloaded file", e);
 		}
+		return library.get();
 	}
 
 	public static Library importFromStream(InputStream stream) {
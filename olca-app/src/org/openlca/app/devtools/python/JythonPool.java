@@ -0,0 +1,233 @@
+package org.openlca.app.devtools.python;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.openlca.app.App;
+import org.openlca.app.rcp.RcpActivator;
+import org.openlca.app.rcp.Workspace;
+import org.openlca.util.Dirs;
+import org.python.core.PyList;
+import org.python.core.PyObject;
+import org.python.core.PySystemState;
+import org.python.util.PythonInterpreter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zeroturnaround.zip.ZipUtil;
+
+/**
+ * A pool of Jython interpreters in which the bindings of the openLCA API
+ * (`mod_bindings.py` and `app_bindings.py`) are already loaded. A script is
+ * executed in an idle interpreter of the pool; after the execution, the
+ * globals of the interpreter are reset to the state directly after loading
+ * the bindings, so that variables of a script are not visible in the next
+ * run. Each interpreter has its own system state (`sys`), so that module
+ * imports and changes of the module search path of a script do not affect
+ * scripts that run in other interpreters at the same time; the loaded
+ * modules and the search path are also reset after the execution of a
+ * script. New interpreters are created on demand up to the size of the pool;
+ * when all of them are busy, a script waits for the next free interpreter.
+ * <p>
+ * The pool does not depend on the UI: errors of a script are thrown to the
+ * caller, so that it can be used from the scripting editor and from
+ * headless batch runs.
+ */
+public final class JythonPool {
+
+	private static final JythonPool instance = new JythonPool(
+			Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final int size;
+	private final LinkedBlockingDeque<Entry> idle = new LinkedBlockingDeque<>();
+	private final AtomicInteger created = new AtomicInteger();
+	private volatile boolean initialized;
+
+	private JythonPool(int size) {
+		this.size = size;
+	}
+
+	public static JythonPool get() {
+		return instance;
+	}
+
+	/**
+	 * Creates an interpreter in a background thread if the pool is empty, so
+	 * that the first script does not need to wait for loading the bindings.
+	 */
+	public void warmUp() {
+		if (!created.compareAndSet(0, 1))
+			return;
+		var thread = new Thread(() -> {
+			try {
+				idle.offerFirst(create());
+			} catch (Exception e) {
+				created.decrementAndGet();
+				log.error("failed to warm up Jython interpreter", e);
+			}
+		}, "Jython warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Executes the given script with the given variables in an interpreter of
+	 * the pool. The variables are set as globals in addition to the bindings
+	 * and are removed after the execution.
+	 */
+	public void exec(String script, Map<String, Object> variables)
+			throws InterruptedException {
+		var entry = acquire();
+		try {
+			if (variables != null) {
+				variables.forEach(entry.interpreter::set);
+			}
+			entry.interpreter.exec(script);
+		} finally {
+			release(entry);
+		}
+	}
+
+	/**
+	 * Executes the given script files one after another, each with the given
+	 * variables and fresh globals. Stops at the first failing script.
+	 */
+	public void execFiles(Iterable<File> files, Map<String, Object> variables)
+			throws Exception {
+		for (var file : files) {
+			log.info("execute script {}", file);
+			var script = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+			exec(script, variables);
+		}
+	}
+
+	private Entry acquire() throws InterruptedException {
+		var entry = idle.pollFirst();
+		if (entry != null)
+			return entry;
+		if (created.incrementAndGet() <= size) {
+			try {
+				return create();
+			} catch (RuntimeException e) {
+				created.decrementAndGet();
+				throw e;
+			}
+		}
+		created.decrementAndGet();
+		return idle.takeFirst();
+	}
+
+	/**
+	 * Puts the interpreter back into the pool after resetting its globals.
+	 * An interpreter that could not be reset is closed and replaced by a new
+	 * one on demand.
+	 */
+	private void release(Entry entry) {
+		try {
+			entry.reset();
+			idle.offerFirst(entry);
+		} catch (Exception e) {
+			log.warn("failed to reset Jython interpreter; it is discarded", e);
+			created.decrementAndGet();
+			entry.interpreter.close();
+		}
+	}
+
+	private Entry create() {
+		initFolder();
+		var start = System.currentTimeMillis();
+		var py = new PythonInterpreter(null, new PySystemState());
+		try {
+			py.set("log", LoggerFactory.getLogger(Jython.class));
+			py.set("direct", new Jython.EagerCollector());
+			execBindings(py, "mod_bindings.py");
+			execBindings(py, "app_bindings.py");
+		} catch (RuntimeException e) {
+			py.close();
+			throw e;
+		}
+		log.info("created Jython interpreter in {} ms",
+				System.currentTimeMillis() - start);
+		var sys = py.getSystemState();
+		return new Entry(py, py.getLocals().invoke("copy"),
+				sys.modules.invoke("copy"), new PyList((PyObject) sys.path));
+	}
+
+	private void execBindings(PythonInterpreter py, String bindings) {
+		String script;
+		try (var stream = JythonPool.class.getResourceAsStream(bindings)) {
+			script = IOUtils.toString(stream, StandardCharsets.UTF_8);
+		} catch (Exception e) {
+			throw new RuntimeException("failed to read " + bindings, e);
+		}
+		py.exec(script);
+	}
+
+	/**
+	 * Extracts the Python library in the workspace folder and sets the Python
+	 * path; this needs to be done before the first interpreter is created.
+	 */
+	private synchronized void initFolder() {
+		if (initialized)
+			return;
+		var pyDir = new File(Workspace.root(), "python");
+		try {
+
+			// check if the Python folder is tagged with the
+			// current application version
+			var versionFile = new File(pyDir, ".version");
+			var version = versionFile.exists()
+					? Files.readString(versionFile.toPath())
+					: null;
+			if (!Objects.equals(version, App.getVersion())) {
+
+				// replace it with the current version of the
+				// packed Python (Jython) library
+				if (pyDir.exists()) {
+					Dirs.delete(pyDir);
+				}
+				Files.createDirectories(pyDir.toPath());
+				var pyJar = "libs/jython-standalone-2.7.3.jar";
+				try (var is = RcpActivator.getStream(pyJar)) {
+					ZipUtil.unpack(is, pyDir, (entry) -> {
+						if (entry.startsWith("Lib/") && entry.length() > 4) {
+							return entry.substring(4);
+						} else {
+							return null;
+						}
+					});
+				}
+				Files.writeString(versionFile.toPath(), App.getVersion());
+			}
+		} catch (Exception e) {
+			log.error("failed to initialize Python folder " + pyDir, e);
+		}
+		System.setProperty("python.path", pyDir.getAbsolutePath());
+		System.setProperty("python.home", pyDir.getAbsolutePath());
+		initialized = true;
+	}
+
+	/**
+	 * An interpreter of the pool and copies of its globals, loaded modules,
+	 * and module search path after loading the bindings.
+	 */
+	private record Entry(
+			PythonInterpreter interpreter, PyObject globals,
+			PyObject modules, PyList path) {
+
+		void reset() {
+			interpreter.setLocals(globals.invoke("copy"));
+			var sys = interpreter.getSystemState();
+			sys.modules.invoke("clear");
+			sys.modules.invoke("update", modules);
+			sys.path.clear();
+			sys.path.addAll(path);
+		}
+	}
+}
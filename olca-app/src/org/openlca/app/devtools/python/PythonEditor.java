@@ -49,6 +49,7 @@ public class PythonEditor extends ScriptingEditor {
 	@Override
 	protected FormPage getPage() {
 		setTitleImage(Icon.PYTHON.get());
+		JythonPool.get().warmUp();
 		return page = new Page();
 	}
 
@@ -1,77 +1,229 @@
 package org.openlca.app.devtools.sql;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.openlca.core.database.IDatabase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Executes SQL statements of the SQL editor. The rows of a query are fetched
+ * in blocks of {@link #FETCH_SIZE} rows and only up to a given limit, at most
+ * {@link #MAX_ROWS}, are kept in memory. Larger query results can be streamed
+ * into a CSV file without holding them in memory. A running statement can be
+ * canceled from another thread via {@link #cancel()}.
+ */
 class SqlCommand {
 
-	private Logger log = LoggerFactory.getLogger(getClass());
+	static final int FETCH_SIZE = 1000;
 
-	public String exec(String sqlStatement, IDatabase database) {
+	/**
+	 * The maximum number of rows of a query that are kept in memory and shown
+	 * in the editor; larger results need to be exported.
+	 */
+	static final int MAX_ROWS = 5_000;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private volatile Statement statement;
+	private volatile boolean canceled;
+
+	static boolean isQuery(String sqlStatement) {
 		if (sqlStatement == null)
-			return "invalid sql statement";
+			return false;
 		String stmt = sqlStatement.trim().toLowerCase();
-		if (stmt.startsWith("select ") || stmt.startsWith("show "))
-			return runSelect(database, sqlStatement);
-		else
-			return runUpdate(database, sqlStatement);
+		return stmt.startsWith("select ") || stmt.startsWith("show ");
+	}
+
+	/**
+	 * Executes the given statement. For queries, at most {@code maxRows} rows
+	 * (but not more than {@link #MAX_ROWS}) are returned; the result is marked
+	 * as truncated when there are more.
+	 */
+	Result exec(String sqlStatement, IDatabase database, int maxRows) {
+		if (sqlStatement == null)
+			return Result.message(sqlStatement, "invalid sql statement", 0);
+		int limit = maxRows > 0
+				? Math.min(maxRows, MAX_ROWS)
+				: MAX_ROWS;
+		return isQuery(sqlStatement)
+				? runSelect(database, sqlStatement, limit)
+				: runUpdate(database, sqlStatement);
+	}
+
+	/**
+	 * Cancels the running statement. The fetching of rows is stopped in any
+	 * case, the execution of the statement itself only if the database
+	 * supports this.
+	 */
+	void cancel() {
+		canceled = true;
+		var stmt = statement;
+		if (stmt == null)
+			return;
+		try {
+			stmt.cancel();
+		} catch (SQLException e) {
+			log.trace("database does not support canceling statements", e);
+		}
+	}
+
+	boolean isCanceled() {
+		return canceled;
 	}
 
-	private String runSelect(IDatabase database, String query) {
+	private Result runSelect(IDatabase database, String query, int maxRows) {
 		log.info("run select statement {}", query);
-		try (Connection con = database.createConnection()) {
-			List<String[]> table = new ArrayList<>();
-			ResultSet result = con.createStatement().executeQuery(query);
-			String[] fields = getFields(result);
-			table.add(fields);
-			while (result.next()) {
-				String[] row = new String[fields.length];
-				table.add(row);
-				for (int i = 0; i < fields.length; i++) {
-					String field = fields[i];
-					Object o = result.getObject(field);
-					if (o != null)
-						row[i] = o.toString();
+		long start = System.nanoTime();
+		try (Connection con = database.createConnection();
+				 Statement stmt = con.createStatement()) {
+			statement = stmt;
+			stmt.setFetchSize(FETCH_SIZE);
+			if (maxRows > 0) {
+				// fetch one more row to see if the result is truncated
+				stmt.setMaxRows(maxRows + 1);
+			}
+			try (ResultSet result = stmt.executeQuery(query)) {
+				String[] columns = getColumns(result);
+				var rows = new ArrayList<String[]>();
+				boolean truncated = false;
+				while (result.next()) {
+					if (canceled)
+						break;
+					if (maxRows > 0 && rows.size() >= maxRows) {
+						truncated = true;
+						break;
+					}
+					rows.add(nextRow(result, columns.length));
 				}
+				return new Result(query, columns, rows, truncated,
+						canceled, millis(start), null);
 			}
-			result.close();
-			return new TextTable().format(table);
 		} catch (Exception e) {
-			return handleException(e);
+			return Result.message(query, handleException(e), millis(start));
+		} finally {
+			statement = null;
+		}
+	}
+
+	/**
+	 * Streams the rows of the given query into the given CSV file. Returns the
+	 * number of written rows. When the export is canceled or fails, the
+	 * incomplete file is deleted; for a canceled export, an
+	 * {@link InterruptedException} is thrown.
+	 */
+	long export(String query, IDatabase database, File file,
+			IProgressMonitor monitor) throws Exception {
+		log.info("export query {} to {}", query, file);
+		long count = 0;
+		boolean complete = false;
+		try (Connection con = database.createConnection();
+				 Statement stmt = con.createStatement();
+				 BufferedWriter writer = Files.newBufferedWriter(
+						 file.toPath(), StandardCharsets.UTF_8)) {
+			statement = stmt;
+			stmt.setFetchSize(FETCH_SIZE);
+			try (ResultSet result = stmt.executeQuery(query)) {
+				String[] columns = getColumns(result);
+				writeCsv(writer, columns);
+				while (result.next()) {
+					if (canceled || monitor.isCanceled())
+						break;
+					writeCsv(writer, nextRow(result, columns.length));
+					count++;
+					if (count % FETCH_SIZE == 0) {
+						monitor.subTask(count + " rows written");
+					}
+				}
+				complete = !canceled && !monitor.isCanceled();
+			}
+		} finally {
+			statement = null;
+			if (!complete) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}
+		if (!complete) {
+			log.info("export canceled after {} rows; deleted {}", count, file);
+			throw new InterruptedException("export canceled");
 		}
+		log.info("exported {} rows", count);
+		return count;
 	}
 
-	private String[] getFields(ResultSet result) throws Exception {
-		ResultSetMetaData metaData = result.getMetaData();
-		String[] fields = new String[metaData.getColumnCount()];
-		for (int i = 0; i < fields.length; i++) {
-			fields[i] = metaData.getColumnLabel(i + 1);
+	private void writeCsv(BufferedWriter writer, String[] row) throws Exception {
+		for (int i = 0; i < row.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			var value = row[i];
+			if (value == null)
+				continue;
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+					|| value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+				writer.write('"');
+				writer.write(value.replace("\"", "\"\""));
+				writer.write('"');
+			} else {
+				writer.write(value);
+			}
 		}
-		return fields;
+		writer.newLine();
 	}
 
-	private String runUpdate(IDatabase database, String stmt) {
+	private String[] nextRow(ResultSet result, int columns) throws SQLException {
+		var row = new String[columns];
+		for (int i = 0; i < columns; i++) {
+			Object o = result.getObject(i + 1);
+			if (o != null) {
+				row[i] = o.toString();
+			}
+		}
+		return row;
+	}
+
+	private String[] getColumns(ResultSet result) throws SQLException {
+		var metaData = result.getMetaData();
+		String[] columns = new String[metaData.getColumnCount()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = metaData.getColumnLabel(i + 1);
+		}
+		return columns;
+	}
+
+	private Result runUpdate(IDatabase database, String stmt) {
 		log.info("run update statement {}", stmt);
-		try (Connection con = database.createConnection()) {
-			int count = con.createStatement().executeUpdate(stmt);
+		long start = System.nanoTime();
+		try (Connection con = database.createConnection();
+				 Statement s = con.createStatement()) {
+			statement = s;
+			int count = s.executeUpdate(stmt);
 			con.commit();
 			log.info("{} rows updated", count);
 			database.getEntityFactory().getCache().evictAll();
-			return count + " rows updated";
+			return Result.message(stmt, count + " rows updated", millis(start));
 		} catch (Exception e) {
-			return handleException(e);
+			return Result.message(stmt, handleException(e), millis(start));
+		} finally {
+			statement = null;
 		}
 	}
 
+	private static long millis(long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+
 	private String handleException(Exception e) {
 		StringWriter writer = new StringWriter();
 		try (PrintWriter out = new PrintWriter(writer)) {
@@ -81,4 +233,42 @@ class SqlCommand {
 		return writer.toString();
 	}
 
+	/**
+	 * The result of a statement: the columns and rows of a query or a message
+	 * of an update or error.
+	 */
+	record Result(
+			String statement,
+			String[] columns,
+			List<String[]> rows,
+			boolean truncated,
+			boolean canceled,
+			long millis,
+			String message) {
+
+		static Result message(String statement, String message, long millis) {
+			return new Result(statement, new String[0], List.of(), false,
+					false, millis, message);
+		}
+
+		boolean isQuery() {
+			return message == null;
+		}
+
+		/** A short summary of the result with the execution time. */
+		String summary() {
+			if (!isQuery())
+				return message + " (" + millis + " ms)";
+			var text = String.format("%,d rows in %,d ms", rows.size(), millis);
+			if (truncated) {
+				text += "; limit reached, more rows available (export the"
+						+ " query to get all rows)";
+			}
+			if (canceled) {
+				text += "; canceled";
+			}
+			return text;
+		}
+	}
+
 }
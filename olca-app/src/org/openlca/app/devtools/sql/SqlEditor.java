@@ -1,24 +1,33 @@
 package org.openlca.app.devtools.sql;
 
 import java.io.File;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.action.Action;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
-import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Spinner;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
+import org.openlca.app.App;
 import org.openlca.app.M;
+import org.openlca.app.components.FileChooser;
 import org.openlca.app.db.Database;
 import org.openlca.app.devtools.ScriptingEditor;
 import org.openlca.app.editors.Editors;
@@ -26,6 +35,7 @@ import org.openlca.app.editors.SimpleEditorInput;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.Colors;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
 import org.python.google.common.base.Strings;
@@ -61,13 +71,19 @@ public class SqlEditor extends ScriptingEditor {
 
 	public void clearResults() {
 		page.resultText.setText("");
+		page.setTable(null);
 	}
 
 	private class Page extends FormPage {
 
 		private Text resultText;
+		private Table table;
+		private List<String[]> tableRows = List.of();
 		private StyledText queryText;
+		private Spinner maxRows;
 		private RunAction runAction;
+		private Action stopAction;
+		private SqlCommand command;
 
 		public Page() {
 			super(SqlEditor.this, "SqlEditorPage", "SQL Query Browser");
@@ -96,20 +112,120 @@ public class SqlEditor extends ScriptingEditor {
 				setDirty();
 			});
 
+			var limitComp = UI.composite(composite, toolkit);
+			UI.gridLayout(limitComp, 2, 10, 0);
+			UI.label(limitComp, toolkit, "Max. number of rows");
+			maxRows = UI.spinner(limitComp, toolkit, SWT.BORDER);
+			maxRows.setValues(1_000, 1, SqlCommand.MAX_ROWS, 0, 100, 1_000);
+
 			// bind actions
 			runAction = new RunAction();
+			stopAction = Actions.create(
+				"Stop", Icon.DELETE.descriptor(), this::stop);
+			stopAction.setEnabled(false);
+			var export = Actions.create(
+				"Export query result to CSV", Icon.EXPORT.descriptor(), this::export);
 			var saveAs = Actions.create(
 				M.SaveAs, Icon.SAVE_AS.descriptor(), () -> getEditor().doSaveAs());
-			Actions.bind(section, runAction, saveAs);
+			Actions.bind(section, runAction, stopAction, export, saveAs);
 		}
 
 		private void createResultSection(Composite body, FormToolkit toolkit) {
 			Section section = UI.section(body, toolkit, "Results");
 			UI.gridData(section, true, true);
 			Composite composite = UI.sectionClient(section, toolkit, 1);
-			composite.setLayout(new FillLayout());
 			resultText = UI.text(composite, toolkit,
 					SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL);
+			UI.gridData(resultText, true, false).heightHint = 80;
+
+			// a virtual table that only creates the visible items
+			table = new Table(composite,
+					SWT.VIRTUAL | SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI);
+			table.setHeaderVisible(true);
+			table.setLinesVisible(true);
+			UI.gridData(table, true, true);
+			table.addListener(SWT.SetData, e -> {
+				var item = (TableItem) e.item;
+				int index = table.indexOf(item);
+				if (index < 0 || index >= tableRows.size())
+					return;
+				var row = tableRows.get(index);
+				for (int i = 0; i < row.length; i++) {
+					item.setText(i, row[i] == null ? "NULL" : row[i]);
+				}
+			});
+		}
+
+		private void setTable(SqlCommand.Result result) {
+			table.setRedraw(false);
+			table.removeAll();
+			for (var column : table.getColumns()) {
+				column.dispose();
+			}
+			tableRows = result != null ? result.rows() : List.of();
+			if (result != null) {
+				for (var name : result.columns()) {
+					var column = new TableColumn(table, SWT.NONE);
+					column.setText(name);
+					column.setWidth(150);
+				}
+			}
+			table.setItemCount(tableRows.size());
+			table.setRedraw(true);
+		}
+
+		private void setRunning(boolean running) {
+			runAction.setEnabled(!running);
+			stopAction.setEnabled(running);
+		}
+
+		private void stop() {
+			if (command != null) {
+				command.cancel();
+			}
+		}
+
+		private void export() {
+			var db = Database.get();
+			if (db == null) {
+				MsgBox.error(M.NoDatabaseOpened, M.NeedOpenDatabase);
+				return;
+			}
+			var query = runAction.getStatements().stream()
+				.filter(SqlCommand::isQuery)
+				.findFirst()
+				.orElse(null);
+			if (query == null) {
+				MsgBox.error("No query", "There is no SELECT statement to export.");
+				return;
+			}
+			var file = FileChooser.forSavingFile(
+				"Export query result", "query_result.csv");
+			if (file == null)
+				return;
+			var count = new AtomicLong();
+			var cmd = new SqlCommand();
+			try {
+				PlatformUI.getWorkbench().getProgressService().run(true, true, m -> {
+					m.beginTask("Export query result", IProgressMonitor.UNKNOWN);
+					try {
+						count.set(cmd.export(query, db, file, m));
+					} catch (InterruptedException e) {
+						throw e;
+					} catch (Exception e) {
+						throw new InvocationTargetException(e);
+					} finally {
+						m.done();
+					}
+				});
+				resultText.setText(String.format(
+					"%,d rows exported to %s", count.get(), file));
+			} catch (InvocationTargetException e) {
+				ErrorReporter.on("Failed to export query result", e.getCause());
+			} catch (InterruptedException e) {
+				resultText.setText(
+					"Export canceled; the incomplete file was deleted: " + file);
+			}
 		}
 
 		private class RunAction extends Action {
@@ -122,34 +238,62 @@ public class SqlEditor extends ScriptingEditor {
 
 			@Override
 			public void run() {
-				if (Database.get() == null) {
+				var db = Database.get();
+				if (db == null) {
 					MsgBox.error(M.NoDatabaseOpened, M.NeedOpenDatabase);
 					return;
 				}
 				var statements = getStatements();
-				var results = new ArrayList<String>();
-				for (String st : statements) {
-					var result = new SqlCommand().exec(st, Database.get());
-					results.add(result);
-				}
-				if (results.size() == 1)
-					resultText.setText(results.get(0));
-				else {
-					var buff = new StringBuilder();
-					buff.append("Executed ")
-							.append(results.size())
-							.append(" statements:\n");
-					int i = 1;
-					for (String result : results) {
-						buff.append('\n')
-								.append(i)
-								.append(". result: \n")
-								.append(org.openlca.util.Strings.cut(result, 1500))
-								.append('\n');
-						i++;
+				int limit = maxRows.getSelection();
+				var cmd = new SqlCommand();
+				command = cmd;
+				setRunning(true);
+				resultText.setText("Running ...");
+				var results = new ArrayList<SqlCommand.Result>();
+				App.run("Run SQL statements", () -> {
+					for (String st : statements) {
+						if (cmd.isCanceled())
+							break;
+						results.add(cmd.exec(st, db, limit));
+					}
+				}, () -> {
+					command = null;
+					if (resultText.isDisposed())
+						return;
+					setRunning(false);
+					showResults(results);
+				});
+			}
+
+			private void showResults(List<SqlCommand.Result> results) {
+				SqlCommand.Result lastQuery = null;
+				for (var result : results) {
+					if (result.isQuery()) {
+						lastQuery = result;
 					}
-					resultText.setText(buff.toString());
 				}
+				setTable(lastQuery);
+				if (results.size() == 1) {
+					resultText.setText(results.get(0).summary());
+					return;
+				}
+				var buff = new StringBuilder();
+				buff.append("Executed ")
+						.append(results.size())
+						.append(" statements:\n");
+				int i = 1;
+				for (var result : results) {
+					buff.append('\n')
+							.append(i)
+							.append(". result: \n")
+							.append(org.openlca.util.Strings.cut(result.summary(), 1500))
+							.append('\n');
+					i++;
+				}
+				if (lastQuery != null) {
+					buff.append("\nThe table shows the rows of the last query.\n");
+				}
+				resultText.setText(buff.toString());
 			}
 
 			private List<String> getStatements() {
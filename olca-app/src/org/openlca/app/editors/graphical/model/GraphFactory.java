@@ -30,6 +30,12 @@ public class GraphFactory {
 
 	private final GraphEditor editor;
 
+	/**
+	 * The prefetched descriptors and entities of the nodes of a saved layout;
+	 * only set while the graph of that layout is created.
+	 */
+	private NodePrefetch prefetch;
+
 	public GraphFactory(GraphEditor editor) {
 		this.editor = editor;
 	}
@@ -38,7 +44,11 @@ public class GraphFactory {
 		if (descriptor == null || descriptor.type == null)
 			return null;
 
-		var node = applyInfo(new Node(descriptor), info);
+		var entity = editor.getDirty(descriptor.id);
+		if (entity == null && prefetch != null) {
+			entity = prefetch.entity(descriptor);
+		}
+		var node = applyInfo(new Node(descriptor, entity), info);
 
 		// A Node (MinMaxGraphComponent) `minimized` attribute is by default true.
 		if (!node.isMinimized()) {
@@ -191,35 +201,51 @@ public class GraphFactory {
 		var system = editor.getProductSystem();
 		var referenceProcess = system.referenceProcess;
 
-		// Create the reference node.
-		if (referenceProcess != null) {
-			var refNodeInfo = getNodeInfo(nodeArray, referenceProcess.refId);
-			var descriptor = getDescriptor(referenceProcess.id);
-			var refNode = createNode(descriptor, refNodeInfo);
-			if (refNode != null) {
-				graph.addChild(refNode);
-			}
-		}
-
-		// Create other nodes.
+		// Read the layout infos of the nodes once.
+		var infos = new LinkedHashMap<String, NodeLayoutInfo>();
 		for (var elem : nodeArray) {
 			if (!elem.isJsonObject())
 				continue;
-			var obj = elem.getAsJsonObject();
-			var info = GraphFile.toNodeLayoutInfo(obj);
-			if (info == null)
+			var info = GraphFile.toNodeLayoutInfo(elem.getAsJsonObject());
+			if (info == null || info.id == null)
 				continue;
+			infos.putIfAbsent(info.id, info);
+		}
 
-			// The reference should not be created again.
-			if (referenceProcess != null
-					&& Objects.equals(info.id, referenceProcess.refId))
-				continue;
+		// Resolve the descriptors and entities of all nodes in batches.
+		var refIds = new ArrayList<>(infos.keySet());
+		if (referenceProcess != null) {
+			refIds.add(referenceProcess.refId);
+		}
+		prefetch = NodePrefetch.of(Database.get(), refIds);
+		try {
+
+			// Create the reference node.
+			if (referenceProcess != null) {
+				var refNodeInfo = infos.get(referenceProcess.refId);
+				var descriptor = descriptorOf(referenceProcess.refId);
+				var refNode = createNode(descriptor, refNodeInfo);
+				if (refNode != null) {
+					graph.addChild(refNode);
+				}
+			}
 
-			var descriptor = getDescriptor(info.id);
-			var node = createNode(descriptor, info);
-			if (node == null)
-				continue;
-			graph.addChild(node);
+			// Create other nodes.
+			for (var info : infos.values()) {
+
+				// The reference should not be created again.
+				if (referenceProcess != null
+						&& Objects.equals(info.id, referenceProcess.refId))
+					continue;
+
+				var descriptor = descriptorOf(info.id);
+				var node = createNode(descriptor, info);
+				if (node == null)
+					continue;
+				graph.addChild(node);
+			}
+		} finally {
+			prefetch = null;
 		}
 
 		var pLinks = graph.linkSearch.getLinks(graph.getChildrenIds());
@@ -275,19 +301,13 @@ public class GraphFactory {
 		return graph;
 	}
 
-	private static NodeLayoutInfo getNodeInfo(JsonArray array, String id) {
-		var descriptor = getDescriptor(id);
-		if (descriptor != null) {
-			for (var elem : array) {
-				if (!elem.isJsonObject())
-					continue;
-				var obj = elem.getAsJsonObject();
-				var info = GraphFile.toNodeLayoutInfo(obj);
-				if (Objects.equals(info.id, descriptor.refId))
-					return info;
-			}
-		}
-		return null;
+	private RootDescriptor descriptorOf(String refId) {
+		var descriptor = prefetch != null
+				? prefetch.descriptor(refId)
+				: null;
+		return descriptor != null
+				? descriptor
+				: getDescriptor(refId);
 	}
 
 	public static RootDescriptor getDescriptor(long id) {
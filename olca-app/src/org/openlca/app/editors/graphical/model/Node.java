@@ -61,11 +61,21 @@ public class Node extends MinMaxComponent {
 	 * isOnlyChainingReferenceNode.
 	 */
 	public boolean wasExplored;
-	private final String comparisonLabel = Labels.name(getRefFlow());
+	private final String comparisonLabel;
 	private final Map<Integer, Boolean> buttonStatus = new HashMap<>();
 
 	public Node(RootDescriptor descriptor) {
+		this(descriptor, null);
+	}
+
+	/**
+	 * Creates a node with an already loaded entity, e.g. from a batched
+	 * query; if the entity is null, it is loaded when it is needed.
+	 */
+	public Node(RootDescriptor descriptor, RootEntity entity) {
 		this.descriptor = descriptor;
+		this.entity = entity;
+		this.comparisonLabel = Labels.name(getRefFlow());
 		setLocation(DEFAULT_LOCATION);
 		setSize(DEFAULT_SIZE);
 	}
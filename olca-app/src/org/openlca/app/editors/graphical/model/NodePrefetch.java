@@ -0,0 +1,114 @@
+package org.openlca.app.editors.graphical.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the descriptors and entities of the nodes of a saved graph layout
+ * in a few batched queries before the nodes are created. The reference IDs
+ * of the layout are mapped to the IDs of the processes, product systems, and
+ * results with one query per table; the descriptors and entities are then
+ * loaded per type in chunks of {@link #CHUNK_SIZE} IDs.
+ * <p>
+ * An instance is only used while a graph is built and should be discarded
+ * after this, so that later changes of the database are not hidden by the
+ * prefetched entities.
+ */
+class NodePrefetch {
+
+	private static final int CHUNK_SIZE = 500;
+
+	private static final Map<ModelType, String> TABLES = Map.of(
+			ModelType.PROCESS, "tbl_processes",
+			ModelType.PRODUCT_SYSTEM, "tbl_product_systems",
+			ModelType.RESULT, "tbl_results");
+
+	private final Map<String, RootDescriptor> byRefId = new HashMap<>();
+	private final Map<Long, RootEntity> entities = new HashMap<>();
+
+	private NodePrefetch() {
+	}
+
+	/**
+	 * Loads the descriptors and entities of the nodes with the given reference
+	 * IDs. Unknown reference IDs are ignored.
+	 */
+	static NodePrefetch of(IDatabase db, Collection<String> refIds) {
+		var prefetch = new NodePrefetch();
+		if (db == null || refIds == null || refIds.isEmpty())
+			return prefetch;
+		long start = System.currentTimeMillis();
+
+		// map the reference IDs to the IDs of the respective tables
+		var ids = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var chunk : chunks(new ArrayList<>(new HashSet<>(refIds)))) {
+			var list = new StringBuilder();
+			for (var refId : chunk) {
+				if (list.length() > 0) {
+					list.append(',');
+				}
+				list.append('\'').append(refId.replace("'", "''")).append('\'');
+			}
+			for (var e : TABLES.entrySet()) {
+				var sql = "select id from " + e.getValue()
+						+ " where ref_id in (" + list + ")";
+				NativeSql.on(db).query(sql, r -> {
+					ids.computeIfAbsent(e.getKey(), t -> new HashSet<>())
+							.add(r.getLong(1));
+					return true;
+				});
+			}
+		}
+
+		// load the descriptors and entities per type
+		for (var e : ids.entrySet()) {
+			var type = e.getKey();
+			for (var chunk : chunks(new ArrayList<>(e.getValue()))) {
+				var idSet = new HashSet<>(chunk);
+				for (var d : Daos.root(db, type).getDescriptors(idSet)) {
+					if (d instanceof RootDescriptor r) {
+						prefetch.byRefId.put(r.refId, r);
+					}
+				}
+				for (var entity : Daos.base(db, type.getModelClass()).getForIds(idSet)) {
+					prefetch.entities.put(entity.id, entity);
+				}
+			}
+		}
+
+		LoggerFactory.getLogger(NodePrefetch.class).trace(
+				"prefetched {} nodes in {} ms", prefetch.byRefId.size(),
+				System.currentTimeMillis() - start);
+		return prefetch;
+	}
+
+	private static <T> List<List<T>> chunks(List<T> list) {
+		var chunks = new ArrayList<List<T>>();
+		for (int i = 0; i < list.size(); i += CHUNK_SIZE) {
+			chunks.add(list.subList(i, Math.min(i + CHUNK_SIZE, list.size())));
+		}
+		return chunks;
+	}
+
+	RootDescriptor descriptor(String refId) {
+		return refId != null ? byRefId.get(refId) : null;
+	}
+
+	RootEntity entity(RootDescriptor d) {
+		return d != null ? entities.get(d.id) : null;
+	}
+}
@@ -0,0 +1,123 @@
+package org.openlca.app.editors.lcia.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.openlca.geo.calc.Bounds;
+import org.openlca.geo.geojson.Feature;
+import org.openlca.geo.geojson.FeatureCollection;
+
+/**
+ * A static R-tree over the bounding boxes of the features of a feature
+ * collection. The tree is bulk-loaded with the Sort-Tile-Recursive (STR)
+ * algorithm: the entries are sorted by the x-coordinates of their centers,
+ * cut into vertical slices, and each slice is sorted by the y-coordinates and
+ * packed into nodes of {@link #NODE_CAPACITY} entries. This is repeated level
+ * by level until a single root node is left. A query returns the features
+ * whose bounding boxes intersect a given bounding box; these are the
+ * candidates for an exact intersection test.
+ */
+class FeatureIndex {
+
+	private static final int NODE_CAPACITY = 16;
+
+	private final Node root;
+
+	private FeatureIndex(Node root) {
+		this.root = root;
+	}
+
+	static FeatureIndex of(FeatureCollection coll) {
+		var leaves = new ArrayList<Node>();
+		if (coll != null) {
+			for (var f : coll.features) {
+				if (f == null || f.geometry == null)
+					continue;
+				leaves.add(new Node(Bounds.of(f.geometry), f, null));
+			}
+		}
+		if (leaves.isEmpty())
+			return new FeatureIndex(null);
+		var level = leaves;
+		while (level.size() > 1) {
+			level = pack(level);
+		}
+		return new FeatureIndex(level.get(0));
+	}
+
+	/**
+	 * Returns the features which bounding boxes intersect with the given
+	 * bounding box.
+	 */
+	List<Feature> query(Bounds bounds) {
+		var features = new ArrayList<Feature>();
+		if (root == null || bounds == null)
+			return features;
+		var queue = new ArrayList<Node>();
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			var node = queue.remove(queue.size() - 1);
+			if (!node.bounds.intersects(bounds))
+				continue;
+			if (node.feature != null) {
+				features.add(node.feature);
+			} else {
+				queue.addAll(node.childs);
+			}
+		}
+		return features;
+	}
+
+	/**
+	 * Packs the given nodes into parent nodes with the STR algorithm.
+	 */
+	private static ArrayList<Node> pack(List<Node> nodes) {
+		int n = nodes.size();
+		int parentCount = (int) Math.ceil((double) n / NODE_CAPACITY);
+		int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+		int sliceSize = sliceCount * NODE_CAPACITY;
+
+		var sorted = new ArrayList<>(nodes);
+		sorted.sort(Comparator.comparingDouble(Node::centerX));
+		var parents = new ArrayList<Node>(parentCount);
+		for (int i = 0; i < n; i += sliceSize) {
+			var slice = new ArrayList<>(
+					sorted.subList(i, Math.min(i + sliceSize, n)));
+			slice.sort(Comparator.comparingDouble(Node::centerY));
+			for (int j = 0; j < slice.size(); j += NODE_CAPACITY) {
+				var childs = slice.subList(
+						j, Math.min(j + NODE_CAPACITY, slice.size()));
+				parents.add(Node.of(new ArrayList<>(childs)));
+			}
+		}
+		return parents;
+	}
+
+	private record Node(Bounds bounds, Feature feature, List<Node> childs) {
+
+		static Node of(List<Node> childs) {
+			var bounds = new Bounds();
+			bounds.minX = Double.POSITIVE_INFINITY;
+			bounds.minY = Double.POSITIVE_INFINITY;
+			bounds.maxX = Double.NEGATIVE_INFINITY;
+			bounds.maxY = Double.NEGATIVE_INFINITY;
+			for (var child : childs) {
+				var b = child.bounds;
+				bounds.minX = Math.min(bounds.minX, b.minX);
+				bounds.minY = Math.min(bounds.minY, b.minY);
+				bounds.maxX = Math.max(bounds.maxX, b.maxX);
+				bounds.maxY = Math.max(bounds.maxY, b.maxY);
+			}
+			return new Node(bounds, null, childs);
+		}
+
+		double centerX() {
+			return (bounds.minX + bounds.maxX) / 2;
+		}
+
+		double centerY() {
+			return (bounds.minY + bounds.maxY) / 2;
+		}
+	}
+}
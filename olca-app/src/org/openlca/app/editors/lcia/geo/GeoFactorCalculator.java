@@ -17,7 +17,6 @@ import org.openlca.expressions.FormulaInterpreter;
 import org.openlca.geo.calc.IntersectionCalculator;
 import org.openlca.geo.geojson.Feature;
 import org.openlca.geo.geojson.FeatureCollection;
-import org.openlca.geo.geojson.GeoJSON;
 import org.openlca.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,13 +27,15 @@ import gnu.trove.set.hash.TLongHashSet;
 class GeoFactorCalculator implements Runnable {
 
 	private final Setup setup;
+	private final LocationGeometries geometries;
 	private final ImpactCategory impact;
 	private final List<Location> locations;
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
-	GeoFactorCalculator(
-			Setup setup, ImpactCategory impact, List<Location> locations) {
+	GeoFactorCalculator(Setup setup, LocationGeometries geometries,
+			ImpactCategory impact, List<Location> locations) {
 		this.setup = setup;
+		this.geometries = geometries;
 		this.impact = impact;
 		this.locations = locations;
 	}
@@ -71,14 +72,19 @@ class GeoFactorCalculator implements Runnable {
 	/**
 	 * Calculates the parameter values for the given locations from the respective
 	 * intersections with the given feature collection and the aggregation function
-	 * that is defined in the respective parameter.
+	 * that is defined in the respective parameter. The intersections of a
+	 * location are only calculated with the features whose bounding boxes
+	 * intersect with the bounding box of the location, which are taken from
+	 * the spatial index of the setup.
 	 */
 	private Map<Location, List<Pair<GeoProperty, Double>>> calcParamVals(
 			FeatureCollection coll) {
-		IntersectionCalculator calc = IntersectionCalculator.on(coll);
+		var index = coll == setup.features
+				? setup.featureIndex()
+				: FeatureIndex.of(coll);
 		Map<Location, List<Pair<Feature, Double>>> map = locations
 				.parallelStream()
-				.map(loc -> Pair.of(loc, calcIntersections(loc, calc)))
+				.map(loc -> Pair.of(loc, calcIntersections(loc, index)))
 				.collect(Collectors.toMap(p -> p.first, p -> p.second));
 
 		Map<Location, List<Pair<GeoProperty, Double>>> locParams = new HashMap<>();
@@ -113,27 +119,24 @@ class GeoFactorCalculator implements Runnable {
 	}
 
 	/**
-	 * Calculates the intersection of the given location.
+	 * Calculates the intersection of the given location with the features of
+	 * the index that are candidates for an intersection.
 	 */
 	private List<Pair<Feature, Double>> calcIntersections(
-			Location loc, IntersectionCalculator calc) {
-		if (loc.geodata == null) {
-			log.info("No geodata for location {} found", loc);
-			return Collections.emptyList();
-		}
+			Location loc, FeatureIndex index) {
 		try {
-			FeatureCollection coll = GeoJSON.unpack(loc.geodata);
-			if (coll == null || coll.features.isEmpty()) {
+			var geometry = geometries.get(loc);
+			if (geometry == null) {
 				log.info("No geodata for location {} found", loc);
 				return Collections.emptyList();
 			}
-			Feature f = coll.features.get(0);
-			if (f == null || f.geometry == null) {
-				log.info("No geodata for location {} found", loc);
+			var candidates = index.query(geometry.bounds());
+			if (candidates.isEmpty())
 				return Collections.emptyList();
-			}
-
-			List<Pair<Feature, Double>> s = calc.shares(f.geometry);
+			var coll = new FeatureCollection();
+			coll.features.addAll(candidates);
+			List<Pair<Feature, Double>> s = IntersectionCalculator.on(coll)
+					.shares(geometry.geometry());
 			log.trace("Calculated intersetions for location {}", loc);
 			return s;
 		} catch (Exception e) {
@@ -266,35 +269,57 @@ class GeoFactorCalculator implements Runnable {
 			}
 		}
 
-		// finally, generate regionalized factors
+		// finally, generate regionalized factors; locations often have the
+		// same parameter values (e.g. the default values when there is no
+		// intersection), thus, we evaluate the formulas only once for each
+		// distinct combination of parameter values
+		var cache = new HashMap<List<Double>, double[]>();
 		for (Location loc : locParams.keySet()) {
-
-			// bind the location specific parameter values
-			// to a formula interpreter
-			fi = new FormulaInterpreter();
 			List<Pair<GeoProperty, Double>> pairs = locParams.get(loc);
 			if (pairs == null)
 				continue;
+			var vals = new ArrayList<Double>(pairs.size());
 			for (Pair<GeoProperty, Double> pair : pairs) {
-				GeoProperty param = pair.first;
-				double val = pair.second == null
-						? param.defaultValue
-						: pair.second;
-				fi.bind(param.identifier, Double.toString(val));
+				vals.add(pair.second == null
+						? pair.first.defaultValue
+						: pair.second);
 			}
-
-			for (GeoFlowBinding b : setup.bindings) {
-				if (b.flow == null || b.formula == null)
+			var factors = cache.computeIfAbsent(
+					vals, _v -> evalBindings(fi, loc.id, pairs, vals));
+			for (int i = 0; i < setup.bindings.size(); i++) {
+				var b = setup.bindings.get(i);
+				if (b.flow == null || b.formula == null || Double.isNaN(factors[i]))
 					continue;
-				try {
-					double val = fi.eval(b.formula);
-					var factor = impact.factor(b.flow, val);
-					factor.location = loc;
-				} catch (Exception e) {
-					log.error("Failed to calculate factor from formula "
-							+ b.formula + " in binding with flow " + b.flow, e);
-				}
+				var factor = impact.factor(b.flow, factors[i]);
+				factor.location = loc;
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the formulas of the flow bindings in a scope where the given
+	 * values are bound to the parameters. Formulas that could not be
+	 * evaluated result in {@code NaN} values.
+	 */
+	private double[] evalBindings(FormulaInterpreter fi, long scopeId,
+			List<Pair<GeoProperty, Double>> pairs, List<Double> vals) {
+		var scope = fi.createScope(scopeId);
+		for (int i = 0; i < pairs.size(); i++) {
+			scope.bind(pairs.get(i).first.identifier, vals.get(i));
+		}
+		var results = new double[setup.bindings.size()];
+		for (int i = 0; i < results.length; i++) {
+			var b = setup.bindings.get(i);
+			results[i] = Double.NaN;
+			if (b.flow == null || b.formula == null)
+				continue;
+			try {
+				results[i] = scope.eval(b.formula);
+			} catch (Exception e) {
+				log.error("Failed to calculate factor from formula "
+						+ b.formula + " in binding with flow " + b.flow, e);
 			}
 		}
+		return results;
 	}
 }
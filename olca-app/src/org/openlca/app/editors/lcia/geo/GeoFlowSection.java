@@ -138,8 +138,8 @@ class GeoFlowSection {
 				.filter(Objects::nonNull)
 				.collect(Collectors.toList());
 
-		var calc = new GeoFactorCalculator(
-				page.setup, page.editor.getModel(), locations);
+		var calc = new GeoFactorCalculator(page.setup,
+				page.geometries, page.editor.getModel(), locations);
 		App.runWithProgress("Calculate regionalized factors", calc, () -> {
 			page.editor.setDirty(true);
 			page.editor.emitEvent(page.editor.FACTORS_CHANGED_EVENT);
@@ -26,6 +26,7 @@ public class GeoPage extends ModelPage<ImpactCategory> {
 
 	final ImpactCategoryEditor editor;
 	Setup setup;
+	final LocationGeometries geometries = new LocationGeometries();
 
 	private GeoPropertySection paramSection;
 	private GeoFlowSection flowSection;
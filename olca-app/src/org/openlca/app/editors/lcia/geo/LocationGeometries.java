@@ -0,0 +1,44 @@
+package org.openlca.app.editors.lcia.geo;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openlca.core.model.Location;
+import org.openlca.geo.calc.Bounds;
+import org.openlca.geo.geojson.GeoJSON;
+import org.openlca.geo.geojson.Geometry;
+
+/**
+ * A cache of the decoded geometries of locations. Unpacking the geometry of
+ * a location from its compressed GeoJSON data is expensive and is done only
+ * once for a location as long as the location is not changed. The cache can
+ * be used from multiple threads.
+ */
+class LocationGeometries {
+
+	private final ConcurrentHashMap<Long, Entry> entries =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the decoded geometry of the given location or {@code null} when
+	 * the location has no geometry.
+	 */
+	Entry get(Location loc) {
+		if (loc == null || loc.geodata == null)
+			return null;
+		var entry = entries.get(loc.id);
+		if (entry != null && entry.lastChange == loc.lastChange)
+			return entry;
+		var coll = GeoJSON.unpack(loc.geodata);
+		if (coll == null || coll.features.isEmpty())
+			return null;
+		var f = coll.features.get(0);
+		if (f == null || f.geometry == null)
+			return null;
+		entry = new Entry(f.geometry, Bounds.of(f.geometry), loc.lastChange);
+		entries.put(loc.id, entry);
+		return entry;
+	}
+
+	record Entry(Geometry geometry, Bounds bounds, long lastChange) {
+	}
+}
@@ -27,11 +27,23 @@ class Setup {
 	final List<GeoFlowBinding> bindings = new ArrayList<>();
 
 	final FeatureCollection features;
+	private FeatureIndex featureIndex;
 
 	private Setup(FeatureCollection features) {
 		this.features = features;
 	}
 
+	/**
+	 * Returns the spatial index of the features of this setup. The index is
+	 * created when it is requested for the first time.
+	 */
+	synchronized FeatureIndex featureIndex() {
+		if (featureIndex == null) {
+			featureIndex = FeatureIndex.of(features);
+		}
+		return featureIndex;
+	}
+
 	/**
 	 * Try to read or generate a setup for calculating regionalized
 	 * characterization factors from the given file. The file may contain a
@@ -0,0 +1,215 @@
+package org.openlca.app.editors.processes.exchanges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.widgets.TableColumn;
+import org.openlca.app.App;
+import org.openlca.app.db.Cache;
+import org.openlca.core.model.Exchange;
+import org.openlca.core.model.Uncertainty;
+import org.openlca.core.model.descriptors.ProcessDescriptor;
+import org.openlca.io.CategoryPath;
+
+/**
+ * A lazy content provider for the exchange tables of the process editor. The
+ * exchanges of a table are filtered and sorted into an array of rows and only
+ * the visible rows are passed to the (virtual) table. For sorting, a typed
+ * sort key is computed once per exchange for the sort column. The keys are
+ * taken from the model and not from the label provider, as the filtering and
+ * sorting runs in a background job for large processes.
+ */
+class ExchangeContent implements ILazyContentProvider {
+
+	/**
+	 * Lists with more exchanges than this are filtered and sorted in a
+	 * background job.
+	 */
+	private static final int ASYNC_THRESHOLD = 2000;
+
+	private final TableViewer viewer;
+	private final boolean forInputs;
+
+	private List<Exchange> exchanges = List.of();
+	private Exchange[] rows = new Exchange[0];
+	private int sortColumn = -1;
+	private boolean ascending = true;
+
+	/** Incremented on each update so that outdated results are discarded. */
+	private int version;
+
+	ExchangeContent(TableViewer viewer, boolean forInputs) {
+		this.viewer = viewer;
+		this.forInputs = forInputs;
+	}
+
+	/**
+	 * Adds the sort listeners to the given columns of the table.
+	 */
+	void bindSorting(int... columns) {
+		var table = viewer.getTable();
+		for (int col : columns) {
+			if (col >= table.getColumnCount())
+				continue;
+			TableColumn column = table.getColumn(col);
+			column.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(SelectionEvent e) {
+					ascending = table.getSortColumn() != column || !ascending;
+					sortColumn = col;
+					table.setSortDirection(ascending ? SWT.UP : SWT.DOWN);
+					table.setSortColumn(column);
+					update();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Sets the exchanges of the process; the rows of the table are then
+	 * filtered and sorted from a copy of this list.
+	 */
+	void setExchanges(List<Exchange> exchanges) {
+		this.exchanges = exchanges != null ? exchanges : List.of();
+		update();
+	}
+
+	/**
+	 * Filters and sorts the exchanges into the rows of the table. This is
+	 * also called after an exchange was edited in the sort column, so that
+	 * the sort order is applied to the changed value (see
+	 * {@link #afterEdit(int)}).
+	 */
+	void update() {
+		int v = ++version;
+		var snapshot = new ArrayList<>(exchanges);
+		int col = sortColumn;
+		boolean asc = ascending;
+		if (snapshot.size() <= ASYNC_THRESHOLD) {
+			setRows(v, rowsOf(snapshot, col, asc));
+			return;
+		}
+		var result = new Exchange[1][];
+		App.run("Sort exchanges",
+				() -> result[0] = rowsOf(snapshot, col, asc),
+				() -> setRows(v, result[0]));
+	}
+
+	/**
+	 * Updates the table after a value in the given column was edited. The
+	 * rows are only sorted again when the table is sorted by that column;
+	 * otherwise, they keep their positions and only their labels are
+	 * refreshed, so that the edited row does not move.
+	 */
+	void afterEdit(int column) {
+		if (column >= 0 && column == sortColumn) {
+			update();
+		} else if (!viewer.getTable().isDisposed()) {
+			viewer.refresh();
+		}
+	}
+
+	private void setRows(int v, Exchange[] rows) {
+		if (v != version || rows == null)
+			return;
+		var table = viewer.getTable();
+		if (table.isDisposed())
+			return;
+		this.rows = rows;
+		viewer.setItemCount(rows.length);
+		viewer.refresh();
+	}
+
+	private Exchange[] rowsOf(List<Exchange> list, int col, boolean asc) {
+		var filtered = new ArrayList<Exchange>();
+		for (var e : list) {
+			if (e == null)
+				continue;
+			boolean visible = e.isAvoided
+					? e.isInput != forInputs
+					: e.isInput == forInputs;
+			if (visible) {
+				filtered.add(e);
+			}
+		}
+		if (col < 0)
+			return filtered.toArray(new Exchange[0]);
+
+		// compute the sort keys once and sort the row indices by them
+		int n = filtered.size();
+		var keys = new Comparable<?>[n];
+		var indices = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = keyOf(filtered.get(i), col);
+			indices[i] = i;
+		}
+		Arrays.sort(indices, (i, j) -> {
+			int c = compare(keys[i], keys[j]);
+			return asc ? c : -c;
+		});
+		var sorted = new Exchange[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = filtered.get(indices[i]);
+		}
+		return sorted;
+	}
+
+	/**
+	 * Returns the typed sort key of the given exchange for the given column:
+	 * numbers for the amount and cost columns, a boolean for the avoided flag,
+	 * and lower-case texts of the model values for the other columns.
+	 */
+	private static Comparable<?> keyOf(Exchange e, int col) {
+		return switch (col) {
+			case 0 -> e.flow != null ? lower(e.flow.name) : null;
+			case 1 -> e.flow != null
+					? lower(CategoryPath.getShort(e.flow.category))
+					: null;
+			case 2 -> e.amount;
+			case 3 -> e.unit != null ? lower(e.unit.name) : null;
+			case 4 -> e.costs;
+			case 5 -> lower(Uncertainty.string(e.uncertainty));
+			case 6 -> e.isAvoided;
+			case 7 -> {
+				if (e.defaultProviderId == 0)
+					yield null;
+				var p = Cache.getEntityCache()
+						.get(ProcessDescriptor.class, e.defaultProviderId);
+				yield p != null ? lower(p.name) : null;
+			}
+			case 8 -> e.dqEntry;
+			default -> null;
+		};
+	}
+
+	private static String lower(String s) {
+		return s != null ? s.toLowerCase() : null;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static int compare(Comparable k1, Comparable k2) {
+		if (k1 == null && k2 == null)
+			return 0;
+		if (k1 == null || k2 == null)
+			return k1 == null ? -1 : 1;
+		return k1.compareTo(k2);
+	}
+
+	@Override
+	public void updateElement(int index) {
+		if (index < 0 || index >= rows.length)
+			return;
+		viewer.replace(rows[index], index);
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+	}
+}
@@ -6,9 +6,8 @@ import java.util.List;
 import java.util.Objects;
 
 import org.eclipse.jface.action.Action;
+import org.eclipse.jface.viewers.ICellModifier;
 import org.eclipse.jface.viewers.TableViewer;
-import org.eclipse.jface.viewers.Viewer;
-import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.ui.forms.widgets.Section;
@@ -68,6 +67,7 @@ class ExchangeTable {
 	private final String AVOIDED;
 
 	private ExchangeLabel label;
+	private ExchangeContent content;
 
 	public static ExchangeTable forInputs(Section section, ProcessExchangePage page) {
 		ExchangeTable table = new ExchangeTable(true, page);
@@ -87,7 +87,7 @@ class ExchangeTable {
 		this.page = page;
 		this.editor = page.editor;
 		this.AVOIDED = forInputs ? M.AvoidedWaste : M.AvoidedProduct;
-		editor.getParameterSupport().afterEvaluation(() -> viewer.refresh());
+		editor.getParameterSupport().afterEvaluation(() -> content.afterEdit(columnOf(AMOUNT)));
 	}
 
 	private void render(Section section) {
@@ -95,9 +95,10 @@ class ExchangeTable {
 		viewer = Tables.createViewer(comp, getColumns());
 		label = new ExchangeLabel(editor);
 		viewer.setLabelProvider(label);
+		content = new ExchangeContent(viewer, forInputs);
+		viewer.setContentProvider(content);
 		bindModifiers();
 		ModelTransfer.onDrop(viewer.getTable(), this::add);
-		viewer.addFilter(new Filter());
 		bindActions(section);
 		bindDoubleClick(viewer);
 		double x = editor.hasAnyComment("exchanges")
@@ -105,14 +106,22 @@ class ExchangeTable {
 				: 0.7 / 9;
 		Tables.bindColumnWidths(viewer,
 				0.15, 0.15, x, x, x, x, x, x, x, x, x);
-		Viewers.sortByLabels(viewer, label, 0, 1, 3, 4, 5, 6, 7, 8);
-		Viewers.sortByDouble(viewer, (Exchange e) -> e.amount, 2);
+		content.bindSorting(0, 1, 2, 3, 4, 5, 6, 7, 8);
 		viewer.getTable().getColumns()[2].setAlignment(SWT.RIGHT);
 		viewer.getTable().getColumns()[4].setAlignment(SWT.RIGHT);
 	}
 
+	/**
+	 * Filters and sorts the rows of the table again, e.g. when exchanges were
+	 * moved between the input and output table.
+	 */
+	void refresh() {
+		content.update();
+	}
+
 	void setInput(Process process) {
-		viewer.setInput(process.exchanges);
+		viewer.setInput(process);
+		content.setExchanges(process.exchanges);
 	}
 
 	private void bindModifiers() {
@@ -132,6 +141,42 @@ class ExchangeTable {
 		ms.bind("", new CommentDialogModifier<>(
 				editor.getComments(), CommentPaths::get));
 		bindAmountModifier(ms);
+		resortOnModify();
+	}
+
+	/**
+	 * Applies the sort order again after a cell of the sort column was
+	 * edited, as the edited value can change the position of the exchange.
+	 * When the avoided flag was changed, the exchange moves to the other
+	 * table, thus both tables are updated then.
+	 */
+	private void resortOnModify() {
+		var modifier = viewer.getCellModifier();
+		if (modifier == null)
+			return;
+		viewer.setCellModifier(new ICellModifier() {
+			@Override
+			public boolean canModify(Object element, String property) {
+				return modifier.canModify(element, property);
+			}
+
+			@Override
+			public Object getValue(Object element, String property) {
+				return modifier.getValue(element, property);
+			}
+
+			@Override
+			public void modify(Object element, String property, Object value) {
+				modifier.modify(element, property, value);
+				if (viewer.getTable().isDisposed())
+					return;
+				if (AVOIDED.equals(property)) {
+					page.refreshTables();
+				} else {
+					content.afterEdit(columnOf(property));
+				}
+			}
+		});
 	}
 
 	private void bindAmountModifier(ModifySupport<Exchange> ms) {
@@ -151,7 +196,7 @@ class ExchangeTable {
 				editor.getParameterSupport().evaluate();
 			}
 			editor.setDirty(true);
-			viewer.refresh();
+			content.afterEdit(columnOf(AMOUNT));
 		});
 	}
 
@@ -229,6 +274,10 @@ class ExchangeTable {
 		return columns.toArray(new String[0]);
 	}
 
+	private int columnOf(String property) {
+		return Arrays.asList(getColumns()).indexOf(property);
+	}
+
 	private void onRemove() {
 		Process process = editor.getModel();
 		List<Exchange> selection = Viewers.getAllSelected(viewer);
@@ -238,7 +287,7 @@ class ExchangeTable {
 		if (b == null || !b)
 			return;
 		selection.forEach(e -> process.exchanges.remove(e));
-		viewer.setInput(process.exchanges);
+		setInput(process);
 		editor.setDirty(true);
 		editor.emitEvent(ProcessEditor.EXCHANGES_CHANGED);
 	}
@@ -267,7 +316,7 @@ class ExchangeTable {
 		}
 		if (!added)
 			return;
-		viewer.setInput(process.exchanges);
+		setInput(process);
 		editor.setDirty(true);
 		editor.emitEvent(ProcessEditor.EXCHANGES_CHANGED);
 	}
@@ -283,7 +332,7 @@ class ExchangeTable {
 			e.internalId = ++process.lastInternalId;
 			process.exchanges.add(e);
 		}
-		viewer.setInput(process.exchanges);
+		setInput(process);
 		editor.setDirty(true);
 		editor.emitEvent(ProcessEditor.EXCHANGES_CHANGED);
 		editor.getParameterSupport().evaluate();
@@ -336,18 +385,6 @@ class ExchangeTable {
 		return true;
 	}
 
-	private class Filter extends ViewerFilter {
-		@Override
-		public boolean select(Viewer viewer, Object parent, Object obj) {
-			if (!(obj instanceof Exchange e))
-				return false;
-			if (e.isAvoided)
-				return e.isInput != forInputs;
-			else
-				return e.isInput == forInputs;
-		}
-	}
-
 	private class FormulaSwitchAction extends Action {
 
 		private boolean showFormulas = true;
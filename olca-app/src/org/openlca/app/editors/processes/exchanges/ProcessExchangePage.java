@@ -107,8 +107,8 @@ public class ProcessExchangePage extends ModelPage<Process> {
 
 	void refreshTables() {
 		if (inputTable != null && inputTable.viewer != null)
-			inputTable.viewer.refresh();
+			inputTable.refresh();
 		if (outputTable != null && outputTable.viewer != null)
-			outputTable.viewer.refresh();
+			outputTable.refresh();
 	}
 }
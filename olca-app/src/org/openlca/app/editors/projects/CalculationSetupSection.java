@@ -2,6 +2,7 @@ package org.openlca.app.editors.projects;
 
 import java.util.ArrayList;
 
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.forms.widgets.FormToolkit;
@@ -10,6 +11,7 @@ import org.openlca.app.M;
 import org.openlca.app.db.Database;
 import org.openlca.app.editors.comments.CommentControl;
 import org.openlca.app.editors.projects.reports.model.Report;
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.rcp.images.Images;
 import org.openlca.app.util.Controls;
 import org.openlca.app.util.ErrorReporter;
@@ -87,6 +89,20 @@ class CalculationSetupSection {
 		});
 		UI.filler(comp, tk);
 
+		// number of variants that are calculated in parallel; this is an
+		// application setting and not stored in the project
+		UI.label(comp, tk, M.ParallelCalculations);
+		var threads = UI.spinner(comp, tk, SWT.BORDER);
+		int cores = Runtime.getRuntime().availableProcessors();
+		threads.setValues(
+				Math.min(cores, Preferences.getInt(Preferences.CALCULATION_THREADS, 1)),
+				1, cores, 0, 1, 1);
+		threads.setToolTipText("The number of project variants that are"
+				+ " calculated at the same time");
+		threads.addModifyListener($ -> Preferences.set(
+				Preferences.CALCULATION_THREADS, threads.getSelection()));
+		UI.filler(comp, tk);
+
 		// report button
 		if (editor.report == null) {
 			var beforeReport = UI.filler(comp, tk);
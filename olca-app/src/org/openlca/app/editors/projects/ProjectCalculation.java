@@ -0,0 +1,189 @@
+package org.openlca.app.editors.projects;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.app.App;
+import org.openlca.app.M;
+import org.openlca.app.db.Libraries;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Project;
+import org.openlca.core.model.ProjectVariant;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.ProjectResult;
+
+/**
+ * Calculates the variants of a project in parallel. The variants are
+ * independent from each other and are calculated on a fixed number of worker
+ * threads. Each variant is calculated with a {@link SystemCalculator} that
+ * uses the solver of the application (and the libraries of the database if
+ * present), like in a sequential calculation of the project. Thus, also the
+ * results of sub-systems are calculated as before.
+ * <p>
+ * The workers share the entities of the project (which may contain unsaved
+ * changes of the editor). As the lazy collections of these entities must not
+ * be loaded from multiple threads, they are loaded before the workers are
+ * started (see {@link #load}). A variant that fails is not added to the
+ * result; its error is available via {@link #failures()}.
+ */
+class ProjectCalculation {
+
+	private final Project project;
+	private final IDatabase db;
+	private final int threads;
+	private final Map<ProjectVariant, Throwable> failures = new ConcurrentHashMap<>();
+
+	private ProjectCalculation(Project project, IDatabase db, int threads) {
+		this.project = project;
+		this.db = db;
+		this.threads = Math.max(1, threads);
+	}
+
+	static ProjectCalculation of(Project project, IDatabase db, int threads) {
+		return new ProjectCalculation(project, db, threads);
+	}
+
+	/**
+	 * Returns the errors of the variants that could not be calculated in the
+	 * order of the project variants.
+	 */
+	Map<ProjectVariant, Throwable> failures() {
+		var map = new LinkedHashMap<ProjectVariant, Throwable>();
+		for (var v : project.variants) {
+			var err = failures.get(v);
+			if (err != null) {
+				map.put(v, err);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Calculates the enabled variants of the project. The progress is
+	 * reported per finished variant to the given monitor. Throws an
+	 * {@link OperationCanceledException} when the calculation was canceled.
+	 */
+	ProjectResult run(IProgressMonitor monitor) throws Exception {
+		var variants = new ArrayList<ProjectVariant>();
+		for (var v : project.variants) {
+			if (v.isDisabled || v.productSystem == null)
+				continue;
+			variants.add(v);
+		}
+		monitor.beginTask(M.Calculate, variants.size());
+		load(variants);
+
+		var results = new ConcurrentHashMap<ProjectVariant, LcaResult>();
+		ExecutorService pool = Executors.newFixedThreadPool(
+				Math.min(threads, Math.max(1, variants.size())));
+		var futures = new ArrayList<Future<?>>();
+		for (var v : variants) {
+			futures.add(pool.submit(() -> {
+				if (monitor.isCanceled())
+					return;
+				try {
+					results.put(v, calculate(v));
+				} catch (Throwable e) {
+					failures.put(v, e);
+				}
+				monitor.subTask(v.name);
+				monitor.worked(1);
+			}));
+		}
+		pool.shutdown();
+
+		try {
+			while (!pool.awaitTermination(250, TimeUnit.MILLISECONDS)) {
+				if (monitor.isCanceled()) {
+					pool.shutdownNow();
+				}
+			}
+			for (var f : futures) {
+				f.get();
+			}
+		} catch (Exception e) {
+			pool.shutdownNow();
+			dispose(results.values());
+			throw e;
+		} finally {
+			monitor.done();
+		}
+
+		if (monitor.isCanceled()) {
+			dispose(results.values());
+			throw new OperationCanceledException();
+		}
+
+		// add the results in the order of the project variants
+		var result = new ProjectResult();
+		for (var v : variants) {
+			var r = results.get(v);
+			if (r != null) {
+				result.addResult(v, r);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Loads the lazy collections of the entities that are shared by the
+	 * workers, so that they are only read in the calculations.
+	 */
+	private void load(Iterable<ProjectVariant> variants) {
+		var method = project.impactMethod;
+		if (method != null) {
+			for (var impact : method.impactCategories) {
+				impact.impactFactors.size();
+				impact.parameters.size();
+			}
+		}
+		if (project.nwSet != null) {
+			project.nwSet.factors.size();
+		}
+		for (var v : variants) {
+			v.parameterRedefs.size();
+			var system = v.productSystem;
+			system.processes.size();
+			system.processLinks.size();
+			for (var set : system.parameterSets) {
+				set.parameters.size();
+			}
+		}
+	}
+
+	private LcaResult calculate(ProjectVariant v) {
+		var calc = new SystemCalculator(db)
+				.withSolver(App.getSolver());
+		Libraries.forCalculation().ifPresent(calc::withLibraries);
+		return calc.calculateEager(setupOf(v));
+	}
+
+	private CalculationSetup setupOf(ProjectVariant v) {
+		return CalculationSetup.of(v.productSystem)
+				.withUnit(v.unit)
+				.withFlowPropertyFactor(v.flowPropertyFactor)
+				.withAmount(v.amount)
+				.withAllocation(v.allocationMethod)
+				.withImpactMethod(project.impactMethod)
+				.withNwSet(project.nwSet)
+				.withParameters(v.parameterRedefs)
+				.withRegionalization(project.isWithRegionalization)
+				.withCosts(project.isWithCosts);
+	}
+
+	private static void dispose(Iterable<LcaResult> results) {
+		for (var r : results) {
+			r.dispose();
+		}
+	}
+}
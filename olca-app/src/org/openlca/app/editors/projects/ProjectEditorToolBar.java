@@ -1,20 +1,28 @@
 package org.openlca.app.editors.projects;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.EditorActionBarContributor;
-import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
 import org.openlca.app.editors.Editors;
 import org.openlca.app.editors.projects.results.ProjectResultEditor;
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.core.results.ProjectResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ProjectEditorToolBar extends EditorActionBarContributor {
 
+	private static final Logger log = LoggerFactory.getLogger(ProjectEditorToolBar.class);
+
 	@Override
 	public void contributeToToolBar(IToolBarManager toolBar) {
 		toolBar.add(Actions.onCalculate(() -> {
@@ -47,26 +55,60 @@ public class ProjectEditorToolBar extends EditorActionBarContributor {
 			return;
 		}
 
-		var ref = new Object() {
-			ProjectResult result;
-		};
-		Runnable calculation = () -> {
-			try {
-				ref.result = ProjectResult.calculate(project, db);
-			} catch (OutOfMemoryError e) {
-				MsgBox.error(M.OutOfMemory, M.CouldNotAllocateMemoryError);
-			} catch (MathIllegalArgumentException e) {
-				MsgBox.error("Matrix error", e);
-			} catch (Exception e) {
-				ErrorReporter.on("Calculation failed", e);
-			}
-		};
+		int threads = Preferences.getInt(Preferences.CALCULATION_THREADS, 1);
+		var calculation = ProjectCalculation.of(project, db, threads);
+		ProjectResult result = null;
+		try {
+			var ref = new Object() {
+				ProjectResult result;
+			};
+			PlatformUI.getWorkbench().getProgressService().run(true, true,
+					monitor -> {
+						try {
+							ref.result = calculation.run(monitor);
+						} catch (OperationCanceledException e) {
+							throw new InterruptedException();
+						} catch (Exception e) {
+							throw new InvocationTargetException(e);
+						}
+					});
+			result = ref.result;
+		} catch (InterruptedException e) {
+			return;
+		} catch (InvocationTargetException e) {
+			ErrorReporter.on("Calculation failed", e.getCause());
+			return;
+		}
 
-		App.runWithProgress(M.Calculate, calculation, () -> {
-			if (ref.result == null)
+		var failures = calculation.failures();
+		if (!failures.isEmpty()) {
+			if (result == null || result.getVariants().isEmpty()) {
+				showError(failures.values().iterator().next());
 				return;
-			var data = ProjectResultData.of(db, project, ref.result, editor.report);
-			ProjectResultEditor.open(data);
-		});
+			}
+			var names = new StringBuilder();
+			failures.forEach((variant, err) -> {
+				log.error("failed to calculate project variant " + variant.name, err);
+				names.append("\n- ").append(variant.name);
+			});
+			MsgBox.warning("Calculation failed",
+					"The following variants could not be calculated and are"
+							+ " not contained in the result:" + names);
+		}
+
+		if (result == null)
+			return;
+		var data = ProjectResultData.of(db, project, result, editor.report);
+		ProjectResultEditor.open(data);
+	}
+
+	private static void showError(Throwable cause) {
+		if (cause instanceof OutOfMemoryError) {
+			MsgBox.error(M.OutOfMemory, M.CouldNotAllocateMemoryError);
+		} else if (cause instanceof MathIllegalArgumentException) {
+			MsgBox.error("Matrix error", cause);
+		} else {
+			ErrorReporter.on("Calculation failed", cause);
+		}
 	}
 }
@@ -16,6 +16,7 @@ import org.openlca.core.model.descriptors.ProcessDescriptor;
 import org.openlca.jsonld.Json;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -149,10 +150,56 @@ public class Report {
 	}
 
 	public Report fillWith(ProjectResultData data) {
-		ReportFiller.of(data).fill(this);
+		return fillWith(data, true);
+	}
+
+	/**
+	 * Fills the report with the results of the given data. When
+	 * {@code withContributions} is false, the process contributions are not
+	 * calculated but can be requested per indicator via
+	 * {@link #contributionsOf(ProjectResultData, String)}; this is much faster
+	 * for projects with many indicators, variants, and processes.
+	 */
+	public Report fillWith(ProjectResultData data, boolean withContributions) {
+		ReportFiller.of(data).fill(this, withContributions);
 		return this;
 	}
 
+	/**
+	 * Returns the impact result of the indicator with the given ID, including
+	 * the process contributions, as JSON string. The contributions are
+	 * calculated when they are not present yet and are then kept in this
+	 * report. Returns null if there is no such indicator.
+	 */
+	public String contributionsOf(ProjectResultData data, String indicatorId) {
+		if (data == null || data.items() == null || indicatorId == null)
+			return null;
+		int idx = -1;
+		for (int i = 0; i < results.size(); i++) {
+			if (indicatorId.equals(results.get(i).indicatorId)) {
+				idx = i;
+				break;
+			}
+		}
+		var result = idx >= 0 ? results.get(idx) : null;
+		if (result == null || !result.hasContributions()) {
+			var impact = data.items().impacts()
+				.stream()
+				.filter(i -> indicatorId.equals(i.refId))
+				.findAny()
+				.orElse(null);
+			if (impact == null)
+				return null;
+			result = ReportImpactResult.of(this, data, impact);
+			if (idx >= 0) {
+				results.set(idx, result);
+			} else {
+				results.add(result);
+			}
+		}
+		return new Gson().toJson(result);
+	}
+
 	public String toJson() {
 		return new GsonBuilder()
 			.setPrettyPrinting()
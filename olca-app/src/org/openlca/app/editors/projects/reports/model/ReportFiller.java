@@ -33,7 +33,12 @@ class ReportFiller {
     return new ReportFiller(data);
   }
 
-  void fill(Report report) {
+  /**
+   * Fills the report with the results of the project. When
+   * {@code withContributions} is false, the process contributions are not
+   * calculated; see {@link Report#contributionsOf}.
+   */
+  void fill(Report report, boolean withContributions) {
     if (report == null)
       return;
     report.clearResults();
@@ -79,7 +84,8 @@ class ReportFiller {
       report.processes.addAll(synced);
     }
 
-    report.results.addAll(ReportImpactResult.allOf(report, data));
+    report.results.addAll(
+      ReportImpactResult.allOf(report, data, withContributions));
 
   }
 
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Objects;
 
 import org.openlca.app.editors.projects.ProjectResultData;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
 import org.openlca.jsonld.Json;
 import org.slf4j.LoggerFactory;
 
@@ -56,31 +57,69 @@ class ReportImpactResult {
 		return reportImpactResult;
 	}
 
-	static List<ReportImpactResult> allOf(Report report, ProjectResultData data) {
+	/**
+	 * Creates the impact results of all indicators. The process contributions
+	 * are only calculated when {@code withContributions} is true; otherwise
+	 * they are null and can be calculated per indicator later; see
+	 * {@link #of(Report, ProjectResultData, ImpactDescriptor)}.
+	 */
+	static List<ReportImpactResult> allOf(
+			Report report, ProjectResultData data, boolean withContributions) {
 		if (report == null || isEmpty(data))
 			return Collections.emptyList();
-		var projectResult = data.result();
 		var results = new ArrayList<ReportImpactResult>();
 		for (var impact : data.items().impacts()) {
-			var r = new ReportImpactResult(impact.refId);
-			results.add(r);
-			for (var variant : data.project().variants) {
-				var result = projectResult.getResult(variant);
-				if (result == null)
-					continue;
-				var total = result.getTotalImpactValueOf(impact);
-				var vr = new VariantResult(variant.name, total);
-				r.variantResults.add(vr);
-				for (var process : report.processes) {
-					double con = 0;
-					for (var techFlow : result.techIndex().getProviders(process)) {
-						con += result.getDirectImpactOf(impact, techFlow);
-					}
-					vr.contributions.put(process.refId, con);
+			results.add(withContributions
+					? of(report, data, impact)
+					: totalsOf(data, impact));
+		}
+		return results;
+	}
+
+	private static ReportImpactResult totalsOf(
+			ProjectResultData data, ImpactDescriptor impact) {
+		var r = new ReportImpactResult(impact.refId);
+		for (var variant : data.project().variants) {
+			var result = data.result().getResult(variant);
+			if (result == null)
+				continue;
+			var total = result.getTotalImpactValueOf(impact);
+			r.variantResults.add(new VariantResult(variant.name, total, null));
+		}
+		return r;
+	}
+
+	/**
+	 * Creates the impact result of the given indicator including the direct
+	 * contributions of the processes of the report.
+	 */
+	static ReportImpactResult of(
+			Report report, ProjectResultData data, ImpactDescriptor impact) {
+		var r = new ReportImpactResult(impact.refId);
+		for (var variant : data.project().variants) {
+			var result = data.result().getResult(variant);
+			if (result == null)
+				continue;
+			var total = result.getTotalImpactValueOf(impact);
+			var vr = new VariantResult(variant.name, total, new HashMap<>());
+			r.variantResults.add(vr);
+			for (var process : report.processes) {
+				double con = 0;
+				for (var techFlow : result.techIndex().getProviders(process)) {
+					con += result.getDirectImpactOf(impact, techFlow);
 				}
+				vr.contributions.put(process.refId, con);
 			}
 		}
-		return results;
+		return r;
+	}
+
+	boolean hasContributions() {
+		for (var vr : variantResults) {
+			if (vr.contributions == null)
+				return false;
+		}
+		return true;
 	}
 
 	private static boolean isEmpty(ProjectResultData data) {
@@ -95,11 +134,14 @@ class ReportImpactResult {
 		final String variant;
 		final double totalAmount;
 
-		final Map<String, Double> contributions = new HashMap<>();
+		/** The process contributions; null when they were not calculated yet. */
+		final Map<String, Double> contributions;
 
-		private VariantResult(String variant, double totalAmount) {
+		private VariantResult(
+				String variant, double totalAmount, Map<String, Double> contributions) {
 			this.variant = variant;
 			this.totalAmount = totalAmount;
+			this.contributions = contributions;
 		}
 
 		static VariantResult fromJson(JsonObject obj) {
@@ -108,14 +150,15 @@ class ReportImpactResult {
 
 			var variantResult = new VariantResult(
 					Json.getString(obj, "variant"),
-					Json.getDouble(obj, "totalAmount", 0)
+					Json.getDouble(obj, "totalAmount", 0),
+					new HashMap<>()
 			);
 
-
-			if (!obj.get("contributions").isJsonArray()) {
+			var contributions = obj.get("contributions");
+			if (contributions != null && contributions.isJsonObject()) {
 				Type contributionsMapType = new TypeToken<Map<String, Double>>() {
 				}.getType();
-				Map<String, Double> contributionsMap = new Gson().fromJson(obj.get("contributions"), contributionsMapType);
+				Map<String, Double> contributionsMap = new Gson().fromJson(contributions, contributionsMapType);
 				variantResult.contributions.putAll(contributionsMap);
 			}
 			return variantResult;
@@ -24,6 +24,8 @@ import org.openlca.core.model.ModelType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 public class ProjectResultEditor extends FormEditor {
 
 	ProjectResultData data;
@@ -125,10 +127,20 @@ public class ProjectResultEditor extends FormEditor {
 			try {
 				var browser = new Browser(comp, SWT.NONE);
 				browser.setJavascriptEnabled(true);
-				UI.onLoaded(browser, HtmlFolder.getUrl("report.html"), () -> {
-					var json = data.report().fillWith(data).toJson();
-					browser.execute("setData(" + json + ")");
+
+				// the page requests the report data via these functions; the
+				// process contributions are calculated per indicator on demand
+				var report = data.report();
+				UI.bindFunction(browser, "getReport",
+					args -> new Gson().toJson(report.fillWith(data, false)));
+				UI.bindFunction(browser, "getContributions", args -> {
+					if (args == null || args.length == 0
+						|| !(args[0] instanceof String indicatorId))
+						return null;
+					return report.contributionsOf(data, indicatorId);
 				});
+				UI.onLoaded(browser, HtmlFolder.getUrl("report.html"),
+					() -> browser.execute("loadData()"));
 			} catch (Exception e) {
 				Logger log = LoggerFactory.getLogger(getClass());
 				log.error("failed to load report in browser", e);
@@ -12,6 +12,7 @@ import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.part.EditorActionBarContributor;
+import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.editors.projects.reports.model.Report;
@@ -103,12 +104,17 @@ public class ReportResultToolbar extends EditorActionBarContributor {
 		public void run() {
 			if (editor == null || editor.data == null || !editor.data.hasReport())
 				return;
-			var report = editor.data.report();
 			var dir = FileChooser.selectFolder();
 			if (dir == null)
 				return;
 			var htmlDir = HtmlFolder.getDir(
 				RcpActivator.getDefault().getBundle());
+			// the exported report is static, so it needs to contain all
+			// results, including the process contributions
+			var report = App.exec("Calculate report data",
+				() -> editor.data.report().fillWith(editor.data));
+			if (report == null)
+				return;
 			tryExport(report, dir, htmlDir);
 		}
 
@@ -1,6 +1,8 @@
 package org.openlca.app.editors.systems;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
@@ -290,6 +292,16 @@ public class MatrixExportDialog extends FormDialog {
 					copyResource("MatrixExport_lib.py", "lib.py");
 				}
 				case EXCEL -> new MatrixExcelExport(db, folder, data).writeAll();
+				case MAPPED -> {
+					MatrixExport.toCsv(db, folder, data).writeIndices();
+					try {
+						MatrixMappedExport.write(folder, data);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					copyResource("MatrixExport_main.py", "main.py");
+					copyResource("MatrixExport_lib.py", "lib.py");
+				}
 			}
 			copyResource("MatrixExport_README.md", "README.md");
 		}
@@ -308,7 +320,7 @@ public class MatrixExportDialog extends FormDialog {
 	}
 
 	private enum Format {
-		CSV, EXCEL, PYTHON;
+		CSV, EXCEL, PYTHON, MAPPED;
 
 		@Override
 		public String toString() {
@@ -316,6 +328,7 @@ public class MatrixExportDialog extends FormDialog {
 				case CSV -> "CSV";
 				case EXCEL -> "Excel";
 				case PYTHON -> "Python (NumPy, SciPy)";
+				case MAPPED -> "Sparse, memory-mapped (CSC)";
 			};
 		}
 	}
@@ -125,9 +125,42 @@ class ImpactEntry:
 def matrix_of(file_path: str):
     if file_path.endswith('.npz'):
         return scipy.sparse.load_npz(file_path)
+    if file_path.endswith('.csc'):
+        return csc_of(file_path)
     return numpy.load(file_path)
 
 
+def csc_of(file_path: str) -> scipy.sparse.csc_matrix:
+    """
+    Opens a matrix of the memory-mapped CSC export as a sparse matrix. The
+    arrays of the matrix are mapped directly from the file and are not copied
+    into memory. The file layout is described in the README of the export.
+    """
+    header = numpy.memmap(file_path, dtype='<i4', mode='r', shape=(8,))
+    magic = header[0:2].tobytes()
+    if magic != b'OLCACSC\0':
+        raise ValueError('%s is not a CSC matrix file' % file_path)
+    rows, columns = int(header[3]), int(header[4])
+    nnz = int(numpy.memmap(file_path, dtype='<i8', mode='r',
+                           offset=24, shape=(1,))[0])
+
+    pointer_offset = 32
+    index_offset = pointer_offset + 8 * (columns + 1)
+    value_offset = (index_offset + 4 * nnz + 7) & ~7
+
+    def mapped(dtype, offset, n):
+        if n == 0:
+            return numpy.zeros(0, dtype=dtype)
+        return numpy.memmap(file_path, dtype=dtype, mode='r',
+                            offset=offset, shape=(n,))
+
+    pointers = mapped('<i8', pointer_offset, columns + 1)
+    indices = mapped('<i4', index_offset, nnz)
+    values = mapped('<f8', value_offset, nnz)
+    return scipy.sparse.csc_matrix(
+        (values, indices, pointers), shape=(rows, columns), copy=False)
+
+
 def _csv_rows_of(f: str) -> Iterator[List[str]]:
     with open(f, 'r', encoding='utf-8') as stream:
         reader = csv.reader(stream)
@@ -164,6 +197,13 @@ class ExportFolder:
         return os.path.exists(path)
 
     def load(self, name: str):
+        m = self._load(name)
+        if name == Matrix.f and scipy.sparse.issparse(m):
+            # the demand vector is always used in dense form
+            return numpy.asarray(m.todense()).ravel()
+        return m
+
+    def _load(self, name: str):
         path = os.path.join(self.folder, name)
         if os.path.exists(path):
             return matrix_of(path)
@@ -171,6 +211,9 @@ class ExportFolder:
         if os.path.exists(p):
             return matrix_of(p)
         p = path + '.npz'
+        if os.path.exists(p):
+            return matrix_of(p)
+        p = path + '.csc'
         if os.path.exists(p):
             return matrix_of(p)
         return None
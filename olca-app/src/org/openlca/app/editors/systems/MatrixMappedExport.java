@@ -0,0 +1,194 @@
+package org.openlca.app.editors.systems;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.MatrixReader;
+
+/**
+ * Writes the matrices of a {@link MatrixData} object in compressed sparse
+ * column (CSC) format into memory-mapped files. The entries of a matrix are
+ * streamed twice: the first pass counts the non-zero entries per column and
+ * the second pass writes them directly into the mapped file. Thus, no dense
+ * copy of a matrix and no additional in-memory CSC copy is created.
+ * <p>
+ * Each matrix is written into a single file {@code <name>.csc} with the
+ * following little-endian layout:
+ *
+ * <pre>
+ * offset  size              content
+ * 0       8                 magic bytes "OLCACSC" + 0
+ * 8       4                 format version (int32, currently 1)
+ * 12      4                 number of rows (int32)
+ * 16      4                 number of columns (int32)
+ * 20      4                 reserved (int32, 0)
+ * 24      8                 number of non-zero entries nnz (int64)
+ * 32      8 * (columns + 1) column pointers (int64)
+ * ...     4 * nnz           row indices (int32)
+ * ...     0 or 4            padding to the next 8-byte boundary
+ * ...     8 * nnz           values (float64)
+ * </pre>
+ * <p>
+ * The row indices within a column are in the order in which the matrix
+ * provides its entries and are not necessarily sorted. The arrays can be
+ * mapped directly, e.g. via {@code numpy.memmap}, without copying them.
+ */
+class MatrixMappedExport {
+
+	static final String EXTENSION = ".csc";
+
+	private static final byte[] MAGIC =
+			"OLCACSC\0".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	private final File folder;
+
+	private MatrixMappedExport(File folder) {
+		this.folder = folder;
+	}
+
+	static void write(File folder, MatrixData data) throws IOException {
+		var export = new MatrixMappedExport(folder);
+		export.write("A", data.techMatrix);
+		export.write("B", data.enviMatrix);
+		export.write("C", data.impactMatrix);
+		export.writeDemand(data);
+	}
+
+	private void write(String name, MatrixReader matrix) throws IOException {
+		if (matrix == null)
+			return;
+		int rows = matrix.rows();
+		int columns = matrix.columns();
+
+		// first pass: count the entries per column
+		var counts = new long[columns];
+		matrix.iterate((row, col, val) -> {
+			if (val != 0) {
+				counts[col]++;
+			}
+		});
+		var pointers = new long[columns + 1];
+		for (int col = 0; col < columns; col++) {
+			pointers[col + 1] = pointers[col] + counts[col];
+		}
+		long nnz = pointers[columns];
+
+		try (var file = new MappedFile(
+				new File(folder, name + EXTENSION), rows, columns, nnz)) {
+			for (int col = 0; col <= columns; col++) {
+				file.putPointer(col, pointers[col]);
+			}
+
+			// second pass: write the entries at the next free position of
+			// their columns; we reuse the counts array as column cursors
+			System.arraycopy(pointers, 0, counts, 0, columns);
+			matrix.iterate((row, col, val) -> {
+				if (val == 0)
+					return;
+				long pos = counts[col]++;
+				file.putEntry(pos, row, val);
+			});
+		}
+	}
+
+	/**
+	 * Writes the demand vector {@code f} as a matrix with a single column.
+	 */
+	private void writeDemand(MatrixData data) throws IOException {
+		if (data.demand == null || data.techIndex == null)
+			return;
+		int idx = data.techIndex.of(data.demand.techFlow());
+		if (idx < 0)
+			return;
+		int rows = data.techIndex.size();
+		try (var file = new MappedFile(
+				new File(folder, "f" + EXTENSION), rows, 1, 1)) {
+			file.putPointer(0, 0);
+			file.putPointer(1, 1);
+			file.putEntry(0, idx, data.demand.value());
+		}
+	}
+
+	/**
+	 * A CSC matrix file that is mapped into memory in segments of up to 1 GB.
+	 */
+	private static class MappedFile implements AutoCloseable {
+
+		private final RandomAccessFile raf;
+		private final List<MappedByteBuffer> segments = new ArrayList<>();
+		private final long pointerOffset;
+		private final long indexOffset;
+		private final long valueOffset;
+
+		MappedFile(File file, int rows, int columns, long nnz)
+				throws IOException {
+			pointerOffset = HEADER_SIZE;
+			indexOffset = pointerOffset + 8L * (columns + 1);
+			long indexEnd = indexOffset + 4L * nnz;
+			valueOffset = (indexEnd + 7) & ~7L;
+			long size = valueOffset + 8L * nnz;
+
+			if (file.exists() && !file.delete())
+				throw new IOException("failed to overwrite file " + file);
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(size);
+			var channel = raf.getChannel();
+			for (long start = 0; start < size; start += SEGMENT_SIZE) {
+				var segment = channel.map(FileChannel.MapMode.READ_WRITE,
+						start, Math.min(SEGMENT_SIZE, size - start));
+				segment.order(ByteOrder.LITTLE_ENDIAN);
+				segments.add(segment);
+			}
+
+			var header = segments.get(0);
+			header.put(0, MAGIC);
+			header.putInt(8, VERSION);
+			header.putInt(12, rows);
+			header.putInt(16, columns);
+			header.putInt(20, 0);
+			header.putLong(24, nnz);
+		}
+
+		void putPointer(int col, long value) {
+			putLong(pointerOffset + 8L * col, value);
+		}
+
+		void putEntry(long pos, int row, double value) {
+			putInt(indexOffset + 4L * pos, row);
+			putLong(valueOffset + 8L * pos, Double.doubleToRawLongBits(value));
+		}
+
+		// as all offsets of a type are aligned to its size and the segment
+		// size is a multiple of 8, a value never crosses a segment boundary
+
+		private void putLong(long offset, long value) {
+			segments.get((int) (offset / SEGMENT_SIZE))
+					.putLong((int) (offset % SEGMENT_SIZE), value);
+		}
+
+		private void putInt(long offset, int value) {
+			segments.get((int) (offset / SEGMENT_SIZE))
+					.putInt((int) (offset % SEGMENT_SIZE), value);
+		}
+
+		@Override
+		public void close() throws IOException {
+			for (var segment : segments) {
+				segment.force();
+			}
+			segments.clear();
+			raf.close();
+		}
+	}
+}
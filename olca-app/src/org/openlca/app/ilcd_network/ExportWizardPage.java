@@ -54,7 +54,7 @@ public class ExportWizardPage extends WizardPage implements ICheckStateListener
 		UI.gridData(composite, true, true);
 		viewer = new CheckboxTreeViewer(composite, SWT.MULTI | SWT.BORDER);
 		viewer.setUseHashlookup(true);
-		viewer.setContentProvider(new NavigationContentProvider());
+		viewer.setContentProvider(NavigationContentProvider.synchronous());
 		viewer.setLabelProvider(NavigationLabelProvider.withoutRepositoryState());
 		viewer.setInput(Navigator.getNavigationRoot());
 		viewer.addCheckStateListener(new NavigationTreeCheck(viewer));
@@ -0,0 +1,249 @@
+package org.openlca.app.navigation;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.app.db.Cache;
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.db.Libraries;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ImpactCategory;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.util.Dirs;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Copies category trees and models into a target category in a single
+ * transaction. The models of a category are loaded, copied, and inserted in
+ * batches of {@link #BATCH_SIZE} entities; after each batch, the persistence
+ * context is flushed and cleared so that the memory usage does not grow with
+ * the size of the tree. When the copy fails or is canceled, the transaction
+ * is rolled back and the copied file folders of the models are deleted, so
+ * that no half-copied tree is left in the database.
+ */
+class BulkCopy {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final IDatabase db;
+	private final Category target;
+	private final List<Category> categories = new ArrayList<>();
+	private final List<RootDescriptor> models = new ArrayList<>();
+
+	private final List<File> copiedDirs = new ArrayList<>();
+	private int copiedModels;
+
+	/**
+	 * Creates a new copy into the given target category; the target is
+	 * {@code null} when the elements are copied into the root folder of a
+	 * model type.
+	 */
+	BulkCopy(IDatabase db, Category target) {
+		this.db = db;
+		this.target = target;
+	}
+
+	/** Adds a category with all its sub-categories and models to the copy. */
+	BulkCopy add(Category category) {
+		if (category != null) {
+			categories.add(category);
+		}
+		return this;
+	}
+
+	/** Adds a single model to the copy. */
+	BulkCopy add(RootDescriptor model) {
+		if (model != null) {
+			models.add(model);
+		}
+		return this;
+	}
+
+	boolean isEmpty() {
+		return categories.isEmpty() && models.isEmpty();
+	}
+
+	/** Returns the number of models that were copied. */
+	int copiedModels() {
+		return copiedModels;
+	}
+
+	/**
+	 * Runs the copy. Throws an {@link OperationCanceledException} when it was
+	 * canceled via the given monitor; the transaction is rolled back in this
+	 * case.
+	 */
+	void run(IProgressMonitor monitor) {
+		monitor.beginTask("Copy models", IProgressMonitor.UNKNOWN);
+		var em = db.getEntityFactory().createEntityManager();
+		var tx = em.getTransaction();
+		try {
+			tx.begin();
+			Long targetId = target != null ? target.id : null;
+			copyModels(em, models, targetId, monitor);
+			for (var category : categories) {
+				copyTree(em, category, targetId, monitor);
+			}
+			tx.commit();
+			// the copies are not registered one by one; this also invalidates
+			// the search index so that it is rebuilt with the new models
+			Cache.evictAll();
+		} catch (RuntimeException e) {
+			if (tx.isActive()) {
+				tx.rollback();
+			}
+			deleteCopiedDirs();
+			copiedModels = 0;
+			throw e;
+		} finally {
+			em.close();
+			db.getEntityFactory().getCache().evictAll();
+			monitor.done();
+		}
+	}
+
+	private void copyTree(EntityManager em, Category root, Long parentId,
+			IProgressMonitor monitor) {
+		var queue = new ArrayDeque<Pending>();
+		queue.add(new Pending(root.id, parentId));
+		var visited = new HashSet<Long>();
+		while (!queue.isEmpty()) {
+			var next = queue.poll();
+			if (!visited.add(next.originId))
+				continue;
+			var origin = em.find(Category.class, next.originId);
+			if (origin == null)
+				continue;
+			var parent = next.parentId != null
+					? em.find(Category.class, next.parentId)
+					: null;
+			var copy = origin.copy();
+			copy.name = copy.name + " (copy)";
+			copy.childCategories.clear();
+			copy.category = parent;
+			if (parent != null) {
+				parent.childCategories.add(copy);
+			}
+			em.persist(copy);
+			em.flush();
+			var copyId = copy.id;
+			// when a tree is copied into itself, the copies are not copied again
+			visited.add(copyId);
+			monitor.subTask(copy.name);
+
+			var childIds = new ArrayList<Long>();
+			for (var child : origin.childCategories) {
+				childIds.add(child.id);
+			}
+			var modelIds = modelIdsOf(em, origin);
+			em.clear();
+
+			copyModelsById(em, origin.modelType, modelIds, copyId, monitor);
+			for (var childId : childIds) {
+				queue.add(new Pending(childId, copyId));
+			}
+		}
+	}
+
+	private List<Long> modelIdsOf(EntityManager em, Category category) {
+		var type = category.modelType;
+		if (type == null || type.getModelClass() == null)
+			return List.of();
+		var jpql = "SELECT e.id FROM " + type.getModelClass().getSimpleName()
+				+ " e WHERE e.category.id = :category";
+		return em.createQuery(jpql, Long.class)
+				.setParameter("category", category.id)
+				.getResultList();
+	}
+
+	private void copyModels(EntityManager em, List<RootDescriptor> descriptors,
+			Long categoryId, IProgressMonitor monitor) {
+		var ids = new EnumMap<ModelType, List<Long>>(ModelType.class);
+		for (var d : descriptors) {
+			ids.computeIfAbsent(d.type, t -> new ArrayList<>()).add(d.id);
+		}
+		for (var e : ids.entrySet()) {
+			copyModelsById(em, e.getKey(), e.getValue(), categoryId, monitor);
+		}
+	}
+
+	private void copyModelsById(EntityManager em, ModelType type,
+			List<Long> ids, Long categoryId, IProgressMonitor monitor) {
+		if (type == null || type.getModelClass() == null || ids.isEmpty())
+			return;
+		var clazz = type.getModelClass();
+		var jpql = "SELECT e FROM " + clazz.getSimpleName()
+				+ " e WHERE e.id IN :ids";
+		for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+			var batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+			var category = categoryId != null
+					? em.find(Category.class, categoryId)
+					: null;
+			var entities = em.createQuery(jpql, clazz)
+					.setParameter("ids", batch)
+					.getResultList();
+			for (var entity : entities) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				copy(em, entity, category);
+			}
+			em.flush();
+			em.clear();
+			monitor.subTask(copiedModels + " models copied");
+		}
+	}
+
+	private void copy(EntityManager em, RootEntity entity, Category category) {
+		if (entity.isFromLibrary()) {
+			// the original must not be changed by filling the library data
+			em.detach(entity);
+			if (entity instanceof Process p) {
+				Libraries.fillExchangesOf(p);
+			} else if (entity instanceof ImpactCategory i) {
+				Libraries.fillFactorsOf(i);
+			}
+		}
+		var copy = (RootEntity) entity.copy();
+		copy.library = null;
+		copy.category = category;
+		copy.name = copy.name + " (copy)";
+		var dir = DatabaseDir.getDir(copy);
+		boolean hadDir = dir != null && dir.exists();
+		DatabaseDir.copyDir(entity, copy);
+		if (!hadDir && dir != null && dir.exists()) {
+			copiedDirs.add(dir);
+		}
+		em.persist(copy);
+		copiedModels++;
+	}
+
+	private void deleteCopiedDirs() {
+		for (var dir : copiedDirs) {
+			try {
+				Dirs.delete(dir);
+			} catch (Exception e) {
+				LoggerFactory.getLogger(getClass())
+						.warn("failed to delete folder " + dir, e);
+			}
+		}
+		copiedDirs.clear();
+	}
+
+	/**
+	 * A category that is waiting to be copied into the copy of its parent.
+	 */
+	private record Pending(long originId, Long parentId) {
+	}
+}
@@ -1,25 +1,26 @@
 package org.openlca.app.navigation;
 
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.openlca.app.App;
+import org.openlca.app.M;
 import org.openlca.app.db.Database;
-import org.openlca.app.db.DatabaseDir;
-import org.openlca.app.db.Libraries;
 import org.openlca.app.navigation.elements.CategoryElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
 import org.openlca.app.navigation.elements.ModelTypeElement;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.core.database.CategoryDao;
 import org.openlca.core.database.Daos;
 import org.openlca.core.model.Category;
-import org.openlca.core.model.ImpactCategory;
 import org.openlca.core.model.ModelType;
-import org.openlca.core.model.Process;
-import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.descriptors.RootDescriptor;
 
 public class CopyPaste {
@@ -136,6 +137,21 @@ public class CopyPaste {
 			return;
 		if (!canPasteTo(categoryElement))
 			return;
+		if (currentAction == Action.COPY) {
+			var copy = new BulkCopy(Database.get(), getCategory(categoryElement));
+			for (var element : cache) {
+				if (element instanceof CategoryElement e) {
+					copy.add(e.getContent());
+				} else if (element instanceof ModelElement e) {
+					copy.add(e.getContent());
+				}
+			}
+			clearCache();
+			if (!copy.isEmpty()) {
+				schedule(copy);
+			}
+			return;
+		}
 		try {
 			for (INavigationElement<?> element : cache) {
 				paste(element, categoryElement);
@@ -147,6 +163,34 @@ public class CopyPaste {
 		}
 	}
 
+	/**
+	 * Runs the given copy on a background job and refreshes the navigation
+	 * once when it is finished.
+	 */
+	private static void schedule(BulkCopy copy) {
+		var job = new Job(M.Paste) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					copy.run(monitor);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} catch (Exception e) {
+					ErrorReporter.on("Failed to copy models", e);
+					return Status.CANCEL_STATUS;
+				}
+				App.runInUI("Refresh navigation", () -> {
+					var root = Navigator.findElement(
+							Database.getActiveConfiguration());
+					Navigator.refresh(root);
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		job.setUser(true);
+		job.schedule();
+	}
+
 	public static void clearCache() {
 		cache = null;
 		currentAction = Action.NONE;
@@ -178,12 +222,6 @@ public class CopyPaste {
 				move((CategoryElement) element, category);
 			else if (element instanceof ModelElement)
 				move((ModelElement) element, category);
-		} else if (currentAction == Action.COPY) {
-			if (element instanceof CategoryElement) {
-				copy((CategoryElement) element, category);
-			} else if (element instanceof ModelElement modElem) {
-				copyTo(modElem, getCategory(category));
-			}
 		}
 	}
 
@@ -235,63 +273,6 @@ public class CopyPaste {
 		Daos.root(Database.get(), entity.type).updateCategory(entity, parent);
 	}
 
-	private static void copy(CategoryElement element, INavigationElement<?> category) {
-		Category parent = getCategory(category);
-		Queue<CategoryElement> elements = new LinkedList<>();
-		elements.add(element);
-		while (!elements.isEmpty()) {
-			CategoryElement current = elements.poll();
-			Category catCopy = current.getContent().copy();
-			catCopy.name = catCopy.name + " (copy)";
-			catCopy.childCategories.clear();
-			catCopy.category = parent;
-			if (parent == null)
-				catCopy = Database.get().insert(catCopy);
-			else {
-				parent.childCategories.add(catCopy);
-				parent = Database.get().update(parent);
-				for (var child : parent.childCategories) {
-					if (child.name.equals(catCopy.name)) {
-						catCopy = child;
-						break;
-					}
-				}
-			}
-			for (INavigationElement<?> child : current.getChildren())
-				if (child instanceof CategoryElement catElem)
-					elements.add(catElem);
-				else if (child instanceof ModelElement modElem) {
-					copyTo(modElem, catCopy);
-				}
-			parent = catCopy;
-		}
-	}
-
-	private static void copyTo(ModelElement e, Category category) {
-		var d = e.getContent();
-		if (d == null)
-			return;
-		var dao = Daos.root(Database.get(), d.type);
-		if (dao == null)
-			return;
-		var entity = dao.getForId(d.id);
-		if (entity == null)
-			return;
-		if (entity.isFromLibrary()) {
-			if (entity instanceof Process p) {
-				Libraries.fillExchangesOf(p);
-			} else if (entity instanceof ImpactCategory i) {
-				Libraries.fillFactorsOf(i);
-			}
-		}
-		var copy = (RootEntity) entity.copy();
-		copy.library = null;
-		copy.category = category;
-		copy.name = copy.name + " (copy)";
-		DatabaseDir.copyDir(entity, copy);
-		Database.get().insert(copy);
-	}
-
 	public static boolean cacheIsEmpty() {
 		return cache == null || cache.length == 0;
 	}
@@ -1,60 +1,244 @@
 package org.openlca.app.navigation;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.TreeItem;
+import org.openlca.app.db.Cache;
+import org.openlca.app.db.Database;
+import org.openlca.app.navigation.elements.CategoryElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.navigation.elements.ModelTypeElement;
 import org.openlca.app.util.Labels;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
 
 /**
  * A class for filtering model elements from an navigation tree via a text
  * filter. The filter directly registers a listener on the text field.
+ * <p>
+ * The filter does not traverse the navigation tree. When the text changes,
+ * the IDs of the models which names contain the text are taken from the
+ * search index (see {@link Cache#getSearchIndex()}); then, the categories of
+ * these models are queried by their IDs and completed with their parent
+ * categories. The category parents are loaded once, with a single query, and
+ * are kept for the life time of the filter. This runs in a background job;
+ * changes of the text are debounced and the tree is refreshed once when the
+ * matches of the current text are available. Note that only the names of
+ * the models are matched, not the location codes in the labels of processes
+ * and flows.
  */
 public class ModelTextFilter extends ViewerFilter {
 
+	/** The delay in milliseconds before a text change is applied. */
+	private static final int DELAY = 250;
+
 	private final Text filterText;
+	private final TreeViewer viewer;
+	private final Runnable update = this::apply;
+
+	private Map<Long, Long> categoryParents;
+
+	/** The current text of the filter; its matches may be still computed. */
+	private volatile String term = "";
+
+	/** The text of the matches that are currently applied in the tree. */
+	private String appliedTerm = "";
+	private Map<ModelType, Set<Long>> matchedModels = Map.of();
+	private Set<Long> matchedCategories = Set.of();
 
 	public ModelTextFilter(Text text, TreeViewer viewer) {
 		this.filterText = text;
+		this.viewer = viewer;
 		text.addModifyListener(e -> {
-			viewer.refresh();
-			expand(viewer);
+			var display = text.getDisplay();
+			display.timerExec(-1, update);
+			display.timerExec(DELAY, update);
 		});
 	}
 
-	private void expand(TreeViewer viewer) {
+	private void apply() {
+		if (filterText.isDisposed() || viewer.getTree().isDisposed())
+			return;
+		var next = filterText.getText();
+		next = next == null
+				? ""
+				: next.trim().toLowerCase();
+		if (next.equals(term))
+			return;
+		term = next;
+		if (next.isEmpty() || Database.get() == null) {
+			show(next, Map.of(), Set.of());
+			return;
+		}
+
+		var types = typesOf(viewer.getInput());
+		var display = viewer.getTree().getDisplay();
+		var text = next;
+		var job = new Job("Filter " + text) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				var index = Cache.getSearchIndex();
+				var models = index.findByName(text, types);
+				var categories = new HashSet<Long>();
+				for (var e : models.entrySet()) {
+					if (!text.equals(term))
+						return Status.CANCEL_STATUS;
+					for (var id : index.categoriesOf(e.getKey(), e.getValue())) {
+						addCategoryPath(id, categories);
+					}
+				}
+				if (!display.isDisposed()) {
+					display.asyncExec(() -> show(text, models, categories));
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+	}
+
+	/**
+	 * Applies the given matches in the tree if they belong to the current
+	 * text of the filter.
+	 */
+	private void show(String text, Map<ModelType, Set<Long>> models,
+			Set<Long> categories) {
+		if (!text.equals(term) || viewer.getTree().isDisposed())
+			return;
+		appliedTerm = text;
+		matchedModels = models;
+		matchedCategories = categories;
+		viewer.refresh();
+		if (!text.isEmpty()) {
+			expand();
+		}
+	}
+
+	/**
+	 * Expands the first path in the tree so that the first match is visible.
+	 */
+	private void expand() {
 		TreeItem[] items = viewer.getTree().getItems();
 		while (items != null && items.length > 0) {
-			TreeItem next = items[0];
-			next.setExpanded(true);
-			for (int i = 1; i < items.length; i++)
-				items[i].setExpanded(false);
-			items = next.getItems();
-			viewer.refresh();
+			var next = items[0].getData();
+			if (next == null)
+				return;
+			viewer.setExpandedState(next, true);
+			items = items[0].getItems();
+		}
+	}
+
+	private void addCategoryPath(Long categoryId, Set<Long> categories) {
+		var parents = categoryParents();
+		var next = categoryId;
+		while (next != null && categories.add(next)) {
+			next = parents.get(next);
+		}
+	}
+
+	private synchronized Map<Long, Long> categoryParents() {
+		if (categoryParents != null)
+			return categoryParents;
+		var map = new HashMap<Long, Long>();
+		var db = Database.get();
+		if (db == null)
+			return map;
+		var sql = "select id, f_category from tbl_categories";
+		NativeSql.on(db).query(sql, r -> {
+			long parent = r.getLong(2);
+			if (!r.wasNull()) {
+				map.put(r.getLong(1), parent);
+			}
+			return true;
+		});
+		categoryParents = map;
+		return map;
+	}
+
+	/**
+	 * Collects the model types of the top-level elements of the given viewer
+	 * input.
+	 */
+	private Set<ModelType> typesOf(Object input) {
+		var types = EnumSet.noneOf(ModelType.class);
+		if (input instanceof Collection<?> elems) {
+			for (var elem : elems) {
+				var type = typeOf(elem);
+				if (type != null) {
+					types.add(type);
+				}
+			}
+		} else {
+			var type = typeOf(input);
+			if (type != null) {
+				types.add(type);
+			}
 		}
+		return types;
+	}
+
+	private ModelType typeOf(Object elem) {
+		if (!(elem instanceof INavigationElement<?> navElem))
+			return null;
+		var content = navElem.getContent();
+		if (content instanceof ModelType type)
+			return type;
+		if (content instanceof Category category)
+			return category.modelType;
+		if (content instanceof Descriptor d)
+			return d.type;
+		return null;
 	}
 
 	@Override
 	public boolean select(Viewer viewer, Object parentElement, Object element) {
-		String text = filterText.getText();
-		if (text == null || text.trim().isEmpty())
+		if (appliedTerm.isEmpty())
 			return true;
-		text = text.trim().toLowerCase();
-		return select((INavigationElement<?>) element, text);
+		if (element instanceof ModelElement e) {
+			var d = e.getContent();
+			var matches = matchedModels.get(d.type);
+			if (matches != null)
+				return matches.contains(d.id);
+			return Labels.name(d).toLowerCase().contains(appliedTerm);
+		}
+		if (element instanceof CategoryElement e) {
+			var category = e.getContent();
+			if (category == null)
+				return false;
+			if (matchedModels.containsKey(category.modelType))
+				return matchedCategories.contains(category.id);
+		}
+		if (element instanceof ModelTypeElement e) {
+			var matches = matchedModels.get(e.getContent());
+			if (matches != null)
+				return !matches.isEmpty();
+		}
+		// for elements of other types, fall back to a traversal of the tree
+		return element instanceof INavigationElement<?> e
+				&& select(e);
 	}
 
-	private boolean select(INavigationElement<?> element, String text) {
-		if (element instanceof ModelElement) {
-			ModelElement modelElement = (ModelElement) element;
-			String feed = Labels.name(modelElement.getContent())
-					.toLowerCase();
-			return feed.contains(text);
-		}
+	private boolean select(INavigationElement<?> element) {
+		if (element instanceof ModelElement e)
+			return select(null, null, e);
 		for (INavigationElement<?> child : element.getChildren()) {
-			if (select(child, text))
+			if (select(null, null, child))
 				return true;
 		}
 		return false;
@@ -2,14 +2,35 @@ package org.openlca.app.navigation;
 
 import java.util.Collection;
 
+import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.navigator.ICommonContentExtensionSite;
 import org.eclipse.ui.navigator.ICommonContentProvider;
+import org.openlca.app.navigation.elements.ChildLoader;
 import org.openlca.app.navigation.elements.INavigationElement;
 
 public class NavigationContentProvider implements ICommonContentProvider {
 
+	/**
+	 * Large model containers are loaded in the background when the provider
+	 * is attached to a tree viewer (see {@link ChildLoader}).
+	 */
+	private AbstractTreeViewer viewer;
+	private boolean synchronous;
+
+	/**
+	 * Creates a content provider that always loads the child elements
+	 * synchronously. This is needed for trees that work with the child
+	 * elements directly (e.g. to check them recursively), as a background
+	 * load would replace these elements when it finishes.
+	 */
+	public static NavigationContentProvider synchronous() {
+		var provider = new NavigationContentProvider();
+		provider.synchronous = true;
+		return provider;
+	}
+
 	@Override
 	public void dispose() {
 	}
@@ -21,10 +42,7 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(parent instanceof INavigationElement))
 			return new Object[0];
 		var e = (INavigationElement<?>) parent;
-		var childs = e.getChildren();
-		return childs == null
-				? new Object[0]
-				: childs.toArray();
+		return ChildLoader.getChildren(e, viewer);
 	}
 
 	@Override
@@ -45,7 +63,7 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(element instanceof INavigationElement))
 			return false;
 		var e = (INavigationElement<?>) element;
-		return !e.getChildren().isEmpty();
+		return ChildLoader.hasChildren(e);
 	}
 
 	@Override
@@ -54,6 +72,9 @@ public class NavigationContentProvider implements ICommonContentProvider {
 
 	@Override
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		this.viewer = !synchronous && viewer instanceof AbstractTreeViewer tree
+				? tree
+				: null;
 	}
 
 	@Override
@@ -50,6 +50,7 @@ import org.openlca.app.viewers.Viewers;
 import org.openlca.core.model.Category;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.git.util.TypedRefId;
 
 import com.google.common.base.Objects;
 
@@ -64,6 +65,17 @@ public class Navigator extends CommonNavigator {
 		return root;
 	}
 
+	/**
+	 * The navigation tree is virtual so that the labels and images of the
+	 * elements are only computed for the rows that are visible. This matters
+	 * for categories with many thousands of models.
+	 */
+	@Override
+	protected CommonViewer createCommonViewerObject(Composite aParent) {
+		return new CommonViewer(getViewSite().getId(), aParent,
+				SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL | SWT.VIRTUAL);
+	}
+
 	@Override
 	protected CommonViewer createCommonViewer(Composite aParent) {
 		var viewer = super.createCommonViewer(aParent);
@@ -137,6 +149,16 @@ public class Navigator extends CommonNavigator {
 	 * Refresh the navigation view if it is available.
 	 */
 	public static void refresh() {
+		refresh((Collection<? extends TypedRefId>) null);
+	}
+
+	/**
+	 * Refresh the navigation view if it is available. The given models are
+	 * the models that were changed by a repository action; this allows to
+	 * update the repository tree incrementally. An empty collection means
+	 * that no models were changed and null that the changes are unknown.
+	 */
+	public static void refresh(Collection<? extends TypedRefId> changed) {
 		var viewer = getNavigationViewer();
 		var root = getNavigationRoot();
 		if (viewer == null || root == null)
@@ -148,7 +170,7 @@ public class Navigator extends CommonNavigator {
 			root.update();
 			viewer.refresh();
 			setRefreshedExpansion(viewer, oldExpansion);
-		});
+		}, changed);
 	}
 
 	/**
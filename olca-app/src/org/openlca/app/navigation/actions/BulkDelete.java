@@ -0,0 +1,349 @@
+package org.openlca.app.navigation.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.app.db.Cache;
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.navigation.ModelTypeOrder;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.database.usage.UsageSearch;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+
+/**
+ * Deletes a set of models and category trees. The deletion runs in two
+ * steps: {@link #prepare} collects the models of the categories and checks
+ * with a few set-based usage queries which of them are used by models that
+ * are not deleted; {@link #run} then deletes the unused models in batches of
+ * {@link #BATCH_SIZE} entities and the categories that are empty after this,
+ * all in a single transaction.
+ * <p>
+ * The usage search is first executed for all IDs of a model type (in chunks
+ * of {@link #QUERY_SIZE} IDs). Only when a set has usages outside of the
+ * deleted models, it is split into halves to find the used models. As a model
+ * that is used only by other deleted models can be deleted, this check is
+ * repeated until no further model is excluded from the deletion.
+ */
+class BulkDelete {
+
+	private static final int BATCH_SIZE = 100;
+	private static final int QUERY_SIZE = 500;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+
+	private final Map<ModelType, Map<Long, RootDescriptor>> models =
+			new EnumMap<>(ModelType.class);
+	private final List<Category> roots = new ArrayList<>();
+	private final Map<ModelType, Map<Long, RootDescriptor>> used =
+			new EnumMap<>(ModelType.class);
+	private final Set<Long> blockedCategories = new HashSet<>();
+
+	BulkDelete(IDatabase db) {
+		this.db = db;
+	}
+
+	void add(RootDescriptor model) {
+		if (model == null || model.type == null)
+			return;
+		models.computeIfAbsent(model.type, t -> new LinkedHashMap<>())
+				.put(model.id, model);
+	}
+
+	/** Adds a category with all its sub-categories and models. */
+	void add(Category category) {
+		if (category != null) {
+			roots.add(category);
+		}
+	}
+
+	boolean isEmpty() {
+		return models.isEmpty() && roots.isEmpty();
+	}
+
+	/** The models that are deleted when {@link #run} is called. */
+	List<RootDescriptor> deletableModels() {
+		var list = new ArrayList<RootDescriptor>();
+		for (var map : models.values()) {
+			list.addAll(map.values());
+		}
+		return list;
+	}
+
+	/** The models that are used by other models and thus not deleted. */
+	List<RootDescriptor> usedModels() {
+		var list = new ArrayList<RootDescriptor>();
+		for (var map : used.values()) {
+			list.addAll(map.values());
+		}
+		return list;
+	}
+
+	/**
+	 * Collects the models of the categories and removes the models that are
+	 * used by other models from the deletion.
+	 */
+	void prepare(IProgressMonitor monitor) {
+		monitor.beginTask("Check usages", IProgressMonitor.UNKNOWN);
+		for (var root : roots) {
+			collectModels(root);
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (var type : new ArrayList<>(models.keySet())) {
+				check(monitor);
+				monitor.subTask(type.name());
+				var ids = new ArrayList<>(models.get(type).keySet());
+				var usedIds = new HashSet<Long>();
+				var search = UsageSearch.of(type, db);
+				for (var chunk : chunks(ids, QUERY_SIZE)) {
+					usedIds.addAll(usedIds(search, chunk));
+				}
+				if (usedIds.isEmpty())
+					continue;
+				changed = true;
+				var map = models.get(type);
+				for (var id : usedIds) {
+					var d = map.remove(id);
+					if (d != null) {
+						used.computeIfAbsent(type, t -> new LinkedHashMap<>())
+								.put(id, d);
+						blockCategoriesOf(d);
+					}
+				}
+			}
+		}
+		monitor.done();
+	}
+
+	private void collectModels(Category root) {
+		var type = root.modelType;
+		if (type == null || type.getModelClass() == null)
+			return;
+		var table = type.getModelClass().getAnnotation(Table.class);
+		if (table == null)
+			return;
+		var categories = new ArrayList<Long>();
+		var queue = new ArrayList<Category>();
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			var next = queue.remove(queue.size() - 1);
+			categories.add(next.id);
+			queue.addAll(next.childCategories);
+		}
+		var ids = new HashSet<Long>();
+		for (var chunk : chunks(categories, QUERY_SIZE)) {
+			var sql = "select id from " + table.name()
+					+ " where f_category in (" + join(chunk) + ")";
+			NativeSql.on(db).query(sql, r -> {
+				ids.add(r.getLong(1));
+				return true;
+			});
+		}
+		for (var chunk : chunks(new ArrayList<>(ids), QUERY_SIZE)) {
+			for (var d : Daos.root(db, type).getDescriptors(new HashSet<>(chunk))) {
+				if (d instanceof RootDescriptor r) {
+					add(r);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the IDs of the given set that are used by models which are not
+	 * deleted. The set is only split when it has such usages.
+	 */
+	private Set<Long> usedIds(UsageSearch search, List<Long> ids) {
+		if (ids.isEmpty())
+			return Set.of();
+		var users = search.find(new HashSet<>(ids));
+		boolean hasUsages = false;
+		for (var user : users) {
+			if (!isDeleted(user)) {
+				hasUsages = true;
+				break;
+			}
+		}
+		if (!hasUsages)
+			return Set.of();
+		if (ids.size() == 1)
+			return Set.of(ids.get(0));
+		int mid = ids.size() / 2;
+		var result = new HashSet<>(usedIds(search, ids.subList(0, mid)));
+		result.addAll(usedIds(search, ids.subList(mid, ids.size())));
+		return result;
+	}
+
+	private boolean isDeleted(RootDescriptor d) {
+		var map = models.get(d.type);
+		return map != null && map.containsKey(d.id);
+	}
+
+	/**
+	 * A category that contains a used model cannot be deleted; neither can
+	 * its parent categories.
+	 */
+	private void blockCategoriesOf(RootDescriptor d) {
+		if (d.category == null)
+			return;
+		var category = db.get(Category.class, d.category);
+		while (category != null && blockedCategories.add(category.id)) {
+			category = category.category;
+		}
+	}
+
+	/**
+	 * Deletes the unused models and then the categories that are empty after
+	 * this in a single transaction. The models are deleted in batches, with
+	 * the persistence context flushed and cleared after each batch, and in
+	 * the order of the model types in the navigation, so that the users of a
+	 * model are deleted before the model itself. Throws an
+	 * {@link OperationCanceledException} when it was canceled via the given
+	 * monitor; the transaction is rolled back in this case, as well as when
+	 * the deletion fails, so that no model is left with references to deleted
+	 * models. The caches are not updated here; this is done once by the
+	 * caller after the deletion (see {@link Cache#evictAll()}).
+	 */
+	void run(IProgressMonitor monitor) {
+		var all = deletableModels();
+		monitor.beginTask("Delete models", all.size());
+		var em = db.getEntityFactory().createEntityManager();
+		var tx = em.getTransaction();
+		try {
+			tx.begin();
+			for (var type : deletionOrder()) {
+				var ids = new ArrayList<>(models.get(type).keySet());
+				for (var chunk : chunks(ids, BATCH_SIZE)) {
+					check(monitor);
+					deleteModels(em, type, chunk);
+					monitor.worked(chunk.size());
+				}
+			}
+			check(monitor);
+			deleteCategories(em);
+			check(monitor);
+			tx.commit();
+		} catch (RuntimeException e) {
+			if (tx.isActive()) {
+				tx.rollback();
+			}
+			throw e;
+		} finally {
+			em.close();
+			db.getEntityFactory().getCache().evictAll();
+			monitor.done();
+		}
+		for (var d : all) {
+			log.trace("deleted model {}", d);
+			DatabaseDir.deleteDir(d);
+		}
+	}
+
+	/**
+	 * Returns the model types of the deleted models in the order of the
+	 * navigation, where using types come before the types they use.
+	 */
+	private List<ModelType> deletionOrder() {
+		var order = new ArrayList<ModelType>();
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			if (models.containsKey(type)) {
+				order.add(type);
+			}
+		}
+		for (var type : models.keySet()) {
+			if (!order.contains(type)) {
+				order.add(type);
+			}
+		}
+		return order;
+	}
+
+	private void deleteModels(EntityManager em, ModelType type, List<Long> ids) {
+		var clazz = type.getModelClass();
+		var entities = em.createQuery("SELECT e FROM "
+						+ clazz.getSimpleName() + " e WHERE e.id IN :ids", clazz)
+				.setParameter("ids", ids)
+				.getResultList();
+		for (var entity : entities) {
+			em.remove(entity);
+		}
+		em.flush();
+		em.clear();
+	}
+
+	/**
+	 * Deletes the selected category trees without used models bottom-up, so
+	 * that each category is removed from its parent before it is deleted.
+	 */
+	private void deleteCategories(EntityManager em) {
+		var order = new ArrayList<Long>();
+		for (var root : roots) {
+			postOrder(root, order);
+		}
+		for (var id : order) {
+			var category = em.find(Category.class, id);
+			if (category == null)
+				continue;
+			var parent = category.category;
+			if (parent != null) {
+				parent.childCategories.remove(category);
+				category.category = null;
+			}
+			em.remove(category);
+		}
+		em.flush();
+	}
+
+	private void postOrder(Category category, List<Long> order) {
+		for (var child : category.childCategories) {
+			postOrder(child, order);
+		}
+		// a category with used models, also in its sub-categories, is kept
+		if (!blockedCategories.contains(category.id)) {
+			order.add(category.id);
+		}
+	}
+
+	private void check(IProgressMonitor monitor) {
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	private static <T> List<List<T>> chunks(List<T> list, int size) {
+		var chunks = new ArrayList<List<T>>();
+		for (int i = 0; i < list.size(); i += size) {
+			chunks.add(list.subList(i, Math.min(i + size, list.size())));
+		}
+		return chunks;
+	}
+
+	private static String join(Collection<Long> ids) {
+		var b = new StringBuilder();
+		for (var id : ids) {
+			if (b.length() > 0) {
+				b.append(',');
+			}
+			b.append(id);
+		}
+		return b.toString();
+	}
+}
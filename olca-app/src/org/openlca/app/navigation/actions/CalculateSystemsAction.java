@@ -0,0 +1,83 @@
+package org.openlca.app.navigation.actions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jface.action.Action;
+import org.openlca.app.M;
+import org.openlca.app.navigation.elements.CategoryElement;
+import org.openlca.app.navigation.elements.INavigationElement;
+import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.navigation.elements.ModelTypeElement;
+import org.openlca.app.rcp.images.Icon;
+import org.openlca.app.wizards.calculation.BatchCalculationWizard;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+
+/**
+ * Calculates multiple product systems in a batch. The action is available for
+ * a selection of multiple product systems and for product system folders.
+ */
+class CalculateSystemsAction extends Action implements INavigationAction {
+
+	private final List<INavigationElement<?>> selection = new ArrayList<>();
+
+	public CalculateSystemsAction() {
+		setId(getClass().getCanonicalName());
+		setText(M.Calculate + " ...");
+		setImageDescriptor(Icon.CALCULATION_WIZARD.descriptor());
+	}
+
+	@Override
+	public boolean accept(List<INavigationElement<?>> selection) {
+		this.selection.clear();
+		if (selection.isEmpty())
+			return false;
+		// a single product system is calculated with the calculation wizard
+		if (selection.size() == 1 && selection.get(0) instanceof ModelElement)
+			return false;
+		for (var elem : selection) {
+			if (!isSystemElement(elem))
+				return false;
+		}
+		this.selection.addAll(selection);
+		return true;
+	}
+
+	private boolean isSystemElement(INavigationElement<?> elem) {
+		if (elem instanceof ModelElement e)
+			return e.getContent().type == ModelType.PRODUCT_SYSTEM;
+		if (elem instanceof CategoryElement e) {
+			Category c = e.getContent();
+			return c != null && c.modelType == ModelType.PRODUCT_SYSTEM;
+		}
+		if (elem instanceof ModelTypeElement e)
+			return e.getContent() == ModelType.PRODUCT_SYSTEM;
+		return false;
+	}
+
+	@Override
+	public void run() {
+		var ids = new LinkedHashSet<Long>();
+		for (var elem : selection) {
+			collect(elem, ids);
+		}
+		if (ids.isEmpty())
+			return;
+		BatchCalculationWizard.open(new ArrayList<>(ids));
+	}
+
+	private void collect(INavigationElement<?> elem, Set<Long> ids) {
+		if (elem instanceof ModelElement e) {
+			if (e.getContent().type == ModelType.PRODUCT_SYSTEM) {
+				ids.add(e.getContent().id);
+			}
+			return;
+		}
+		for (var child : elem.getChildren()) {
+			collect(child, ids);
+		}
+	}
+}
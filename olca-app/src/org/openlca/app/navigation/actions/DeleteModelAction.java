@@ -1,30 +1,31 @@
 package org.openlca.app.navigation.actions;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.IDialogConstants;
-import org.eclipse.jface.dialogs.MessageDialogWithToggle;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
-import org.openlca.app.db.DatabaseDir;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.elements.CategoryElement;
+import org.openlca.app.navigation.elements.ChildLoader;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.Labels;
+import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.Question;
-import org.openlca.app.util.UI;
-import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.usage.UsageSearch;
-import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.core.model.descriptors.RootDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,7 +35,6 @@ public class DeleteModelAction extends Action implements INavigationAction {
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private final List<ModelElement> models = new ArrayList<>();
 	private final List<CategoryElement> categories = new ArrayList<>();
-	private boolean showInUseMessage = true;
 
 	@Override
 	public boolean accept(List<INavigationElement<?>> elements) {
@@ -70,14 +70,30 @@ public class DeleteModelAction extends Action implements INavigationAction {
 
 	@Override
 	public void run() {
-		showInUseMessage = true;
-		int continuationFlag = deleteModels();
-		deleteCategories(continuationFlag);
+		var delete = new BulkDelete(Database.get());
+		int continuationFlag = collectModels(delete);
+		collectCategories(delete, continuationFlag);
 		models.clear();
 		categories.clear();
+		if (delete.isEmpty())
+			return;
+
+		if (!runWithProgress(delete::prepare))
+			return;
+		for (var d : delete.deletableModels()) {
+			App.close(d);
+		}
+		if (runWithProgress(delete::run)) {
+			// the caches and the search index are updated once, after the
+			// deletion was committed
+			Cache.evictAll();
+		}
+		showUsedModels(delete.usedModels());
+		var root = Navigator.findElement(Database.getActiveConfiguration());
+		Navigator.refresh(root);
 	}
 
-	private int deleteModels() {
+	private int collectModels(BulkDelete delete) {
 		boolean dontAsk = false;
 		for (var elem : models) {
 			var model = elem.getContent();
@@ -91,16 +107,12 @@ public class DeleteModelAction extends Action implements INavigationAction {
 					|| a == IDialogConstants.NO_TO_ALL_ID) {
 				return IDialogConstants.CANCEL_ID;
 			}
-			if (a == IDialogConstants.NO_ID || isUsed(model))
+			if (a == IDialogConstants.NO_ID)
 				continue;
 			if (a == IDialogConstants.YES_TO_ALL_ID) {
 				dontAsk = true;
 			}
-
-			// delete the model
-			App.close(model);
-			delete(model);
-			Navigator.refresh(elem.getParent());
+			delete.add(model);
 		}
 
 		return dontAsk
@@ -108,7 +120,7 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				: IDialogConstants.YES_ID;
 	}
 
-	private void deleteCategories(int continuationFlag) {
+	private void collectCategories(BulkDelete delete, int continuationFlag) {
 		if (continuationFlag != IDialogConstants.YES_ID
 				&& continuationFlag != IDialogConstants.YES_TO_ALL_ID) {
 			return;
@@ -122,7 +134,7 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				continue;
 
 			int a;
-			if (elem.getChildren().isEmpty()) {
+			if (!ChildLoader.hasChildren(elem)) {
 				a = dontAsk
 						? IDialogConstants.YES_ID
 						: askDelete(category.name);
@@ -141,88 +153,47 @@ public class DeleteModelAction extends Action implements INavigationAction {
 				return;
 			if (a == IDialogConstants.NO_ID)
 				continue;
-
-			if (delete(elem)) {
-				var typeElement = Navigator.findElement(category.modelType);
-				Navigator.refresh(typeElement);
-			}
+			delete.add(category);
 		}
 	}
 
-	private boolean isUsed(RootDescriptor d) {
-		var search = UsageSearch.of(d.type, Database.get());
-		var descriptors = search.find(d.id);
-		if (descriptors.isEmpty())
-			return false;
-		if (showInUseMessage) {
-			var dialog = MessageDialogWithToggle.openError(
-					UI.shell(),
-					M.CannotDelete,
-					d.name + ": " + M.CannotDeleteMessage,
-					M.DoNotShowThisMessageAgain,
-					false,
-					null,
-					null);
-			showInUseMessage = !dialog.getToggleState();
-		}
-		return true;
-	}
-
-	private void delete(Descriptor d) {
+	/**
+	 * Runs the given step of the deletion with a cancelable progress dialog.
+	 * Returns false when it was canceled or failed.
+	 */
+	private boolean runWithProgress(Consumer<IProgressMonitor> step) {
 		try {
-			log.trace("delete model {}", d);
-			var db = Database.get();
-			var instance = db.get(d.type.getModelClass(), d.id);
-			db.delete(instance);
-			Cache.evict(d);
-			DatabaseDir.deleteDir(d);
-		} catch (Exception e) {
-			ErrorReporter.on("failed to delete " + d, e);
-		}
-	}
-
-	private boolean delete(CategoryElement element) {
-
-		// delete the category content
-		boolean canBeDeleted = true;
-		for (INavigationElement<?> child : element.getChildren()) {
-			if (child instanceof CategoryElement cat) {
-				boolean deleted = delete(cat);
-				if (!deleted) {
-					canBeDeleted = false;
+			PlatformUI.getWorkbench().getProgressService().run(true, true, monitor -> {
+				try {
+					step.accept(monitor);
+				} catch (OperationCanceledException e) {
+					throw new InterruptedException();
+				} catch (Exception e) {
+					throw new InvocationTargetException(e);
 				}
-			} else if (child instanceof ModelElement mod) {
-				var model = mod.getContent();
-				if (isUsed(model)) {
-					canBeDeleted = false;
-					continue;
-				}
-				App.close(model);
-				delete(model);
-			}
-		}
-
-		// delete the category
-		if (!canBeDeleted) {
-			Navigator.refresh(element);
+			});
+			return true;
+		} catch (InterruptedException e) {
+			return false;
+		} catch (InvocationTargetException e) {
+			ErrorReporter.on("failed to delete models", e.getCause());
 			return false;
 		}
-		var category = element.getContent();
-		try {
-			var dao = new CategoryDao(Database.get());
-			var parent = category.category;
-			if (parent != null) {
-				parent.childCategories.remove(category);
-				category.category = null;
-				dao.update(parent);
+	}
+
+	private void showUsedModels(List<RootDescriptor> used) {
+		if (used.isEmpty())
+			return;
+		log.trace("{} models are in use and were not deleted", used.size());
+		var names = new StringBuilder();
+		for (int i = 0; i < used.size(); i++) {
+			if (i == 10) {
+				names.append("\n... (").append(used.size() - i).append(" more)");
+				break;
 			}
-			dao.delete(category);
-			Cache.evict(Descriptor.of(category));
-			return true;
-		} catch (Exception e) {
-			ErrorReporter.on("failed to delete category " + category, e);
-			return false;
+			names.append("\n").append(Labels.name(used.get(i)));
 		}
+		MsgBox.error(M.CannotDelete, M.CannotDeleteMessage + names);
 	}
 
 	private int askDelete(String name) {
@@ -105,6 +105,7 @@ public class NavigationMenu extends CommonActionProvider {
 		addActions(selection, menu,
 				new OpenModelAction(),
 				new CalculateSystemAction(),
+				new CalculateSystemsAction(),
 				new CreateModelAction(),
 				new OpenUsageAction(),
 				new DeleteModelAction());
@@ -7,13 +7,13 @@ import java.util.Optional;
 
 import org.openlca.app.db.Database;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.Daos;
 import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
 
 /**
  * Represents categories in the navigation tree.
  */
-public class CategoryElement extends NavigationElement<Category> {
+public class CategoryElement extends ModelContainerElement<Category> {
 
 	public CategoryElement(INavigationElement<?> parent, Category category) {
 		super(parent, category);
@@ -28,15 +28,26 @@ public class CategoryElement extends NavigationElement<Category> {
 	}
 
 	@Override
-	protected List<INavigationElement<?>> queryChilds() {
+	ModelType modelType() {
+		var category = getContent();
+		return category != null
+				? category.modelType
+				: null;
+	}
+
+	@Override
+	Optional<Category> category() {
+		return Optional.ofNullable(getContent());
+	}
+
+	@Override
+	List<INavigationElement<?>> queryFolders() {
 		var category = getContent();
 		if (category == null)
 			return Collections.emptyList();
 
 		var lib = getLibrary().orElse(null);
 		var list = new ArrayList<INavigationElement<?>>();
-
-		// child categories
 		if (lib == null) {
 			category.childCategories.stream()
 				.map(c -> new CategoryElement(this, c))
@@ -50,16 +61,6 @@ public class CategoryElement extends NavigationElement<Category> {
 					.forEach(list::add);
 			}
 		}
-
-		// models in this category
-		var dao = Daos.root(Database.get(), category.modelType);
-		if (dao == null)
-			return list;
-		for (var d : dao.getDescriptors(Optional.of(category))) {
-			if (lib == null || lib.equals(d.library)) {
-				list.add(new ModelElement(this, d));
-			}
-		}
 		return list;
 	}
 
@@ -0,0 +1,201 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.Objects;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
+import org.eclipse.swt.widgets.Display;
+import org.openlca.app.db.Database;
+import org.openlca.app.util.Labels;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Category;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the model elements of large model containers (model type and category
+ * elements) in pages on a background job. While the job is running, the
+ * container shows its categories, the models of the pages that are already
+ * loaded, and a {@link LoadingElement} as placeholder. Each loaded page is
+ * added to the tree viewer directly; when the last page is loaded, the child
+ * elements are stored in the child cache of the container like for a
+ * synchronous query. As the navigation elements can be shared between trees
+ * (e.g. the navigator and a wizard), a running loader adds its pages to all
+ * viewers that requested the children of the container.
+ * <p>
+ * Containers with a library filter, containers with only a few models, and
+ * requests without a viewer are loaded synchronously.
+ */
+public final class ChildLoader {
+
+	/**
+	 * Containers with more models than this are loaded in pages of this size.
+	 */
+	private static final int PAGE_SIZE = 1000;
+
+	private final ModelContainerElement<?> elem;
+	private final Set<AbstractTreeViewer> viewers = new LinkedHashSet<>();
+	private boolean stale;
+
+	private ChildLoader(ModelContainerElement<?> elem) {
+		this.elem = elem;
+	}
+
+	/**
+	 * Returns the child elements of the given element. If the element is a
+	 * large model container which children were not loaded yet, a background
+	 * job is started that adds the model elements page by page to the given
+	 * viewer. If such a job is already running, the viewer is registered at
+	 * this job.
+	 */
+	public static Object[] getChildren(
+			INavigationElement<?> elem, AbstractTreeViewer viewer) {
+		if (!(elem instanceof ModelContainerElement<?> container)
+				|| viewer == null
+				|| container.hasCachedChildren()
+				|| container.getLibrary().isPresent())
+			return arrayOf(elem.getChildren());
+		if (container.isLoading()) {
+			container.loader().viewers.add(viewer);
+			return container.pending.toArray();
+		}
+		if (container.modelIds().size() <= PAGE_SIZE)
+			return arrayOf(elem.getChildren());
+		var loader = new ChildLoader(container);
+		loader.viewers.add(viewer);
+		return loader.start();
+	}
+
+	/**
+	 * Returns true when the given element has child elements. For model
+	 * containers that were not loaded yet, this only checks if there are
+	 * child categories or model IDs without loading the models. Both are
+	 * cached in the element until it is updated.
+	 */
+	public static boolean hasChildren(INavigationElement<?> elem) {
+		if (!(elem instanceof ModelContainerElement<?> container)
+				|| container.hasCachedChildren()
+				|| container.getLibrary().isPresent())
+			return !elem.getChildren().isEmpty();
+		if (container.isLoading())
+			return true;
+		return !container.modelIds().isEmpty()
+				|| !container.folders().isEmpty();
+	}
+
+	private Object[] start() {
+		elem.startLoading(this);
+		var placeholder = new LoadingElement(elem);
+		var pending = new ArrayList<INavigationElement<?>>(elem.folders());
+		pending.add(placeholder);
+		elem.pending = pending;
+
+		var ids = List.copyOf(elem.modelIds());
+		var db = Database.get();
+		var display = viewers.iterator().next().getControl().getDisplay();
+		var job = new Job("Load " + labelOf(elem)) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					for (int i = 0; i < ids.size(); i += PAGE_SIZE) {
+						if (monitor.isCanceled() || !elem.isLoadingWith(ChildLoader.this))
+							return Status.CANCEL_STATUS;
+						var page = loadPage(db, ids.subList(
+								i, Math.min(i + PAGE_SIZE, ids.size())));
+						inUI(display, () -> {
+							if (!elem.isLoadingWith(ChildLoader.this)) {
+								dropStale();
+								return;
+							}
+							pending.addAll(pending.size() - 1, page);
+							forEachViewer(v -> v.add(elem, page.toArray()));
+						});
+					}
+					inUI(display, () -> finish(placeholder));
+					return Status.OK_STATUS;
+				} catch (Exception e) {
+					LoggerFactory.getLogger(ChildLoader.class)
+							.error("failed to load models of " + elem, e);
+					// keep what we have; a refresh of the navigator restarts it
+					inUI(display, () -> finish(placeholder));
+					return Status.CANCEL_STATUS;
+				}
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+		return pending.toArray();
+	}
+
+	private void finish(LoadingElement placeholder) {
+		if (!elem.isLoadingWith(this)) {
+			dropStale();
+			return;
+		}
+		var childs = elem.pending;
+		childs.remove(placeholder);
+		elem.finishLoading(this, childs);
+		forEachViewer(v -> v.remove(placeholder));
+	}
+
+	/**
+	 * When the element was updated or its children were queried synchronously
+	 * while the job was running, we refresh it once in the viewer so that the
+	 * partial results and the placeholder are replaced.
+	 */
+	private void dropStale() {
+		if (stale)
+			return;
+		stale = true;
+		forEachViewer(v -> v.refresh(elem));
+	}
+
+	private List<ModelElement> loadPage(IDatabase db, List<Long> ids) {
+		var dao = Daos.root(db, elem.modelType());
+		if (dao == null)
+			return List.of();
+		var page = new ArrayList<ModelElement>(ids.size());
+		for (var d : dao.getDescriptors(new HashSet<>(ids))) {
+			page.add(new ModelElement(elem, d));
+		}
+		return page;
+	}
+
+	/** Runs the given function for each viewer that is not disposed. */
+	private void forEachViewer(Consumer<AbstractTreeViewer> fn) {
+		for (var viewer : viewers) {
+			var control = viewer.getControl();
+			if (control != null && !control.isDisposed()) {
+				fn.accept(viewer);
+			}
+		}
+	}
+
+	private static void inUI(Display display, Runnable fn) {
+		if (!display.isDisposed()) {
+			display.asyncExec(fn);
+		}
+	}
+
+	private static Object[] arrayOf(List<INavigationElement<?>> childs) {
+		return childs == null
+				? new Object[0]
+				: childs.toArray();
+	}
+
+	private static String labelOf(ModelContainerElement<?> elem) {
+		var content = elem.getContent();
+		if (content instanceof Category c)
+			return c.name;
+		return Objects.toString(Labels.plural(elem.modelType()));
+	}
+}
@@ -0,0 +1,20 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A placeholder that is shown under a navigation element while its child
+ * elements are loaded in the background.
+ */
+public class LoadingElement extends NavigationElement<String> {
+
+	LoadingElement(INavigationElement<?> parent) {
+		super(parent, "Loading ...");
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryChilds() {
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,172 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.openlca.app.db.Database;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+
+import jakarta.persistence.Table;
+
+/**
+ * Base class of the navigation elements that directly contain models: model
+ * type elements and category elements. Next to the synchronous query of the
+ * child elements, the models of such an element can be loaded in pages on a
+ * background job (see {@link ChildLoader}).
+ */
+public abstract class ModelContainerElement<T> extends NavigationElement<T> {
+
+	private List<Long> modelIds;
+	private List<INavigationElement<?>> folders;
+	private ChildLoader loader;
+
+	/**
+	 * The child elements that are shown while the element is loading.
+	 */
+	List<INavigationElement<?>> pending;
+
+	ModelContainerElement(INavigationElement<?> parent, T content) {
+		super(parent, content);
+	}
+
+	/**
+	 * Returns the type of the models in this container.
+	 */
+	abstract ModelType modelType();
+
+	/**
+	 * Returns the category of the models in this container or an empty
+	 * optional for the models without category.
+	 */
+	abstract Optional<Category> category();
+
+	/**
+	 * Queries the category elements that are direct children of this element.
+	 */
+	abstract List<INavigationElement<?>> queryFolders();
+
+	@Override
+	public void update() {
+		super.update();
+		modelIds = null;
+		folders = null;
+		loader = null;
+		pending = null;
+	}
+
+	@Override
+	public List<INavigationElement<?>> getChildren() {
+		// a synchronous query supersedes a running background load
+		if (!hasCachedChildren() && isLoading()) {
+			loader = null;
+			pending = null;
+		}
+		return super.getChildren();
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryChilds() {
+		if (getContent() == null)
+			return Collections.emptyList();
+		var list = new ArrayList<>(folders());
+		var dao = Daos.root(Database.get(), modelType());
+		if (dao == null)
+			return list;
+		var lib = getLibrary().orElse(null);
+		for (var d : dao.getDescriptors(category())) {
+			if (lib == null || Objects.equals(lib, d.library)) {
+				list.add(new ModelElement(this, d));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the category elements that are direct children of this element.
+	 * Like the model IDs, they are cached until the next update of this
+	 * element.
+	 */
+	List<INavigationElement<?>> folders() {
+		if (folders == null) {
+			folders = queryFolders();
+		}
+		return folders;
+	}
+
+	/**
+	 * Returns the IDs of the models that are directly contained in this
+	 * element. This is a cheap query that runs over the ID column of the
+	 * respective model table only. The IDs are cached until the next update of
+	 * this element.
+	 */
+	List<Long> modelIds() {
+		if (modelIds != null)
+			return modelIds;
+		var db = Database.get();
+		var type = modelType();
+		if (db == null || type == null || type.getModelClass() == null)
+			return modelIds = Collections.emptyList();
+		var table = type.getModelClass().getAnnotation(Table.class);
+		if (table == null)
+			return modelIds = Collections.emptyList();
+
+		var sql = "select id from " + table.name();
+		var category = category();
+		sql += category.isPresent()
+				? " where f_category = " + category.get().id
+				: " where f_category is null";
+		if (type == ModelType.PARAMETER) {
+			sql += " and scope = 'GLOBAL'";
+		}
+		var ids = new ArrayList<Long>();
+		NativeSql.on(db).query(sql, r -> {
+			ids.add(r.getLong(1));
+			return true;
+		});
+		modelIds = ids;
+		return ids;
+	}
+
+	/**
+	 * Returns true when the child elements of this element are currently
+	 * loaded in the background.
+	 */
+	boolean isLoading() {
+		return loader != null;
+	}
+
+	/**
+	 * Returns the loader that currently loads the child elements, or null if
+	 * the element is not loading.
+	 */
+	ChildLoader loader() {
+		return loader;
+	}
+
+	/**
+	 * Marks this element as loading with the given loader. When the element is
+	 * updated while the loader is running, it is detached from the element and
+	 * its results are discarded.
+	 */
+	void startLoading(ChildLoader loader) {
+		this.loader = loader;
+	}
+
+	boolean isLoadingWith(ChildLoader loader) {
+		return loader != null && loader == this.loader;
+	}
+
+	void finishLoading(ChildLoader loader, List<INavigationElement<?>> childs) {
+		if (!isLoadingWith(loader))
+			return;
+		this.loader = null;
+		pending = null;
+		setCachedChildren(childs);
+	}
+}
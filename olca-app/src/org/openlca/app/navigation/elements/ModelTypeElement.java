@@ -2,22 +2,31 @@ package org.openlca.app.navigation.elements;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 import org.openlca.app.db.Database;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.Daos;
+import org.openlca.core.model.Category;
 import org.openlca.core.model.ModelType;
 
-public class ModelTypeElement extends NavigationElement<ModelType> {
+public class ModelTypeElement extends ModelContainerElement<ModelType> {
 
 	public ModelTypeElement(INavigationElement<?> parent, ModelType type) {
 		super(parent, type);
 	}
 
 	@Override
-	protected List<INavigationElement<?>> queryChilds() {
+	ModelType modelType() {
+		return getContent();
+	}
+
+	@Override
+	Optional<Category> category() {
+		return Optional.empty();
+	}
+
+	@Override
+	List<INavigationElement<?>> queryFolders() {
 		var type = getContent();
 		var db = Database.get();
 
@@ -40,16 +49,6 @@ public class ModelTypeElement extends NavigationElement<ModelType> {
 					.forEach(list::add);
 			}
 		}
-
-		// models without category
-		var dao = Daos.root(Database.get(), type);
-		if (dao == null)
-			return list;
-		for (var d : dao.getDescriptors(Optional.empty())) {
-			if (lib == null || Objects.equals(lib, d.library)) {
-				list.add(new ModelElement(this, d));
-			}
-		}
 		return list;
 	}
 }
@@ -38,6 +38,17 @@ abstract class NavigationElement<T> implements INavigationElement<T> {
 		return cache;
 	}
 
+	/**
+	 * Returns true when the child elements of this element are cached.
+	 */
+	boolean hasCachedChildren() {
+		return cache != null;
+	}
+
+	void setCachedChildren(List<INavigationElement<?>> childs) {
+		cache = childs;
+	}
+
 	@Override
 	public T getContent() {
 		return content;
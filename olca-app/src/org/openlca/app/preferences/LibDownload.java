@@ -1,5 +1,8 @@
 package org.openlca.app.preferences;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.app.util.Download;
 import org.openlca.nativelib.Module;
 import org.openlca.nativelib.NativeLib;
 import org.slf4j.Logger;
@@ -7,7 +10,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.zip.ZipFile;
@@ -47,14 +49,29 @@ public class LibDownload {
 	}
 
 	public static void fetch(Repo repo, Module module, File targetDir) {
+		fetch(repo, module, targetDir, null);
+	}
+
+	public static void fetch(
+			Repo repo, Module module, File targetDir, IProgressMonitor monitor) {
 		try {
-			new LibDownload(repo, module, targetDir).run();
+			new LibDownload(repo, module, targetDir).run(monitor);
+		} catch (OperationCanceledException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException("Download failed", e);
 		}
 	}
 
 	public void run() throws Exception {
+		run(null);
+	}
+
+	/**
+	 * Runs the download with progress reporting. The download is continued
+	 * when it is started again after it was canceled or interrupted.
+	 */
+	public void run(IProgressMonitor monitor) throws Exception {
 
 		try {
 			var dir = libFolderOf(targetDir);
@@ -64,20 +81,24 @@ public class LibDownload {
 
 			var path = getUrl();
 			log.info("fetch jar from {}", path);
-			URL url = new URL(path);
 
-			// download the jar/zip into a temporary file
-			var zip = Files.createTempFile(
-				"olca-native-" + NativeLib.VERSION + "-", ".zip");
+			// download the jar/zip into a file in the temp folder; the name
+			// is stable so that an interrupted download can be continued
+			var zip = new File(System.getProperty("java.io.tmpdir"),
+				"olca-native-" + NativeLib.VERSION + "-" + module + "-"
+					+ os() + "-" + arch() + ".zip");
 			log.info("download jar to {}", zip);
-			try (var in = url.openStream()) {
-				Files.copy(in, zip, StandardCopyOption.REPLACE_EXISTING);
-			}
+			Download.of(Download.url(path), zip)
+				.withProgress(monitor)
+				.run();
 
 			// extract and delete the jar/zip
-			extractJar(dir, zip.toFile());
-			Files.delete(zip);
+			extractJar(dir, zip);
+			Files.delete(zip.toPath());
 
+		} catch (OperationCanceledException e) {
+			log.info("download of native libraries canceled");
+			throw e;
 		} catch (Exception e) {
 			log.error("failed to download and extract native libraries", e);
 			throw e;
@@ -1,8 +1,9 @@
 package org.openlca.app.preferences;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.lang.reflect.InvocationTargetException;
 
-import org.openlca.app.App;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.preferences.LibDownload.Repo;
 import org.openlca.app.rcp.Workspace;
 import org.openlca.app.util.MsgBox;
@@ -28,26 +29,29 @@ public class LibraryDownload {
 		if (!b)
 			return;
 
-		var success = new AtomicBoolean(false);
-		App.runWithProgress("Download native libraries", () -> {
-			try {
-				LibDownload.fetch(Repo.GITHUB, Module.UMFPACK, Workspace.root());
-				NativeLib.reloadFrom(Workspace.root());
-				success.set(true);
-			} catch (Exception e) {
-				var log = LoggerFactory.getLogger(LibraryDownload.class);
-				log.error("failed to download native libraries", e);
-			}
-		}, () -> {
-			if (!success.get()) {
-				MsgBox.error("The download of the libraries or "
-						+ "loading them failed. Please check the "
-						+ "log file for details.");
-			} else {
-				MsgBox.info("Download finished", "Note that you need to "
-						+ "restart openLCA in order to use "
-						+ "the downloaded libraries.");
-			}
-		});
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true, monitor -> {
+				try {
+					LibDownload.fetch(Repo.GITHUB, Module.UMFPACK, Workspace.root(), monitor);
+					NativeLib.reloadFrom(Workspace.root());
+				} catch (OperationCanceledException e) {
+					throw new InterruptedException();
+				} catch (Exception e) {
+					throw new InvocationTargetException(e);
+				}
+			});
+			MsgBox.info("Download finished", "Note that you need to "
+					+ "restart openLCA in order to use "
+					+ "the downloaded libraries.");
+		} catch (InterruptedException e) {
+			MsgBox.info("Download canceled", "The download of the libraries "
+					+ "was canceled. It is continued when you start it again.");
+		} catch (InvocationTargetException e) {
+			var log = LoggerFactory.getLogger(LibraryDownload.class);
+			log.error("failed to download native libraries", e.getCause());
+			MsgBox.error("The download of the libraries or "
+					+ "loading them failed. Please check the "
+					+ "log file for details.");
+		}
 	}
 }
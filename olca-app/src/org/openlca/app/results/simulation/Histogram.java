@@ -0,0 +1,145 @@
+package org.openlca.app.results.simulation;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+import org.openlca.core.results.Statistics;
+
+/**
+ * A frequency distribution of simulation values over a fixed number of
+ * intervals between the minimum and maximum of the respective statistics. The
+ * values are counted in a single pass so that they do not need to be
+ * available as an array. For values that are available as an array, the
+ * exact statistics are calculated; the estimated {@link StreamingStats} are
+ * only used for values that are streamed from a {@link SimulationStore}.
+ */
+final class Histogram {
+
+	static final int INTERVALS = 100;
+
+	final Stats stats;
+	private final int[] counts = new int[INTERVALS];
+	private int maxCount;
+
+	private Histogram(Stats stats) {
+		this.stats = stats;
+	}
+
+	static Histogram empty() {
+		return new Histogram(new StreamingStats());
+	}
+
+	static Histogram of(double[] values) {
+		var stats = values != null && values.length > 0
+				? new ExactStats(Statistics.of(values))
+				: new StreamingStats();
+		var hist = new Histogram(stats);
+		if (values != null) {
+			for (double v : values) {
+				hist.add(v);
+			}
+		}
+		return hist;
+	}
+
+	/**
+	 * Creates the histogram for the given statistics. The values are passed
+	 * into the consumer that is provided to the given source function.
+	 */
+	static Histogram of(Stats stats, Consumer<DoubleConsumer> source) {
+		var hist = new Histogram(stats);
+		source.accept(hist::add);
+		return hist;
+	}
+
+	private void add(double value) {
+		int i = getInterval(value);
+		counts[i]++;
+		if (counts[i] > maxCount) {
+			maxCount = counts[i];
+		}
+	}
+
+	int getInterval(double value) {
+		double min = stats.min();
+		double max = stats.max();
+		if (max <= min)
+			return 0;
+		int i = (int) ((value - min) / (max - min) * INTERVALS);
+		return Math.max(0, Math.min(INTERVALS - 1, i));
+	}
+
+	int getAbsoluteFrequency(int interval) {
+		return interval >= 0 && interval < INTERVALS
+				? counts[interval]
+				: 0;
+	}
+
+	int getMaxAbsoluteFrequency() {
+		return maxCount;
+	}
+
+	/** The statistic parameters that are shown with the histogram. */
+	interface Stats {
+
+		long count();
+
+		double mean();
+
+		double standardDeviation();
+
+		double min();
+
+		double max();
+
+		double percentile5();
+
+		double median();
+
+		double percentile95();
+	}
+
+	/** The exact statistics of values that are available as an array. */
+	private record ExactStats(Statistics s) implements Stats {
+
+		@Override
+		public long count() {
+			return s.count;
+		}
+
+		@Override
+		public double mean() {
+			return s.mean;
+		}
+
+		@Override
+		public double standardDeviation() {
+			return s.standardDeviation;
+		}
+
+		@Override
+		public double min() {
+			return s.min;
+		}
+
+		@Override
+		public double max() {
+			return s.max;
+		}
+
+		@Override
+		public double percentile5() {
+			return s.getPercentileValue(5);
+		}
+
+		@Override
+		public double median() {
+			return s.median;
+		}
+
+		@Override
+		public double percentile95() {
+			return s.getPercentileValue(95);
+		}
+	}
+}
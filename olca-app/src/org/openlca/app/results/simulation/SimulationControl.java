@@ -1,10 +1,15 @@
 package org.openlca.app.results.simulation;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.eclipse.jface.operation.ModalContext;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Spinner;
 import org.openlca.app.M;
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.util.Controls;
+import org.openlca.app.util.ErrorReporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,14 +23,18 @@ class SimulationControl {
 	private final SimulationPage page;
 	private final SimulationEditor editor;
 
-	public SimulationControl(Button button, SimulationEditor editor,
-			SimulationPage page) {
+	private final Spinner threads;
+
+	public SimulationControl(Button button, Spinner threads,
+			SimulationEditor editor, SimulationPage page) {
+		this.threads = threads;
 		this.page = page;
 		this.editor = editor;
 		monitor = new SimulationMonitor();
 		Controls.onSelect(button, (e) -> {
 			if (!monitor.isRunning()) {
 				button.setText(M.Cancel);
+				threads.setEnabled(false);
 				startProgress();
 			} else {
 				monitor.setCanceled(true);
@@ -36,8 +45,14 @@ class SimulationControl {
 	private void startProgress() {
 		try {
 			var display = Display.getCurrent();
-			var progress = new SimulationProgress(display, editor, page);
+			int n = threads.getSelection();
+			Preferences.set(Preferences.SIMULATION_THREADS, n);
+			var progress = new SimulationProgress(display, editor, page, n);
 			ModalContext.run(progress, true, monitor, display);
+		} catch (InvocationTargetException e) {
+			// a worker failed; the results contain fewer iterations than
+			// requested, which the user needs to know
+			ErrorReporter.on(e.getMessage(), e.getCause());
 		} catch (Exception e) {
 			log.error("Could not start simulation progress", e);
 		}
@@ -26,6 +26,7 @@ public class SimulationEditor extends SimpleFormEditor {
 
 	CalculationSetup setup;
 	Simulator simulator;
+	SimulationRuns runs;
 
 	/**
 	 * Initializes the Monte Carlo simulation of a product system and opens the
@@ -54,6 +55,15 @@ public class SimulationEditor extends SimpleFormEditor {
 		setup = Cache.getAppCache().remove(input.setupKey, CalculationSetup.class);
 		setPartName(Strings.cut(Labels.name(setup.target()), 75));
 		simulator = Cache.getAppCache().remove(input.solverKey, Simulator.class);
+		runs = new SimulationRuns(setup, simulator);
+	}
+
+	@Override
+	public void dispose() {
+		if (runs != null) {
+			runs.close();
+		}
+		super.dispose();
 	}
 
 	@Override
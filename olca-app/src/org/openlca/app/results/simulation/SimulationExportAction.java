@@ -1,5 +1,9 @@
 package org.openlca.app.results.simulation;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 import org.eclipse.jface.action.Action;
 import org.openlca.app.App;
 import org.openlca.app.M;
@@ -7,40 +11,127 @@ import org.openlca.app.components.FileChooser;
 import org.openlca.app.db.Cache;
 import org.openlca.app.rcp.images.Images;
 import org.openlca.app.util.FileType;
+import org.openlca.app.util.Labels;
+import org.openlca.app.util.MsgBox;
+import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.model.CalculationSetup;
-import org.openlca.core.results.SimulationResult;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.ResultItemOrder;
 import org.openlca.io.xls.results.SimulationResultExport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 class SimulationExportAction extends Action {
 
+	/**
+	 * Results with more values than this are not exported to Excel but
+	 * streamed from the simulation store into a CSV file.
+	 */
+	private static final long MAX_EXCEL_VALUES = 1_000_000;
+
 	private Logger log = LoggerFactory.getLogger(getClass());
-	private SimulationResult result;
+	private SimulationRuns runs;
+	private ResultItemOrder items;
 	private CalculationSetup setup;
 
-	public SimulationExportAction(SimulationResult result,
+	public SimulationExportAction(SimulationRuns runs, ResultItemOrder items,
 			CalculationSetup setup) {
 		setId("SimulationResultExport");
-		setToolTipText(M.ExportResultsToExcel);
-		setImageDescriptor(Images.descriptor(FileType.EXCEL));
-		this.result = result;
+		this.runs = runs;
+		this.items = items;
 		this.setup = setup;
+		update();
+	}
+
+	/**
+	 * Updates the tool-tip and icon of the action to the format of the
+	 * current result. This should be called when a simulation finished.
+	 */
+	void update() {
+		if (isCsv()) {
+			setToolTipText(M.ExportResultsToCsv);
+			setImageDescriptor(Images.descriptor(FileType.CSV));
+		} else {
+			setToolTipText(M.ExportResultsToExcel);
+			setImageDescriptor(Images.descriptor(FileType.EXCEL));
+		}
+	}
+
+	/**
+	 * The Excel export can only handle the in-memory result of a single
+	 * simulator; merged and large results are streamed to a CSV file.
+	 */
+	private boolean isCsv() {
+		return runs.isMerged() || isLarge();
 	}
 
 	@Override
 	public void run() {
+		if (isCsv()) {
+			if (runs.isMerged() && !isLarge()) {
+				MsgBox.info(M.ExportResultsToExcel, M.ExcelExportOnlySingleThread);
+			}
+			var file = FileChooser.forSavingFile(M.Export, "simulation_result.csv");
+			if (file == null)
+				return;
+			App.run(M.Export, () -> writeCsv(file));
+			return;
+		}
+
 		var file = FileChooser.forSavingFile(M.Export, "simulation_result.xlsx");
 		if (file == null)
 			return;
 		App.run(M.ExportResultsToExcel, () -> {
 			try {
 				var export = new SimulationResultExport(
-						setup, result, Cache.getEntityCache());
+						setup, runs.primaryResult(), Cache.getEntityCache());
 				export.run(file);
 			} catch (Exception e) {
 				log.error("Result export failed", e);
 			}
 		});
 	}
+
+	private boolean isLarge() {
+		var store = runs.store();
+		if (store == null)
+			return false;
+		long items = this.items.enviFlows().size() + this.items.impacts().size();
+		return items * store.size() > MAX_EXCEL_VALUES;
+	}
+
+	private void writeCsv(File file) {
+		var store = runs.store();
+		if (store == null)
+			return;
+		try (var w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			store.writeRows(w, new SimulationStore.ItemLabels() {
+				@Override
+				public String of(EnviFlow flow) {
+					return csv(M.Flow, Labels.name(flow), Labels.category(flow),
+							Labels.refUnit(flow));
+				}
+
+				@Override
+				public String of(ImpactDescriptor impact) {
+					return csv(M.ImpactCategory, Labels.name(impact), "",
+							impact.referenceUnit);
+				}
+			});
+		} catch (Exception e) {
+			log.error("Result export failed", e);
+		}
+	}
+
+	private static String csv(String... fields) {
+		var b = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				b.append(',');
+			}
+			var field = fields[i] == null ? "" : fields[i];
+			b.append('"').append(field.replace("\"", "\"\"")).append('"');
+		}
+		return b.toString();
+	}
 }
@@ -15,6 +15,7 @@ import org.eclipse.ui.forms.widgets.ScrolledForm;
 import org.eclipse.ui.forms.widgets.Section;
 import org.openlca.app.M;
 import org.openlca.app.components.ResultFlowCombo;
+import org.openlca.app.preferences.Preferences;
 import org.openlca.app.results.Sort;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.Labels;
@@ -38,6 +39,7 @@ class SimulationPage extends FormPage {
 
 	private final SimulationEditor editor;
 	private final Simulator simulator;
+	private final SimulationRuns runs;
 	private final SimulationResult result;
 	private final ResultItemOrder items;
 
@@ -47,6 +49,7 @@ class SimulationPage extends FormPage {
 	private Section progressSection;
 	private ScrolledForm form;
 	private ImpactCategoryViewer impactViewer;
+	private SimulationExportAction exportAction;
 
 	/**
 	 * A pinned product which results should be displayed.
@@ -57,6 +60,7 @@ class SimulationPage extends FormPage {
 		super(editor, "SimulationPage", M.MonteCarloSimulation);
 		this.editor = editor;
 		this.simulator = editor.simulator;
+		this.runs = editor.runs;
 		this.result = editor.simulator.getResult();
 		this.items = ResultItemOrder.of(result);
 		Sort.sort(this.items);
@@ -115,22 +119,32 @@ class SimulationPage extends FormPage {
 
 	private void createProgressSection(FormToolkit toolkit, Composite body) {
 		progressSection = UI.section(body, toolkit, M.Progress);
-		Composite composite = UI.sectionClient(progressSection, toolkit);
+		Composite composite = UI.sectionClient(progressSection, toolkit, 4);
 		progressBar = new ProgressBar(composite, SWT.SMOOTH);
 		progressBar.setMaximum(editor.setup.simulationRuns().orElse(1));
 		UI.gridData(progressBar, false, false).widthHint = 470;
+
+		// the number of worker threads
+		UI.label(composite, toolkit, M.Threads);
+		var threads = UI.spinner(composite, toolkit, SWT.BORDER);
+		int cores = Runtime.getRuntime().availableProcessors();
+		threads.setValues(
+			Math.min(cores, Preferences.getInt(Preferences.SIMULATION_THREADS, 1)),
+			1, cores, 0, 1, 1);
+		threads.setToolTipText("Each thread runs its own simulator with a"
+			+ " separate copy of the matrices");
+
 		Button progressButton = toolkit.createButton(composite,
 			M.Start, SWT.NONE);
 		UI.gridData(progressButton, false, false).widthHint = 70;
-		new SimulationControl(progressButton, editor, this);
+		new SimulationControl(progressButton, threads, editor, this);
 	}
 
 	private void createResultSection(FormToolkit tk, Composite body) {
 		if (result == null)
 			return;
 		Section section = UI.section(body, tk, M.Results);
-		SimulationExportAction exportAction = new SimulationExportAction(
-			result, editor.setup);
+		exportAction = new SimulationExportAction(runs, items, editor.setup);
 		Actions.bind(section, exportAction);
 		Composite comp = UI.sectionClient(section, tk);
 		initFlowCheckViewer(tk, comp);
@@ -167,33 +181,47 @@ class SimulationPage extends FormPage {
 	private void updateSelection() {
 		if (result == null || statisticsCanvas == null)
 			return;
+		var store = runs.store();
 		if (resultType == FLOW) {
 			var flow = flowViewer.getSelected();
 			if (flow == null)
 				return;
+			if (resultPin == null && store != null) {
+				statisticsCanvas.setData(Histogram.of(
+					store.statsOf(flow), fn -> store.eachOf(flow, fn)));
+				return;
+			}
 			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, flow)
-				: result.getAll(flow);
+				? runs.getAllUpstream(resultPin, flow)
+				: runs.getAll(flow);
 			statisticsCanvas.setValues(vals);
 		} else {
 			ImpactDescriptor cat = impactViewer.getSelected();
 			if (cat == null)
 				return;
+			if (resultPin == null && store != null) {
+				statisticsCanvas.setData(Histogram.of(
+					store.statsOf(cat), fn -> store.eachOf(cat, fn)));
+				return;
+			}
 			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, cat)
-				: result.getAll(cat);
+				? runs.getAllUpstream(resultPin, cat)
+				: runs.getAll(cat);
 			statisticsCanvas.setValues(vals);
 		}
 	}
 
-	void updateProgress() {
-		if (result == null)
+	void updateProgress(int finishedRuns) {
+		if (result == null || progressBar.isDisposed())
 			return;
 		updateSelection();
-		progressBar.setSelection(progressBar.getSelection() + 1);
+		progressBar.setSelection(finishedRuns);
 	}
 
 	void progressDone() {
+		if (exportAction != null) {
+			exportAction.update();
+		}
 		progressSection.dispose();
 		form.reflow(true);
 	}
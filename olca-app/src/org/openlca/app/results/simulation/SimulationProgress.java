@@ -1,29 +1,33 @@
 package org.openlca.app.results.simulation;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Display;
 import org.openlca.app.M;
-import org.openlca.core.math.Simulator;
 
 /**
  * The progress that runs the simulations. This should not be executed in the
- * UI-thread.
+ * UI-thread. The iterations are executed by the {@link SimulationRuns} of the
+ * editor on the given number of threads; the page is updated in the fixed
+ * refresh interval of these runs and not after every iteration.
  */
 class SimulationProgress implements IRunnableWithProgress {
 
 	private final Display display;
 	private final int numberOfRuns;
-	private final Simulator solver;
+	private final int threads;
+	private final SimulationRuns runs;
 	private final SimulationPage page;
 
 	public SimulationProgress(Display display, SimulationEditor editor,
-			SimulationPage page) {
+			SimulationPage page, int threads) {
 		this.display = display;
-		this.solver = editor.simulator;
+		this.runs = editor.runs;
 		this.numberOfRuns = editor.setup.simulationRuns().orElse(1);
+		this.threads = threads;
 		this.page = page;
 	}
 
@@ -31,19 +35,14 @@ class SimulationProgress implements IRunnableWithProgress {
 	public void run(IProgressMonitor monitor)
 			throws InvocationTargetException, InterruptedException {
 		monitor.beginTask(M.MonteCarloSimulation + "...", numberOfRuns);
-		for (int i = 0; i < numberOfRuns; i++) {
-			if (monitor.isCanceled()) {
-				display.asyncExec(page::progressDone);
-				break;
-			}
-			var result = solver.nextRun();
-			if (result != null) {
-				result.dispose();
-			}
-			display.asyncExec(page::updateProgress);
-			Thread.sleep(10);
+		try {
+			runs.run(numberOfRuns, threads, monitor,
+					done -> display.asyncExec(() -> page.updateProgress(done)));
+		} catch (ExecutionException e) {
+			throw new InvocationTargetException(e.getCause(), e.getMessage());
+		} finally {
+			monitor.done();
+			display.asyncExec(page::progressDone);
 		}
-		monitor.done();
-		display.asyncExec(page::progressDone);
 	}
 }
@@ -0,0 +1,249 @@
+package org.openlca.app.results.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.openlca.app.App;
+import org.openlca.app.db.Database;
+import org.openlca.core.math.Simulator;
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.ResultItemOrder;
+import org.openlca.core.results.SimulationResult;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the iterations of a Monte Carlo simulation on one or more worker
+ * threads. Each worker has its own {@link Simulator} instance with its own
+ * matrices, random number generators, and simulation result. The first worker
+ * is the simulator of the editor; the others are created from the same
+ * calculation setup when the simulation starts. The iterations are assigned
+ * to the workers in a fixed order: worker {@code k} of {@code n} executes the
+ * iterations {@code k, k + n, k + 2n, ...}. When the results are requested,
+ * the values of the workers are interleaved again in this order, so that the
+ * merged values are in the order of the iterations. When a worker fails, the
+ * other workers are stopped and the failure is passed to the caller.
+ * <p>
+ * Note that the runs are not reproducible: the random values are drawn by
+ * the number generators of the core, which create their own random sources
+ * for each uncertainty distribution and cannot be seeded from here.
+ * <p>
+ * The total flow and impact results of each iteration are additionally
+ * streamed into a {@link SimulationStore} which provides the statistics and
+ * the export of these results from a memory-mapped file. This does not bound
+ * the heap usage of a simulation: the core {@link Simulator} appends every
+ * iteration to its {@link SimulationResult}, and these results cannot be
+ * dropped as they are needed for the pinned products.
+ */
+class SimulationRuns implements AutoCloseable {
+
+	/** The interval in milliseconds in which the UI is updated. */
+	static final int REFRESH_RATE = 250;
+
+	private final CalculationSetup setup;
+	private final List<Simulator> workers = new ArrayList<>();
+	private volatile SimulationStore store;
+
+	SimulationRuns(CalculationSetup setup, Simulator simulator) {
+		this.setup = setup;
+		workers.add(simulator);
+	}
+
+	/**
+	 * The simulator of the first worker. The pinned products of the
+	 * simulation are managed in this instance.
+	 */
+	Simulator primary() {
+		return workers.get(0);
+	}
+
+	SimulationResult primaryResult() {
+		return primary().getResult();
+	}
+
+	/**
+	 * Returns true when the iterations were executed on more than one worker.
+	 * In this case the result of the primary simulator contains only a part
+	 * of the iterations.
+	 */
+	boolean isMerged() {
+		return workers.size() > 1;
+	}
+
+	/**
+	 * Runs the given number of iterations on the given number of threads. The
+	 * given callback is called in the interval of the {@link #REFRESH_RATE}
+	 * with the number of finished iterations. This method blocks until the
+	 * simulation is finished or canceled via the monitor. If a worker fails,
+	 * the simulation is stopped and an {@link ExecutionException} with the
+	 * cause of the first failure is thrown.
+	 */
+	void run(int iterations, int threads, IProgressMonitor monitor,
+			IntConsumer onProgress)
+			throws InterruptedException, ExecutionException {
+		int n = Math.max(1, Math.min(threads, iterations));
+		prepareWorkers(n);
+		openStore(iterations);
+		var store = this.store;
+
+		var done = new AtomicInteger(0);
+		var failure = new AtomicReference<Throwable>();
+		ExecutorService pool = Executors.newFixedThreadPool(n);
+		for (int k = 0; k < n; k++) {
+			var worker = workers.get(k);
+			int share = iterations / n + (k < iterations % n ? 1 : 0);
+			pool.submit(() -> {
+				try {
+					for (int i = 0; i < share; i++) {
+						if (monitor.isCanceled() || failure.get() != null)
+							return;
+						var result = worker.nextRun();
+						if (result != null) {
+							if (store != null) {
+								store.add(result);
+							}
+							result.dispose();
+						}
+						done.incrementAndGet();
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+		}
+		pool.shutdown();
+
+		try {
+			while (!pool.awaitTermination(REFRESH_RATE, TimeUnit.MILLISECONDS)) {
+				onProgress.accept(done.get());
+			}
+			onProgress.accept(done.get());
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			throw e;
+		}
+		var error = failure.get();
+		if (error != null) {
+			LoggerFactory.getLogger(getClass())
+					.error("simulation run failed", error);
+			throw new ExecutionException("Monte Carlo simulation failed after "
+					+ done.get() + " of " + iterations + " iterations", error);
+		}
+	}
+
+	/**
+	 * Creates a new store for the next run. The new store is published before
+	 * the old one is closed; closing waits until running reads of the old
+	 * store, e.g. of the result page, are finished.
+	 */
+	private void openStore(int iterations) {
+		var old = store;
+		try {
+			var items = ResultItemOrder.of(primaryResult());
+			store = SimulationStore.create(items, iterations);
+		} catch (Exception e) {
+			store = null;
+			LoggerFactory.getLogger(getClass())
+					.error("failed to create simulation store", e);
+		}
+		if (old != null) {
+			old.close();
+		}
+	}
+
+	/**
+	 * Returns the store with the total results of the iterations, or
+	 * {@code null} when the simulation was not started yet.
+	 */
+	SimulationStore store() {
+		return store;
+	}
+
+	@Override
+	public void close() {
+		if (store != null) {
+			store.close();
+			store = null;
+		}
+	}
+
+	/**
+	 * Creates the additional workers. The pinned products of the primary
+	 * simulator are copied to the new workers. Workers that were created in a
+	 * previous run are kept.
+	 */
+	private void prepareWorkers(int n) {
+		var db = Database.get();
+		while (workers.size() < n) {
+			var sim = Simulator.create(setup, db)
+					.withSolver(App.getSolver());
+			workers.add(sim);
+		}
+		var pins = primary().pinnedProducts;
+		for (int k = 1; k < workers.size(); k++) {
+			var worker = workers.get(k);
+			worker.pinnedProducts.clear();
+			worker.pinnedProducts.addAll(pins);
+		}
+	}
+
+	double[] getAll(EnviFlow flow) {
+		return merge(r -> r.getAll(flow));
+	}
+
+	double[] getAll(ImpactDescriptor impact) {
+		return merge(r -> r.getAll(impact));
+	}
+
+	double[] getAllUpstream(TechFlow pin, EnviFlow flow) {
+		return merge(r -> r.getAllUpstream(pin, flow));
+	}
+
+	double[] getAllUpstream(TechFlow pin, ImpactDescriptor impact) {
+		return merge(r -> r.getAllUpstream(pin, impact));
+	}
+
+	/**
+	 * Merges the values of the workers in the order of the iterations: value
+	 * {@code j} of worker {@code k} is the result of iteration
+	 * {@code k + j * n}. When a simulation was canceled, the workers can have
+	 * different numbers of values; the remaining values are then appended in
+	 * the same round-robin order.
+	 */
+	private double[] merge(Function<SimulationResult, double[]> fn) {
+		if (workers.size() == 1)
+			return fn.apply(primaryResult());
+		var parts = new ArrayList<double[]>(workers.size());
+		int length = 0;
+		int maxLength = 0;
+		for (var worker : workers) {
+			var part = fn.apply(worker.getResult());
+			if (part == null)
+				continue;
+			parts.add(part);
+			length += part.length;
+			maxLength = Math.max(maxLength, part.length);
+		}
+		var merged = new double[length];
+		int pos = 0;
+		for (int j = 0; j < maxLength; j++) {
+			for (var part : parts) {
+				if (j < part.length) {
+					merged[pos++] = part[j];
+				}
+			}
+		}
+		return merged;
+	}
+}
@@ -0,0 +1,298 @@
+package org.openlca.app.results.simulation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoubleConsumer;
+
+import org.openlca.app.db.Database;
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.ResultItemOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the total flow and impact results of the iterations of a Monte Carlo
+ * simulation in a memory-mapped file. The file has a column-major layout: the
+ * values of a result item (a flow or an impact category) are stored in a
+ * contiguous column with a fixed capacity of the number of iterations. Thus,
+ * writing an iteration touches one value per column while reading the values
+ * of an item, e.g. for the histogram or the export, is a sequential scan. The
+ * columns are mapped in segments of up to 1 GB.
+ * <p>
+ * Next to the raw values, the store updates {@link StreamingStats} for each
+ * column when an iteration is added. The file is located in the folder
+ * {@code simulations} of the database directory and is deleted when the store
+ * is closed. Readers only see the iterations that are completely written;
+ * closing the store waits until running reads and writes are finished.
+ * <p>
+ * Note that the store does not lower the peak heap usage of a simulation:
+ * the core {@code Simulator} still keeps the results of all iterations in its
+ * {@code SimulationResult} (which is needed for the pinned products), and
+ * the application cannot switch this off. The store keeps the values for the
+ * statistics and the export off-heap, in the mapped file.
+ */
+class SimulationStore implements AutoCloseable {
+
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final File file;
+	private final RandomAccessFile raf;
+	private final int capacity;
+	private final int columnsPerSegment;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	private final List<EnviFlow> flows;
+	private final List<ImpactDescriptor> impacts;
+	private final Map<EnviFlow, Integer> flowColumns = new HashMap<>();
+	private final Map<ImpactDescriptor, Integer> impactColumns = new HashMap<>();
+	private final StreamingStats[] stats;
+
+	/** The next free row that is reserved by a writer. */
+	private final AtomicInteger rows = new AtomicInteger(0);
+	/** The rows that are completely written. */
+	private final BitSet written = new BitSet();
+	/** The number of rows from the start that are completely written. */
+	private volatile int size;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private boolean closed;
+
+	private SimulationStore(File file, ResultItemOrder items, int capacity)
+			throws IOException {
+		this.file = file;
+		this.capacity = Math.max(1, capacity);
+		this.flows = List.copyOf(items.enviFlows());
+		this.impacts = List.copyOf(items.impacts());
+
+		int col = 0;
+		for (var flow : flows) {
+			flowColumns.put(flow, col++);
+		}
+		for (var impact : impacts) {
+			impactColumns.put(impact, col++);
+		}
+		int columns = col;
+		stats = new StreamingStats[columns];
+		for (int i = 0; i < columns; i++) {
+			stats[i] = new StreamingStats();
+		}
+
+		long columnSize = (long) this.capacity * Double.BYTES;
+		if (columnSize > Integer.MAX_VALUE)
+			throw new IOException("too many iterations for a simulation store: "
+					+ capacity);
+		columnsPerSegment = (int) Math.max(1, SEGMENT_SIZE / columnSize);
+		raf = new RandomAccessFile(file, "rw");
+		var channel = raf.getChannel();
+		for (int start = 0; start < columns; start += columnsPerSegment) {
+			int n = Math.min(columnsPerSegment, columns - start);
+			long offset = start * columnSize;
+			segments.add(channel.map(
+					FileChannel.MapMode.READ_WRITE, offset, n * columnSize));
+		}
+	}
+
+	/**
+	 * Creates a new store for the given result items and number of
+	 * iterations in the database directory of the active database.
+	 */
+	static SimulationStore create(ResultItemOrder items, int iterations)
+			throws IOException {
+		var dir = new File(
+				DatabaseDir.getFileStorageLocation(Database.get()), "simulations");
+		if (!dir.exists() && !dir.mkdirs())
+			throw new IOException("failed to create folder " + dir);
+		var file = new File(dir, UUID.randomUUID() + ".bin");
+		return new SimulationStore(file, items, iterations);
+	}
+
+	/**
+	 * Adds the total results of the given iteration. This method can be called
+	 * concurrently from multiple worker threads.
+	 */
+	void add(LcaResult result) {
+		if (result == null)
+			return;
+		lock.readLock().lock();
+		try {
+			if (closed)
+				return;
+			int row = rows.getAndIncrement();
+			if (row >= capacity) {
+				rows.decrementAndGet();
+				return;
+			}
+			for (var flow : flows) {
+				put(flowColumns.get(flow), row, result.getTotalFlowValueOf(flow));
+			}
+			for (var impact : impacts) {
+				put(impactColumns.get(impact), row,
+						result.getTotalImpactValueOf(impact));
+			}
+			commit(row);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the given row as written. As the workers write their rows
+	 * concurrently, the size is only moved over the rows that are complete.
+	 */
+	private void commit(int row) {
+		synchronized (written) {
+			written.set(row);
+			int n = written.nextClearBit(size);
+			if (n != size) {
+				size = n;
+			}
+		}
+	}
+
+	private void put(int column, int row, double value) {
+		segments.get(column / columnsPerSegment)
+				.putDouble(positionOf(column, row), value);
+		stats[column].add(value);
+	}
+
+	private double get(int column, int row) {
+		return segments.get(column / columnsPerSegment)
+				.getDouble(positionOf(column, row));
+	}
+
+	/**
+	 * Returns the byte position of the given cell in its segment. It is
+	 * calculated in {@code long} and checked, as a segment can be larger than
+	 * the {@code int} range of the intermediate products.
+	 */
+	private int positionOf(int column, int row) {
+		long pos = ((long) (column % columnsPerSegment) * capacity + row)
+				* Double.BYTES;
+		return Math.toIntExact(pos);
+	}
+
+	/**
+	 * Returns the number of iterations that are completely written to the
+	 * store.
+	 */
+	int size() {
+		return size;
+	}
+
+	StreamingStats statsOf(EnviFlow flow) {
+		var col = flowColumns.get(flow);
+		return col != null ? stats[col] : new StreamingStats();
+	}
+
+	StreamingStats statsOf(ImpactDescriptor impact) {
+		var col = impactColumns.get(impact);
+		return col != null ? stats[col] : new StreamingStats();
+	}
+
+	/**
+	 * Calls the given consumer for each stored value of the given flow.
+	 */
+	void eachOf(EnviFlow flow, DoubleConsumer fn) {
+		each(flowColumns.get(flow), fn);
+	}
+
+	void eachOf(ImpactDescriptor impact, DoubleConsumer fn) {
+		each(impactColumns.get(impact), fn);
+	}
+
+	private void each(Integer column, DoubleConsumer fn) {
+		if (column == null)
+			return;
+		lock.readLock().lock();
+		try {
+			if (closed)
+				return;
+			int n = size();
+			for (int row = 0; row < n; row++) {
+				fn.accept(get(column, row));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the values of all result items as CSV rows to the given writer,
+	 * one row per item, without loading a complete column into memory.
+	 */
+	void writeRows(BufferedWriter w, ItemLabels labels) throws IOException {
+		lock.readLock().lock();
+		try {
+			if (closed)
+				return;
+			int n = size();
+			for (var flow : flows) {
+				w.write(labels.of(flow));
+				writeValues(w, flowColumns.get(flow), n);
+			}
+			for (var impact : impacts) {
+				w.write(labels.of(impact));
+				writeValues(w, impactColumns.get(impact), n);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void writeValues(BufferedWriter w, int column, int n)
+			throws IOException {
+		for (int row = 0; row < n; row++) {
+			w.write(',');
+			w.write(Double.toString(get(column, row)));
+		}
+		w.newLine();
+	}
+
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			if (closed)
+				return;
+			closed = true;
+			segments.clear();
+			raf.close();
+		} catch (IOException e) {
+			log.warn("failed to close simulation store " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		// a mapped file may not be deletable before the mapping is
+		// garbage collected on some platforms
+		if (file.exists() && !file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Provides the leading CSV fields of an exported result item.
+	 */
+	interface ItemLabels {
+
+		String of(EnviFlow flow);
+
+		String of(ImpactDescriptor impact);
+	}
+}
@@ -8,16 +8,13 @@ import org.eclipse.draw2d.Label;
 import org.eclipse.draw2d.LineBorder;
 import org.eclipse.draw2d.geometry.Point;
 import org.openlca.app.util.Numbers;
-import org.openlca.core.results.Statistics;
-import org.openlca.core.results.Statistics.Histogram;
 
 /**
  * Draws a chart with a frequency distribution and statistic parameters.
  */
 public class StatisticFigure extends Figure {
 
-	private Histogram hist = Statistics.hist(
-			new double[0], 100);
+	private Histogram hist = Histogram.empty();
 
 	private int marginLeft = 35;
 	private int marginBottom = 35;
@@ -57,8 +54,10 @@ public class StatisticFigure extends Figure {
 		return valueLabel;
 	}
 
-	void setData(double[] values) {
-		hist = Statistics.hist(values, 100);
+	void setData(Histogram hist) {
+		this.hist = hist != null
+				? hist
+				: Histogram.empty();
 		repaint();
 	}
 
@@ -77,7 +76,7 @@ public class StatisticFigure extends Figure {
 	private void paintBoxes(Graphics graphics, Point boxSize) {
 		graphics.setBackgroundColor(ColorConstants.lightGray);
 		int height = getSize().height - marginBottom;
-		for (int interval = 0; interval < 100; interval++) {
+		for (int interval = 0; interval < Histogram.INTERVALS; interval++) {
 			int frequency = hist.getAbsoluteFrequency(interval);
 			for (int block = 1; block <= frequency; block++) {
 				int x = marginLeft + interval * boxSize.x;
@@ -96,12 +95,12 @@ public class StatisticFigure extends Figure {
 	}
 
 	private void paintParameterLabels() {
-		numberLabel.setText(Integer.toString(hist.statistics.count));
-		setLabelValue(perc5Label, hist.statistics.getPercentileValue(5));
-		setLabelValue(perc95Label, hist.statistics.getPercentileValue(95));
-		setLabelValue(medianLabel, hist.statistics.median);
-		setLabelValue(meanLabel, hist.statistics.mean);
-		setLabelValue(standardDevLabel, hist.statistics.standardDeviation);
+		numberLabel.setText(Long.toString(hist.stats.count()));
+		setLabelValue(perc5Label, hist.stats.percentile5());
+		setLabelValue(perc95Label, hist.stats.percentile95());
+		setLabelValue(medianLabel, hist.stats.median());
+		setLabelValue(meanLabel, hist.stats.mean());
+		setLabelValue(standardDevLabel, hist.stats.standardDeviation());
 	}
 
 	private void paintChartFrame(Graphics graphics) {
@@ -109,9 +108,9 @@ public class StatisticFigure extends Figure {
 				getSize().width - marginRight, getSize().height - marginBottom);
 		graphics.drawLine(marginLeft, marginTop, marginLeft, getSize().height
 				- marginBottom);
-		graphics.drawText(Numbers.format(hist.statistics.min, 3),
+		graphics.drawText(Numbers.format(hist.stats.min(), 3),
 				marginLeft, getSize().height - marginBottom + 10);
-		graphics.drawText(Numbers.format(hist.statistics.max, 3),
+		graphics.drawText(Numbers.format(hist.stats.max(), 3),
 				getSize().width - marginRight - 40, getSize().height
 						- marginBottom + 10);
 		graphics.drawText(
@@ -129,7 +128,7 @@ public class StatisticFigure extends Figure {
 			size.y = 0;
 			return size;
 		}
-		int intervalCount = 100;
+		int intervalCount = Histogram.INTERVALS;
 		int maxFreq = hist.getMaxAbsoluteFrequency();
 		if (maxFreq > height) {
 			double factor = (double) maxFreq / (double) height;
@@ -147,10 +146,10 @@ public class StatisticFigure extends Figure {
 
 	private void paintLines(Graphics g, Point box) {
 		g.setForegroundColor(ColorConstants.red);
-		drawLine(g, hist.statistics.getPercentileValue(5), box);
-		drawLine(g, hist.statistics.median, box);
-		drawLine(g, hist.statistics.getPercentileValue(95), box);
-		drawLine(g, hist.statistics.mean, box);
+		drawLine(g, hist.stats.percentile5(), box);
+		drawLine(g, hist.stats.median(), box);
+		drawLine(g, hist.stats.percentile95(), box);
+		drawLine(g, hist.stats.mean(), box);
 		g.setForegroundColor(ColorConstants.black);
 	}
 
@@ -17,6 +17,10 @@ public class StatisticsCanvas extends FigureCanvas {
 	}
 
 	public void setValues(double[] values) {
-		plot.setData(values);
+		plot.setData(Histogram.of(values));
+	}
+
+	void setData(Histogram hist) {
+		plot.setData(hist);
 	}
 }
@@ -0,0 +1,186 @@
+package org.openlca.app.results.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of a stream of simulation values that are updated value by value
+ * without keeping the values in memory. Mean and variance are calculated with
+ * Welford's algorithm; the percentiles are estimated with the P-square algorithm of
+ * Jain and Chlamtac (1985).
+ */
+final class StreamingStats implements Histogram.Stats {
+
+	private long count;
+	private double mean;
+	private double m2;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	private final P2 p5 = new P2(0.05);
+	private final P2 p50 = new P2(0.5);
+	private final P2 p95 = new P2(0.95);
+
+	synchronized void add(double x) {
+		count++;
+		double delta = x - mean;
+		mean += delta / count;
+		m2 += delta * (x - mean);
+		if (x < min) {
+			min = x;
+		}
+		if (x > max) {
+			max = x;
+		}
+		p5.add(x);
+		p50.add(x);
+		p95.add(x);
+	}
+
+	@Override
+	public synchronized long count() {
+		return count;
+	}
+
+	@Override
+	public synchronized double mean() {
+		return mean;
+	}
+
+	@Override
+	public synchronized double standardDeviation() {
+		return count > 1
+				? Math.sqrt(m2 / (count - 1))
+				: 0;
+	}
+
+	@Override
+	public synchronized double min() {
+		return count > 0 ? min : 0;
+	}
+
+	@Override
+	public synchronized double max() {
+		return count > 0 ? max : 0;
+	}
+
+	@Override
+	public synchronized double percentile5() {
+		return p5.value();
+	}
+
+	@Override
+	public synchronized double median() {
+		return p50.value();
+	}
+
+	@Override
+	public synchronized double percentile95() {
+		return p95.value();
+	}
+
+	/**
+	 * The P-square estimator of a single quantile. It keeps five markers whose
+	 * heights approximate the minimum, the p/2-, p-, (1+p)/2-quantiles, and
+	 * the maximum of the observed values.
+	 */
+	private static final class P2 {
+
+		private final double p;
+		private final double[] q = new double[5];
+		private final double[] n = new double[5];
+		private final double[] np = new double[5];
+		private final double[] dn = new double[5];
+		private int count;
+
+		P2(double p) {
+			this.p = p;
+			dn[0] = 0;
+			dn[1] = p / 2;
+			dn[2] = p;
+			dn[3] = (1 + p) / 2;
+			dn[4] = 1;
+		}
+
+		void add(double x) {
+			if (count < 5) {
+				q[count] = x;
+				count++;
+				if (count == 5) {
+					Arrays.sort(q);
+					for (int i = 0; i < 5; i++) {
+						n[i] = i;
+					}
+					np[0] = 0;
+					np[1] = 2 * p;
+					np[2] = 4 * p;
+					np[3] = 2 + 2 * p;
+					np[4] = 4;
+				}
+				return;
+			}
+
+			// find the cell k of x and update the extreme markers
+			int k;
+			if (x < q[0]) {
+				q[0] = x;
+				k = 0;
+			} else if (x < q[1]) {
+				k = 0;
+			} else if (x < q[2]) {
+				k = 1;
+			} else if (x < q[3]) {
+				k = 2;
+			} else if (x <= q[4]) {
+				k = 3;
+			} else {
+				q[4] = x;
+				k = 3;
+			}
+			for (int i = k + 1; i < 5; i++) {
+				n[i]++;
+			}
+			for (int i = 0; i < 5; i++) {
+				np[i] += dn[i];
+			}
+			count++;
+
+			// adjust the heights of the middle markers
+			for (int i = 1; i < 4; i++) {
+				double d = np[i] - n[i];
+				if ((d >= 1 && n[i + 1] - n[i] > 1)
+						|| (d <= -1 && n[i - 1] - n[i] < -1)) {
+					int s = d >= 0 ? 1 : -1;
+					double qi = parabolic(i, s);
+					if (q[i - 1] < qi && qi < q[i + 1]) {
+						q[i] = qi;
+					} else {
+						q[i] = linear(i, s);
+					}
+					n[i] += s;
+				}
+			}
+		}
+
+		private double parabolic(int i, int s) {
+			return q[i] + s / (n[i + 1] - n[i - 1])
+					* ((n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+					+ (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+		}
+
+		private double linear(int i, int s) {
+			return q[i] + s * (q[i + s] - q[i]) / (n[i + s] - n[i]);
+		}
+
+		double value() {
+			if (count == 0)
+				return 0;
+			if (count >= 5)
+				return q[2];
+			// for less than 5 values we take the exact quantile
+			var sorted = Arrays.copyOf(q, count);
+			Arrays.sort(sorted);
+			int idx = (int) Math.round(p * (count - 1));
+			return sorted[idx];
+		}
+	}
+}
@@ -1,10 +1,6 @@
 package org.openlca.app.search;
 
-import org.openlca.app.navigation.ModelTypeOrder;
-import org.openlca.app.util.Labels;
-import org.openlca.core.database.Daos;
-import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.ParameterDao;
+import org.openlca.app.db.Cache;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.util.Strings;
@@ -19,7 +15,6 @@ import java.util.stream.Collectors;
 class Search implements Runnable {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
-	private final IDatabase db;
 
 	private ModelType typeFilter;
 	private final String rawTerm;
@@ -27,8 +22,7 @@ class Search implements Runnable {
 	private final List<String> tags = new ArrayList<>();
 	private final List<Descriptor> result = new ArrayList<>();
 
-	Search(IDatabase db, String term) {
-		this.db = db;
+	Search(String term) {
 		this.rawTerm = term == null ? "" : term.toLowerCase().strip();
 		var parts = rawTerm.split("\\s+");
 		for (var part : parts) {
@@ -60,61 +54,61 @@ class Search implements Runnable {
 			return;
 
 		log.trace("run search with term {}", rawTerm);
-		var types = typeFilter == null
-				? ModelTypeOrder.getOrderedTypes()
-				: new ModelType[]{typeFilter};
+		var index = Cache.getSearchIndex();
 		var matches = new ArrayList<Match>();
-		for (var type : types) {
-			var all = type == ModelType.PARAMETER
-					? new ParameterDao(db).getGlobalDescriptors()
-					: Daos.root(db, type).getDescriptors();
-			for (var d : all) {
-				var match = Match.of(d, this);
-				if (!match.isEmpty()) {
-					matches.add(match);
-				}
+		for (var doc : index.find(words, tags, typeFilter)) {
+			var match = Match.of(doc, this);
+			if (!match.isEmpty()) {
+				matches.add(match);
 			}
 		}
 
-		matches.stream()
-				.sorted((m1, m2) -> {
-					int c = Double.compare(m2.factor, m1.factor);
-					return c == 0
-							? Strings.compare(
-							Labels.name(m1.descriptor),
-							Labels.name(m2.descriptor))
-							: c;
-				})
-				.map(Match::descriptor)
-				.forEach(result::add);
+		matches.sort((m1, m2) -> {
+			int c = Double.compare(m2.factor, m1.factor);
+			return c == 0
+					? Strings.compare(m1.doc.name(), m2.doc.name())
+					: c;
+		});
+
+		// only the matching models are loaded from the database
+		var docs = matches.stream()
+				.map(Match::doc)
+				.toList();
+		var descriptors = index.descriptorsOf(docs);
+		for (var doc : docs) {
+			var d = descriptors.get(doc.key());
+			if (d != null) {
+				result.add(d);
+			}
+		}
 
 		log.trace("{} results found", result.size());
 	}
 
-	private record Match(Descriptor descriptor, double factor) {
+	private record Match(SearchIndex.Doc doc, double factor) {
 
 		private static final Match _empty = new Match(null, 0);
 
 		boolean isEmpty() {
-			return descriptor == null;
+			return doc == null;
 		}
 
-		static Match of(Descriptor d, Search s) {
-			if (d == null)
+		static Match of(SearchIndex.Doc doc, Search s) {
+			if (doc == null)
 				return _empty;
 
 			// matching ref-ids
 			if (s.words.size() == 1
-					&& d.refId != null
-					&& d.refId.equalsIgnoreCase(s.words.get(0)))
-				return new Match(d, 1e7);
+					&& doc.refId() != null
+					&& doc.refId().equalsIgnoreCase(s.words.get(0)))
+				return new Match(doc, 1e7);
 
 			// filter by tags
 			if (!s.tags.isEmpty()) {
-				if (Strings.nullOrEmpty(d.tags))
+				if (Strings.nullOrEmpty(doc.tags()))
 					return _empty;
 
-				var tags = Arrays.stream(d.tags.split(","))
+				var tags = Arrays.stream(doc.tags().split(","))
 						.map(tag -> tag.strip().toLowerCase())
 						.filter(Strings::notEmpty)
 						.collect(Collectors.toSet());
@@ -126,14 +120,15 @@ class Search implements Runnable {
 
 			double factor = 0;
 			for (var word : s.words) {
-				var nameMatch = wordMatch(Labels.name(d), word);
-				var tagMatch = wordMatch(d.tags, word);
-				if (nameMatch == 0 && tagMatch == 0)
+				var nameMatch = wordMatch(doc.name(), word);
+				var tagMatch = wordMatch(doc.tags(), word);
+				var categoryMatch = 0.1 * wordMatch(doc.category(), word);
+				if (nameMatch == 0 && tagMatch == 0 && categoryMatch == 0)
 					return _empty;
-				factor += nameMatch + tagMatch ;
+				factor += nameMatch + tagMatch + categoryMatch;
 			}
 
-			return new Match(d, factor);
+			return new Match(doc, factor);
 		}
 
 		private static double wordMatch(String phrase, String word) {
@@ -0,0 +1,698 @@
+package org.openlca.app.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.navigation.ModelTypeOrder;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.database.ParameterDao;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Parameter;
+import org.openlca.core.model.ParameterScope;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.core.model.descriptors.ParameterDescriptor;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.util.Categories;
+import org.openlca.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.Table;
+
+/**
+ * An inverted index of the names, tags, category paths, and reference IDs of
+ * the root entities in a database. The index is stored in the file storage
+ * location of the database (see {@link DatabaseDir}) and is loaded on first
+ * use. When it is loaded, it is kept up-to-date via the hooks in
+ * {@link org.openlca.app.db.Cache}: single models are re-indexed on
+ * {@code evict} and {@code registerNew}, a change of a category re-indexes
+ * its sub-tree, and a call of {@code evictAll} marks the index as stale.
+ * <p>
+ * Each document stores the version and last-change stamp of its model. The
+ * stored index is tagged with a fingerprint of the database (the number of
+ * rows and the maximum version and last-change of each model table). When
+ * this fingerprint does not match when the index is loaded, or when the index
+ * was marked as stale, it is synchronized with the database: the stamps of
+ * the models are read with one query per model table and only the changed,
+ * added, or deleted models are re-indexed. Changes before the index is loaded
+ * are thus not applied one by one but are picked up by this synchronization.
+ * The index is only built from scratch when there is no readable index file.
+ * <p>
+ * Tokens are lower-cased sequences of letters and digits. A search word
+ * matches a document when each of its tokens is contained in one of the
+ * document tokens. For this, the suffixes of all tokens are kept in a sorted
+ * map, so that the tokens that contain a search token are found with a
+ * prefix query on that map.
+ */
+public final class SearchIndex {
+
+	private static final String FILE = "search_index.bin";
+	private static final int MAGIC = 0x01ca5e1;
+	private static final int VERSION = 3;
+	private static final int QUERY_SIZE = 500;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+	private final File file;
+
+	private final Map<Key, Doc> docs = new HashMap<>();
+	private final Map<String, Set<Key>> postings = new HashMap<>();
+	private final Map<String, Key> refIds = new HashMap<>();
+
+	/** Maps the suffixes of the indexed tokens to these tokens. */
+	private final TreeMap<String, Set<String>> suffixes = new TreeMap<>();
+
+	private boolean loaded;
+	private boolean dirty;
+	private boolean stale;
+	private Categories.PathBuilder categories;
+
+	private SearchIndex(IDatabase db) {
+		this.db = db;
+		this.file = new File(DatabaseDir.getFileStorageLocation(db), FILE);
+	}
+
+	public static SearchIndex of(IDatabase db) {
+		return new SearchIndex(db);
+	}
+
+	/**
+	 * Returns the keys of all documents that match each of the given words and
+	 * tags. A single word that is equal to a reference ID of a model returns
+	 * just this model.
+	 */
+	synchronized List<Doc> find(
+			List<String> words, List<String> tags, ModelType typeFilter) {
+		ensureLoaded();
+		if (stale) {
+			sync();
+		}
+		if (words.size() == 1 && tags.isEmpty()) {
+			var key = refIds.get(words.get(0));
+			if (key != null) {
+				var doc = docs.get(key);
+				if (typeFilter == null || typeFilter == key.type)
+					return List.of(doc);
+			}
+		}
+
+		Set<Key> candidates = null;
+		var terms = new ArrayList<String>(words);
+		terms.addAll(tags);
+		for (var term : terms) {
+			var termTokens = tokenize(term);
+			if (termTokens.isEmpty())
+				continue;
+			Set<Key> keys = null;
+			for (var token : termTokens) {
+				var matches = matchesOf(token);
+				if (matches.isEmpty())
+					return List.of();
+				if (keys == null) {
+					keys = matches;
+				} else {
+					keys.retainAll(matches);
+					if (keys.isEmpty())
+						return List.of();
+				}
+			}
+			if (candidates == null) {
+				candidates = keys;
+			} else {
+				candidates.retainAll(keys);
+			}
+			if (candidates.isEmpty())
+				return List.of();
+		}
+
+		if (candidates == null)
+			return List.of();
+		var result = new ArrayList<Doc>(candidates.size());
+		for (var key : candidates) {
+			if (typeFilter != null && typeFilter != key.type)
+				continue;
+			var doc = docs.get(key);
+			if (doc != null) {
+				result.add(doc);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the IDs of the models of the given types which names contain
+	 * the given term (ignoring the case), grouped by type. Only the names of
+	 * the documents that match the tokens of the term are compared.
+	 */
+	public synchronized Map<ModelType, Set<Long>> findByName(
+			String term, Set<ModelType> types) {
+		var result = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var type : types) {
+			result.put(type, new HashSet<>());
+		}
+		if (Strings.nullOrEmpty(term) || types.isEmpty())
+			return result;
+		ensureLoaded();
+		if (stale) {
+			sync();
+		}
+
+		Set<Key> candidates = null;
+		for (var token : tokenize(term)) {
+			var matches = matchesOf(token);
+			if (candidates == null) {
+				candidates = matches;
+			} else {
+				candidates.retainAll(matches);
+			}
+			if (candidates.isEmpty())
+				return result;
+		}
+		if (candidates == null) {
+			// the term has no letters or digits
+			candidates = docs.keySet();
+		}
+
+		var lower = term.toLowerCase();
+		for (var key : candidates) {
+			var ids = result.get(key.type);
+			if (ids == null)
+				continue;
+			var doc = docs.get(key);
+			if (doc != null && doc.name != null
+					&& doc.name.toLowerCase().contains(lower)) {
+				ids.add(key.id);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the IDs of the categories of the given models, with one query
+	 * per chunk of IDs. This does not use the index.
+	 */
+	public Set<Long> categoriesOf(ModelType type, Collection<Long> ids) {
+		var categories = new HashSet<Long>();
+		var table = tableOf(type);
+		if (table == null || ids.isEmpty())
+			return categories;
+		var list = new ArrayList<>(ids);
+		for (int i = 0; i < list.size(); i += QUERY_SIZE) {
+			var chunk = list.subList(i, Math.min(i + QUERY_SIZE, list.size()));
+			var sql = "select distinct f_category from " + table + " where id in ("
+					+ Strings.join(chunk.stream().map(String::valueOf).toList(), ',')
+					+ ")";
+			NativeSql.on(db).query(sql, r -> {
+				long category = r.getLong(1);
+				if (!r.wasNull()) {
+					categories.add(category);
+				}
+				return true;
+			});
+		}
+		return categories;
+	}
+
+	/**
+	 * Returns the keys of the documents with a token that contains the given
+	 * token.
+	 */
+	private Set<Key> matchesOf(String token) {
+		var matches = new HashSet<Key>();
+		var hits = suffixes.subMap(token, true, token + Character.MAX_VALUE, true);
+		for (var tokens : hits.values()) {
+			for (var t : tokens) {
+				var keys = postings.get(t);
+				if (keys != null) {
+					matches.addAll(keys);
+				}
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Loads the descriptors of the given documents from the database, grouped
+	 * by model type. The returned map contains the descriptors by their keys.
+	 */
+	Map<Key, Descriptor> descriptorsOf(Collection<Doc> docs) {
+		var ids = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var doc : docs) {
+			ids.computeIfAbsent(doc.key.type, t -> new HashSet<>())
+					.add(doc.key.id);
+		}
+		var map = new HashMap<Key, Descriptor>();
+		for (var e : ids.entrySet()) {
+			var dao = Daos.root(db, e.getKey());
+			if (dao == null)
+				continue;
+			for (var d : dao.getDescriptors(e.getValue())) {
+				map.put(new Key(d.type, d.id), d);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Updates the index entry of the given model. The model is reloaded from
+	 * the database; if it does not exist anymore, it is removed from the
+	 * index. For a category, the models of the category and its
+	 * sub-categories are re-indexed, as their category paths could have
+	 * changed.
+	 */
+	public synchronized void update(Descriptor d) {
+		// when the index is not loaded, the change is picked up by the
+		// synchronization on load; the same is true for a stale index
+		if (d == null || !loaded || stale)
+			return;
+		if (d.type == null) {
+			markStale();
+			return;
+		}
+		if (d.type == ModelType.CATEGORY) {
+			updateCategory(d.id);
+			return;
+		}
+		remove(new Key(d.type, d.id));
+		var clazz = d.type.getModelClass();
+		if (clazz == null)
+			return;
+		var current = db.getDescriptor(clazz, d.id);
+		if (current instanceof RootDescriptor rd && isIndexed(rd)) {
+			add(rd);
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Re-indexes the given category and the categories and models in its
+	 * tree. When the category was deleted, its models were deleted or moved
+	 * before, and these changes are passed to the index separately.
+	 */
+	private void updateCategory(long id) {
+		// the category paths are built again on the next call of add
+		categories = null;
+		remove(new Key(ModelType.CATEGORY, id));
+		var category = db.get(Category.class, id);
+		if (category == null)
+			return;
+		var categoryIds = new ArrayList<Long>();
+		var queue = new ArrayList<Category>();
+		queue.add(category);
+		while (!queue.isEmpty()) {
+			var next = queue.remove(queue.size() - 1);
+			categoryIds.add(next.id);
+			remove(new Key(ModelType.CATEGORY, next.id));
+			add(Descriptor.of(next));
+			queue.addAll(next.childCategories);
+		}
+		dirty = true;
+		var table = tableOf(category.modelType);
+		if (table == null)
+			return;
+		var ids = new HashSet<Long>();
+		for (int i = 0; i < categoryIds.size(); i += QUERY_SIZE) {
+			var chunk = categoryIds.subList(
+					i, Math.min(i + QUERY_SIZE, categoryIds.size()));
+			var sql = "select id from " + table + " where f_category in ("
+					+ Strings.join(chunk.stream().map(String::valueOf).toList(), ',')
+					+ ")";
+			NativeSql.on(db).query(sql, r -> {
+				ids.add(r.getLong(1));
+				return true;
+			});
+		}
+		for (var d : descriptorsOf(category.modelType, ids)) {
+			remove(new Key(d.type, d.id));
+			if (isIndexed(d)) {
+				add(d);
+			}
+		}
+	}
+
+	/**
+	 * Marks the index as stale, e.g. after an import or other bulk operations
+	 * that do not pass their changes to the index. A stale index is
+	 * synchronized with the database on the next search; the stored index is
+	 * kept, so that only the changed models are re-indexed then.
+	 */
+	public synchronized void markStale() {
+		if (loaded) {
+			stale = true;
+		}
+	}
+
+	/**
+	 * Re-indexes the models that were added, changed, or deleted since they
+	 * were indexed. For this, the version and last-change stamps of the
+	 * models are read from the database and compared with the stamps of the
+	 * documents.
+	 */
+	private void sync() {
+		stale = false;
+		categories = null;
+		var indexed = new EnumMap<ModelType, Map<Long, Long>>(ModelType.class);
+		for (var doc : docs.values()) {
+			indexed.computeIfAbsent(doc.key.type, t -> new HashMap<>())
+					.put(doc.key.id, doc.stamp);
+		}
+		int count = 0;
+		var changedCategories = new ArrayList<Long>();
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			var table = tableOf(type);
+			if (table == null)
+				continue;
+			var before = indexed.getOrDefault(type, Map.of());
+			var current = new HashSet<Long>();
+			var changed = new HashSet<Long>();
+			var sql = "select id, version, last_change from " + table
+					+ (type == ModelType.PARAMETER ? " where scope = 'GLOBAL'" : "");
+			NativeSql.on(db).query(sql, r -> {
+				long id = r.getLong(1);
+				current.add(id);
+				var stamp = before.get(id);
+				if (stamp == null || stamp != stampOf(r.getLong(2), r.getLong(3))) {
+					changed.add(id);
+				}
+				return true;
+			});
+			for (var id : before.keySet()) {
+				if (!current.contains(id)) {
+					remove(new Key(type, id));
+					count++;
+				}
+			}
+			if (changed.isEmpty())
+				continue;
+			if (type == ModelType.CATEGORY) {
+				changedCategories.addAll(changed);
+			}
+			for (var d : descriptorsOf(type, changed)) {
+				remove(new Key(d.type, d.id));
+				add(d);
+			}
+			count += changed.size();
+		}
+
+		// the paths of the models in changed categories could have changed
+		for (var id : changedCategories) {
+			updateCategory(id);
+		}
+		if (count > 0) {
+			dirty = true;
+			log.info("synchronized search index of {}: {} changes",
+					db.getName(), count);
+		}
+	}
+
+	private List<RootDescriptor> descriptorsOf(ModelType type, Set<Long> ids) {
+		var list = new ArrayList<RootDescriptor>();
+		if (ids.isEmpty())
+			return list;
+		var dao = Daos.root(db, type);
+		if (dao == null)
+			return list;
+		var all = new ArrayList<>(ids);
+		for (int i = 0; i < all.size(); i += QUERY_SIZE) {
+			var chunk = new HashSet<>(all.subList(i, Math.min(i + QUERY_SIZE, all.size())));
+			for (var d : dao.getDescriptors(chunk)) {
+				if (d instanceof RootDescriptor rd) {
+					list.add(rd);
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Writes the index to its file if it was modified since it was loaded.
+	 */
+	public synchronized void save() {
+		if (!loaded || !dirty)
+			return;
+		var dir = file.getParentFile();
+		if (!dir.exists() && !dir.mkdirs()) {
+			log.error("failed to create folder {}", dir);
+			return;
+		}
+		try (var out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			// a stale index is synchronized when it is loaded again
+			out.writeUTF(stale ? "" : fingerprint());
+			out.writeInt(docs.size());
+			for (var doc : docs.values()) {
+				out.writeUTF(doc.key.type.name());
+				out.writeLong(doc.key.id);
+				out.writeLong(doc.stamp);
+				writeString(out, doc.name);
+				writeString(out, doc.refId);
+				writeString(out, doc.tags);
+				writeString(out, doc.category);
+			}
+			dirty = false;
+			log.trace("saved search index with {} entries", docs.size());
+		} catch (IOException e) {
+			log.error("failed to write search index " + file, e);
+		}
+	}
+
+	private void ensureLoaded() {
+		if (loaded)
+			return;
+		loaded = true;
+		if (file.exists() && read())
+			return;
+		rebuild();
+	}
+
+	private boolean read() {
+		clear();
+		try (var in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return false;
+			var fingerprint = in.readUTF();
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				var type = ModelType.valueOf(in.readUTF());
+				long id = in.readLong();
+				long stamp = in.readLong();
+				var doc = new Doc(new Key(type, id), stamp,
+						readString(in), readString(in),
+						readString(in), readString(in));
+				put(doc);
+			}
+			log.trace("loaded search index with {} entries", docs.size());
+			if (!fingerprint.equals(fingerprint())) {
+				log.info("search index of {} is outdated; synchronize it",
+						db.getName());
+				sync();
+			}
+			return true;
+		} catch (Exception e) {
+			log.warn("failed to read search index " + file
+					+ "; rebuild it", e);
+			clear();
+			return false;
+		}
+	}
+
+	private void rebuild() {
+		log.info("build search index for database {}", db.getName());
+		clear();
+		categories = Categories.pathsOf(db);
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			List<? extends RootDescriptor> all = type == ModelType.PARAMETER
+					? new ParameterDao(db).getGlobalDescriptors()
+					: Daos.root(db, type).getDescriptors();
+			for (var d : all) {
+				add(d);
+			}
+		}
+		categories = null;
+		dirty = true;
+		save();
+	}
+
+	/**
+	 * Calculates the fingerprint of the database: the number of rows and the
+	 * maximum version and last-change of each model table. It changes when
+	 * models are added, deleted, or updated.
+	 */
+	private static long stampOf(long version, long lastChange) {
+		return 31 * version + lastChange;
+	}
+
+	private String fingerprint() {
+		var b = new StringBuilder();
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			var table = tableOf(type);
+			if (table == null)
+				continue;
+			var sql = "select count(*), max(version), max(last_change) from " + table;
+			NativeSql.on(db).query(sql, r -> {
+				b.append(r.getLong(1)).append(':')
+						.append(r.getLong(2)).append(':')
+						.append(r.getLong(3)).append(';');
+				return false;
+			});
+		}
+		return b.toString();
+	}
+
+	private static String tableOf(ModelType type) {
+		if (type == null || type.getModelClass() == null)
+			return null;
+		var table = type.getModelClass().getAnnotation(Table.class);
+		return table != null ? table.name() : null;
+	}
+
+	private boolean isIndexed(RootDescriptor d) {
+		if (d instanceof ParameterDescriptor) {
+			var param = db.get(Parameter.class, d.id);
+			return param != null && param.scope == ParameterScope.GLOBAL;
+		}
+		return true;
+	}
+
+	private void add(RootDescriptor d) {
+		if (d == null || d.type == null)
+			return;
+		if (categories == null) {
+			categories = Categories.pathsOf(db);
+		}
+		var category = d.category != null
+				? categories.pathOf(d.category)
+				: null;
+		put(new Doc(new Key(d.type, d.id), stampOf(d.version, d.lastChange),
+				d.name, d.refId, d.tags, category));
+	}
+
+	private void put(Doc doc) {
+		docs.put(doc.key, doc);
+		if (doc.refId != null) {
+			refIds.put(doc.refId.toLowerCase(), doc.key);
+		}
+		for (var token : doc.tokens()) {
+			var keys = postings.get(token);
+			if (keys == null) {
+				keys = new HashSet<>(2);
+				postings.put(token, keys);
+				for (int i = 0; i < token.length(); i++) {
+					suffixes.computeIfAbsent(token.substring(i), s -> new HashSet<>(2))
+							.add(token);
+				}
+			}
+			keys.add(doc.key);
+		}
+	}
+
+	private void remove(Key key) {
+		var doc = docs.remove(key);
+		if (doc == null)
+			return;
+		if (doc.refId != null) {
+			refIds.remove(doc.refId.toLowerCase());
+		}
+		for (var token : doc.tokens()) {
+			var keys = postings.get(token);
+			if (keys == null)
+				continue;
+			keys.remove(key);
+			if (!keys.isEmpty())
+				continue;
+			postings.remove(token);
+			for (int i = 0; i < token.length(); i++) {
+				var suffix = token.substring(i);
+				var tokens = suffixes.get(suffix);
+				if (tokens == null)
+					continue;
+				tokens.remove(token);
+				if (tokens.isEmpty()) {
+					suffixes.remove(suffix);
+				}
+			}
+		}
+	}
+
+	private void clear() {
+		docs.clear();
+		postings.clear();
+		suffixes.clear();
+		refIds.clear();
+	}
+
+	static Set<String> tokenize(String text) {
+		if (Strings.nullOrEmpty(text))
+			return Set.of();
+		var tokens = new LinkedHashSet<String>();
+		for (var part : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+			if (!part.isEmpty()) {
+				tokens.add(part);
+			}
+		}
+		return tokens;
+	}
+
+	private static void writeString(DataOutputStream out, String s)
+			throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		var bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		var bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	record Key(ModelType type, long id) {
+	}
+
+	/**
+	 * The indexed text fields of a model; the stamp is calculated from the
+	 * version and last-change time of the model.
+	 */
+	record Doc(Key key, long stamp, String name, String refId, String tags,
+			String category) {
+
+		Set<String> tokens() {
+			var tokens = new HashSet<String>();
+			tokens.addAll(tokenize(name));
+			tokens.addAll(tokenize(tags));
+			tokens.addAll(tokenize(category));
+			return tokens;
+		}
+	}
+}
@@ -82,7 +82,7 @@ public class SearchText extends WorkbenchWindowControlContribution {
 			ParameterUsagePage.show(term);
 			return;
 		}
-		var search = new Search(Database.get(), text.getText())
+		var search = new Search(text.getText())
 				.withTypeFilter(typeFilter);
 		App.run(M.Searching, search,
 				() -> SearchPage.show(term, search.getResult()));
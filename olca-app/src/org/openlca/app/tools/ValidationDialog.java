@@ -1,5 +1,9 @@
 package org.openlca.app.tools;
 
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.Map;
+
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
@@ -7,20 +11,37 @@ import org.eclipse.swt.widgets.*;
 import org.eclipse.ui.forms.FormDialog;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
 import org.openlca.app.util.*;
 import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.ModelType;
 import org.openlca.validation.Validation;
 
+/**
+ * Runs the validation of a database. The result of the last validation is
+ * stored together with the fingerprints of the models (see
+ * {@link ValidationState}). When no model was changed since then, the stored
+ * result can be reused without validating again. Otherwise, the whole
+ * database is validated again: the validation of the core library checks
+ * complete tables and cannot be limited to the changed models and their
+ * dependents. The stored result can also be shown directly, with the
+ * messages of changed models and of models that use them marked as stale.
+ */
 public class ValidationDialog extends FormDialog {
 
+	private static final int SHOW_LAST_ID = IDialogConstants.CLIENT_ID + 1;
+
 	private final IDatabase db;
+	private final ValidationState lastState;
 	private int maxItems = 1000;
 
 	private Validation validation;
+	private boolean canceled;
 	private Combo combo;
 	private Spinner spinner;
+	private Button reuseCheck;
 	private Label infoLabel;
 	private ProgressBar progressBar;
 
@@ -37,6 +58,7 @@ public class ValidationDialog extends FormDialog {
 	private ValidationDialog(IDatabase db) {
 		super(UI.shell());
 		this.db = db;
+		this.lastState = ValidationState.read(db);
 	}
 
 	@Override
@@ -47,7 +69,7 @@ public class ValidationDialog extends FormDialog {
 
 	@Override
 	protected Point getInitialSize() {
-		return UI.initialSizeOf(this, 450, 250);
+		return UI.initialSizeOf(this, 450, 300);
 	}
 
 	@Override
@@ -62,6 +84,19 @@ public class ValidationDialog extends FormDialog {
 		// max. items
 		createCountCombo(body, tk);
 
+		// reuse the last result
+		UI.filler(body, tk);
+		reuseCheck = UI.checkbox(body, tk,
+				"Reuse the last result when no data set was changed");
+		reuseCheck.setSelection(lastState != null);
+		reuseCheck.setEnabled(lastState != null);
+		if (lastState != null) {
+			UI.filler(body, tk);
+			var time = DateFormat.getDateTimeInstance()
+					.format(new Date(lastState.time));
+			UI.label(body, tk, "Last validation: " + time);
+		}
+
 		// progress bar and message
 		createProgressBar(body, tk);
 	}
@@ -104,8 +139,47 @@ public class ValidationDialog extends FormDialog {
 		UI.fillHorizontal(combo);
 	}
 
+	@Override
+	protected void createButtonsForButtonBar(Composite parent) {
+		var showLast = createButton(
+				parent, SHOW_LAST_ID, "Show last result", false);
+		showLast.setEnabled(lastState != null);
+		super.createButtonsForButtonBar(parent);
+	}
+
+	@Override
+	protected void buttonPressed(int buttonId) {
+		if (buttonId != SHOW_LAST_ID) {
+			super.buttonPressed(buttonId);
+			return;
+		}
+		if (lastState == null)
+			return;
+		var entries = App.exec("Check changed data sets",
+				() -> lastState.entries(db, lastState.changesOf(
+						ValidationState.scan(db))));
+		ValidationResultView.open(entries);
+		super.okPressed();
+	}
+
 	@Override
 	protected void okPressed() {
+		int level = combo.getSelectionIndex();
+		var fingerprints = App.exec("Check changed data sets",
+				() -> ValidationState.scan(db));
+		if (reuseCheck.getSelection()
+				&& lastState != null
+				&& lastState.matches(level, maxItems)
+				&& lastState.changesOf(fingerprints).isEmpty()) {
+			ValidationResultView.open(lastState.entries(db, Map.of()));
+			super.okPressed();
+			return;
+		}
+		runValidation(level, fingerprints);
+	}
+
+	private void runValidation(
+			int level, Map<ModelType, Map<Long, Long>> fingerprints) {
 		var okButton = getButton(IDialogConstants.OK_ID);
 		if (okButton != null) {
 			okButton.setEnabled(false);
@@ -114,39 +188,48 @@ public class ValidationDialog extends FormDialog {
 		// set UI in `run`-mode
 		combo.setEnabled(false);
 		spinner.setEnabled(false);
+		reuseCheck.setEnabled(false);
+		var showLast = getButton(SHOW_LAST_ID);
+		if (showLast != null) {
+			showLast.setEnabled(false);
+		}
 		infoLabel.setVisible(true);
 		progressBar.setVisible(true);
 		progressBar.setSelection(0);
 		var display = progressBar.getDisplay();
 
 		// start the validation thread
-		int level = combo.getSelectionIndex();
 		validation = Validation.on(db)
 			.maxItems(maxItems)
 			.skipInfos(level > 0)
 			.skipWarnings(level > 1);
 		new Thread(validation).start();
 
-		// UI thread for updating the dialog
-		new Thread(() -> {
-			while (true) {
-				try {
-					Thread.sleep(100);
-					if (validation.hasFinished()) {
-						ValidationResultView.open(validation.items());
-						display.asyncExec(super::okPressed);
-						break;
+		// poll the state of the validation in the UI thread
+		var update = new Runnable() {
+			@Override
+			public void run() {
+				if (progressBar.isDisposed())
+					return;
+				if (!validation.hasFinished()) {
+					progressBar.setMaximum(validation.workerCount() + 1);
+					progressBar.setSelection(1 + validation.finishedWorkerCount());
+					display.timerExec(100, this);
+					return;
+				}
+				var items = validation.items();
+				if (!canceled) {
+					try {
+						ValidationState.write(db, fingerprints, items, level, maxItems);
+					} catch (Exception e) {
+						ErrorReporter.on("failed to store validation result", e);
 					}
-					display.asyncExec(() -> {
-						progressBar.setMaximum(validation.workerCount() + 1);
-						progressBar.setSelection(1 + validation.finishedWorkerCount());
-					});
-				} catch (InterruptedException e) {
-					ErrorReporter.on("failed to wait during validation", e);
-					close();
 				}
+				ValidationResultView.open(ValidationState.entriesOf(items));
+				ValidationDialog.super.okPressed();
 			}
-		}).start();
+		};
+		display.timerExec(100, update);
 	}
 
 	@Override
@@ -159,6 +242,7 @@ public class ValidationDialog extends FormDialog {
 		if (cancelButton != null) {
 			cancelButton.setEnabled(false);
 		}
+		canceled = true;
 		infoLabel.setText("Cancelling validation ...");
 		infoLabel.getParent().redraw();
 		validation.cancel();
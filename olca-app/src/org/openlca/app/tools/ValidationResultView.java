@@ -19,6 +19,7 @@ import org.openlca.app.editors.SimpleEditorInput;
 import org.openlca.app.editors.SimpleFormEditor;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.rcp.images.Images;
+import org.openlca.app.tools.ValidationState.Entry;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.Labels;
 import org.openlca.app.util.UI;
@@ -27,13 +28,12 @@ import org.openlca.app.viewers.tables.TableClipboard;
 import org.openlca.app.viewers.tables.Tables;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.RootDescriptor;
-import org.openlca.validation.Item;
 
 public class ValidationResultView extends SimpleFormEditor {
 
-	private List<Item> items;
+	private List<Entry> items;
 
-	public static void open(List<Item> items) {
+	static void open(List<Entry> items) {
 		if (items == null)
 			return;
 		var cacheKey = Cache.getAppCache().put(items);
@@ -58,7 +58,7 @@ public class ValidationResultView extends SimpleFormEditor {
 
 	private static class Page extends FormPage {
 
-		private final List<Item> items;
+		private final List<Entry> items;
 
 		Page(ValidationResultView view) {
 			super(view, "ValidationResultView", "Validation results");
@@ -82,12 +82,11 @@ public class ValidationResultView extends SimpleFormEditor {
 		private void bindActions(TableViewer table) {
 			var onOpen = Actions.onOpen(() -> {
 				var e = Viewers.getFirstSelected(table);
-				if (!(e instanceof Item item))
+				if (!(e instanceof Entry entry))
 					return;
-				if (item.model() instanceof RootDescriptor d) {
-					if (d.type != null && d.type != ModelType.CATEGORY) {
-						App.open((RootDescriptor) item.model());
-					}
+				RootDescriptor d = entry.model();
+				if (d != null && d.type != null && d.type != ModelType.CATEGORY) {
+					App.open(d);
 				}
 			});
 			var onCopy = TableClipboard.onCopySelected(table);
@@ -101,32 +100,34 @@ public class ValidationResultView extends SimpleFormEditor {
 
 		@Override
 		public Image getColumnImage(Object obj, int col) {
-			if (!(obj instanceof Item item))
+			if (!(obj instanceof Entry entry))
 				return null;
-			if (col == 0 && item.hasModel())
-				return Images.get(item.model());
+			if (col == 0 && entry.model() != null)
+				return Images.get(entry.model());
 			if (col == 1) {
-				if (item.isError())
-					return Icon.ERROR.get();
-				if (item.isWarning())
-					return Icon.WARNING.get();
-				if (item.isOk())
-					return Icon.ACCEPT.get();
+				return switch (entry.level()) {
+					case ERROR -> Icon.ERROR.get();
+					case WARNING -> Icon.WARNING.get();
+					case OK -> Icon.ACCEPT.get();
+					default -> null;
+				};
 			}
 			return null;
 		}
 
 		@Override
 		public String getColumnText(Object obj, int col) {
-			if (!(obj instanceof Item item))
+			if (!(obj instanceof Entry entry))
 				return null;
 			if (col == 0)
-				return item.hasModel()
-					? Labels.name(item.model())
+				return entry.model() != null
+					? Labels.name(entry.model())
 					: null;
-			return col == 1
-				? item.message()
-				: null;
+			if (col != 1)
+				return null;
+			return entry.stale()
+				? entry.message() + " (changed since the validation)"
+				: entry.message();
 		}
 	}
 
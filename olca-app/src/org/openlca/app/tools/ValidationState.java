@@ -0,0 +1,290 @@
+package org.openlca.app.tools;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.database.usage.UsageSearch;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.jsonld.Json;
+import org.openlca.validation.Item;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import jakarta.persistence.Table;
+
+/**
+ * The stored result of the last validation of a database. Next to the
+ * validation messages, it contains a fingerprint of each model (its version
+ * and last-change time stamp) at the time of the validation. With this, the
+ * models that were changed, added, or deleted since the last validation can
+ * be detected with one query per model table, without validating the
+ * database again. The state is stored in the file storage folder of the
+ * database (see {@link DatabaseDir}).
+ */
+class ValidationState {
+
+	private static final String FILE = "validation.json";
+
+	/** The time of the validation in milliseconds since the epoch. */
+	final long time;
+	/** The message level of the validation: 0 = all, 1 = warnings, 2 = errors. */
+	final int level;
+	final int maxItems;
+
+	private final Map<ModelType, Map<Long, Long>> fingerprints;
+	private final List<JsonObject> items;
+
+	private ValidationState(long time, int level, int maxItems,
+			Map<ModelType, Map<Long, Long>> fingerprints, List<JsonObject> items) {
+		this.time = time;
+		this.level = level;
+		this.maxItems = maxItems;
+		this.fingerprints = fingerprints;
+		this.items = items;
+	}
+
+	/**
+	 * Reads the fingerprints of all models from the database with one query
+	 * per model table.
+	 */
+	static Map<ModelType, Map<Long, Long>> scan(IDatabase db) {
+		var map = new EnumMap<ModelType, Map<Long, Long>>(ModelType.class);
+		for (var type : ModelType.values()) {
+			var table = tableOf(type);
+			if (table == null)
+				continue;
+			var fps = new HashMap<Long, Long>();
+			var sql = "select id, version, last_change from " + table;
+			NativeSql.on(db).query(sql, r -> {
+				fps.put(r.getLong(1), 31 * r.getLong(2) + r.getLong(3));
+				return true;
+			});
+			map.put(type, fps);
+		}
+		return map;
+	}
+
+	private static String tableOf(ModelType type) {
+		if (type == null)
+			return null;
+		var clazz = type.getModelClass();
+		if (clazz == null || !RootEntity.class.isAssignableFrom(clazz))
+			return null;
+		var table = clazz.getAnnotation(Table.class);
+		return table != null ? table.name() : null;
+	}
+
+	/** Reads the stored state of the given database, if available. */
+	static ValidationState read(IDatabase db) {
+		var file = fileOf(db);
+		if (!file.exists())
+			return null;
+		try {
+			var json = Json.readObject(file).orElse(null);
+			if (json == null)
+				return null;
+			var fingerprints = new EnumMap<ModelType, Map<Long, Long>>(ModelType.class);
+			var models = Json.getObject(json, "models");
+			if (models != null) {
+				for (var e : models.entrySet()) {
+					var fps = new HashMap<Long, Long>();
+					for (var m : e.getValue().getAsJsonObject().entrySet()) {
+						fps.put(Long.parseLong(m.getKey()), m.getValue().getAsLong());
+					}
+					fingerprints.put(ModelType.valueOf(e.getKey()), fps);
+				}
+			}
+			var items = new ArrayList<JsonObject>();
+			var array = Json.getArray(json, "items");
+			if (array != null) {
+				for (var elem : array) {
+					if (elem.isJsonObject()) {
+						items.add(elem.getAsJsonObject());
+					}
+				}
+			}
+			return new ValidationState(
+					json.get("time").getAsLong(),
+					json.get("level").getAsInt(),
+					json.get("maxItems").getAsInt(),
+					fingerprints, items);
+		} catch (Exception e) {
+			LoggerFactory.getLogger(ValidationState.class)
+					.warn("failed to read validation state " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the given validation items with the fingerprints of the models
+	 * that were taken before the validation was started.
+	 */
+	static void write(IDatabase db, Map<ModelType, Map<Long, Long>> fingerprints,
+			List<Item> items, int level, int maxItems) {
+		var json = new JsonObject();
+		json.addProperty("time", System.currentTimeMillis());
+		json.addProperty("level", level);
+		json.addProperty("maxItems", maxItems);
+		var models = new JsonObject();
+		for (var e : fingerprints.entrySet()) {
+			var fps = new JsonObject();
+			e.getValue().forEach((id, fp) -> fps.addProperty(Long.toString(id), fp));
+			models.add(e.getKey().name(), fps);
+		}
+		json.add("models", models);
+		var array = new JsonArray();
+		for (var entry : entriesOf(items)) {
+			var obj = new JsonObject();
+			if (entry.model != null) {
+				obj.addProperty("type", entry.model.type.name());
+				obj.addProperty("id", entry.model.id);
+			}
+			obj.addProperty("level", entry.level.name());
+			obj.addProperty("message", entry.message);
+			array.add(obj);
+		}
+		json.add("items", array);
+		var file = fileOf(db);
+		file.getParentFile().mkdirs();
+		Json.write(json, file);
+	}
+
+	private static File fileOf(IDatabase db) {
+		return new File(DatabaseDir.getFileStorageLocation(db), FILE);
+	}
+
+	/**
+	 * Returns true if the stored result was created with the given settings.
+	 */
+	boolean matches(int level, int maxItems) {
+		return this.level == level && this.maxItems == maxItems;
+	}
+
+	/**
+	 * Returns the IDs of the models that were changed, added, or deleted since
+	 * the validation, compared to the given current fingerprints.
+	 */
+	Map<ModelType, Set<Long>> changesOf(Map<ModelType, Map<Long, Long>> current) {
+		var changes = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		var types = new HashSet<>(current.keySet());
+		types.addAll(fingerprints.keySet());
+		for (var type : types) {
+			var before = fingerprints.getOrDefault(type, Map.of());
+			var now = current.getOrDefault(type, Map.of());
+			var ids = new HashSet<Long>();
+			now.forEach((id, fp) -> {
+				if (!Objects.equals(fp, before.get(id))) {
+					ids.add(id);
+				}
+			});
+			for (var id : before.keySet()) {
+				if (!now.containsKey(id)) {
+					ids.add(id);
+				}
+			}
+			if (!ids.isEmpty()) {
+				changes.put(type, ids);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Returns the stored messages. The messages of models that were changed
+	 * since the validation, and of models that use such changed models, are
+	 * marked as stale; messages of deleted models are dropped.
+	 */
+	List<Entry> entries(IDatabase db, Map<ModelType, Set<Long>> changes) {
+		var stale = new HashSet<String>();
+		for (var e : changes.entrySet()) {
+			var type = e.getKey();
+			for (var id : e.getValue()) {
+				stale.add(type.name() + ":" + id);
+			}
+			for (var user : UsageSearch.of(type, db).find(e.getValue())) {
+				stale.add(user.type.name() + ":" + user.id);
+			}
+		}
+
+		// resolve the descriptors of the models with one query per type
+		var ids = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var item : items) {
+			if (item.has("type") && item.has("id")) {
+				ids.computeIfAbsent(ModelType.valueOf(item.get("type").getAsString()),
+						t -> new HashSet<>()).add(item.get("id").getAsLong());
+			}
+		}
+		var descriptors = new HashMap<String, RootDescriptor>();
+		for (var e : ids.entrySet()) {
+			for (var d : Daos.root(db, e.getKey()).getDescriptors(e.getValue())) {
+				if (d instanceof RootDescriptor r) {
+					descriptors.put(e.getKey().name() + ":" + r.id, r);
+				}
+			}
+		}
+
+		var entries = new ArrayList<Entry>();
+		for (var item : items) {
+			var level = Level.valueOf(Json.getString(item, "level"));
+			var message = Json.getString(item, "message");
+			if (!item.has("type")) {
+				entries.add(new Entry(null, message, level, false));
+				continue;
+			}
+			var key = item.get("type").getAsString() + ":" + item.get("id").getAsLong();
+			var model = descriptors.get(key);
+			if (model == null)
+				continue; // deleted
+			entries.add(new Entry(model, message, level, stale.contains(key)));
+		}
+		return entries;
+	}
+
+	/** Converts the items of a validation run into entries of the result view. */
+	static List<Entry> entriesOf(List<Item> items) {
+		var entries = new ArrayList<Entry>();
+		if (items == null)
+			return entries;
+		for (var item : items) {
+			var model = item.hasModel() && item.model() instanceof RootDescriptor d
+					? d
+					: null;
+			var level = item.isError()
+					? Level.ERROR
+					: item.isWarning()
+					? Level.WARNING
+					: item.isOk()
+					? Level.OK
+					: Level.INFO;
+			entries.add(new Entry(model, item.message(), level, false));
+		}
+		return entries;
+	}
+
+	enum Level {
+		OK, INFO, WARNING, ERROR
+	}
+
+	/**
+	 * A validation message of the result view. A stale message belongs to a
+	 * model that was changed, or that uses a model that was changed, since
+	 * the validation.
+	 */
+	record Entry(RootDescriptor model, String message, Level level, boolean stale) {
+	}
+}
@@ -1,7 +1,11 @@
 package org.openlca.app.tools.mapping;
 
+import java.lang.reflect.InvocationTargetException;
+
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.EditorActionBarContributor;
 import org.openlca.app.App;
 import org.openlca.app.M;
@@ -13,6 +17,7 @@ import org.openlca.app.tools.mapping.model.DBProvider;
 import org.openlca.app.tools.mapping.model.FlowProvider;
 import org.openlca.app.tools.mapping.replacer.Replacer;
 import org.openlca.app.util.Actions;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.Question;
 import org.openlca.core.io.maps.FlowMap;
@@ -114,9 +119,24 @@ public class MappingMenu extends EditorActionBarContributor {
 		if (opt.isEmpty())
 			return;
 		var replacer = new Replacer(opt.get());
-		App.runWithProgress("Replace flows ...", replacer, () -> {
-			tool.refresh();
-			Navigator.refresh();
-		});
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true,
+					monitor -> {
+						try {
+							replacer.run(monitor);
+						} catch (OperationCanceledException e) {
+							throw new InterruptedException();
+						}
+					});
+		} catch (InterruptedException e) {
+			MsgBox.info("Replacement canceled",
+					"The replacement was canceled. The already replaced flows "
+							+ "are kept; when you apply the mapping again, the "
+							+ "replacement continues where it stopped.");
+		} catch (InvocationTargetException e) {
+			ErrorReporter.on("Flow replacement failed", e.getCause());
+		}
+		tool.refresh();
+		Navigator.refresh();
 	}
 }
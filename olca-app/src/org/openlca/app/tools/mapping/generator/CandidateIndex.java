@@ -0,0 +1,176 @@
+package org.openlca.app.tools.mapping.generator;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.openlca.core.io.maps.FlowRef;
+import org.openlca.text.CompartmentStemmer;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+
+/**
+ * An inverted index over the target flows of a mapping that is used to select
+ * a small set of candidates for the exact (and expensive) score calculation
+ * of a source flow. The index contains the stemmed words of the flow names
+ * (without stop words) and the character 3-grams of the stemmed compartment
+ * paths of the flows. The candidates of a source flow are ranked by the sum
+ * of the inverse document frequencies of the words they share with the source
+ * flow plus a smaller weight for the shared compartment 3-grams.
+ * <p>
+ * The index is immutable after it was created and can be shared between
+ * threads.
+ */
+class CandidateIndex {
+
+	/** The number of candidates that are scored exactly. */
+	static final int TOP_K = 50;
+
+	private static final double COMPARTMENT_WEIGHT = 0.25;
+
+	private final List<FlowRef> targets;
+	private final Set<String> stopwords;
+	private final Map<String, TIntArrayList> words = new HashMap<>();
+	private final Map<String, TIntArrayList> compartments = new HashMap<>();
+
+	private CandidateIndex(Collection<FlowRef> targets) {
+		this.targets = List.copyOf(targets);
+		this.stopwords = readStopwords();
+		var stemmer = new CompartmentStemmer();
+		for (int i = 0; i < this.targets.size(); i++) {
+			var t = this.targets.get(i);
+			for (var word : wordsOf(t)) {
+				words.computeIfAbsent(word, w -> new TIntArrayList()).add(i);
+			}
+			for (var gram : compartmentGramsOf(stemmer, t)) {
+				compartments.computeIfAbsent(
+						gram, g -> new TIntArrayList()).add(i);
+			}
+		}
+	}
+
+	static CandidateIndex of(Collection<FlowRef> targets) {
+		return new CandidateIndex(targets);
+	}
+
+	/**
+	 * Returns the top-k candidates of the given source flow, ordered by their
+	 * rank; the best candidate is the first. The given stemmer is used for the
+	 * compartment path of the source flow; it is passed in as it is not
+	 * thread-safe.
+	 */
+	List<FlowRef> candidatesOf(FlowRef s, CompartmentStemmer stemmer) {
+		if (s == null || s.flow == null)
+			return List.of();
+
+		var ranks = new TIntDoubleHashMap();
+		double n = targets.size();
+		for (var word : wordsOf(s)) {
+			var postings = words.get(word);
+			if (postings == null)
+				continue;
+			double idf = Math.log(1 + n / postings.size());
+			postings.forEach(i -> {
+				ranks.adjustOrPutValue(i, idf, idf);
+				return true;
+			});
+		}
+		if (ranks.isEmpty())
+			return List.of();
+
+		// the compartments only re-rank flows that share name words
+		var grams = compartmentGramsOf(stemmer, s);
+		if (!grams.isEmpty()) {
+			double w = COMPARTMENT_WEIGHT / grams.size();
+			for (var gram : grams) {
+				var postings = compartments.get(gram);
+				if (postings == null)
+					continue;
+				postings.forEach(i -> {
+					ranks.adjustValue(i, w);
+					return true;
+				});
+			}
+		}
+
+		// select the top-k with a min-heap
+		var heap = new PriorityQueue<Integer>(TOP_K + 1,
+				(a, b) -> Double.compare(ranks.get(a), ranks.get(b)));
+		ranks.forEachKey(i -> {
+			heap.add(i);
+			if (heap.size() > TOP_K) {
+				heap.poll();
+			}
+			return true;
+		});
+		var candidates = new ArrayList<FlowRef>(heap.size());
+		while (!heap.isEmpty()) {
+			candidates.add(targets.get(heap.poll()));
+		}
+		Collections.reverse(candidates);
+		return candidates;
+	}
+
+	private Set<String> wordsOf(FlowRef ref) {
+		var set = new HashSet<String>();
+		if (ref == null || ref.flow == null || ref.flow.name == null)
+			return set;
+		for (var token : ref.flow.name.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+			if (token.isEmpty() || stopwords.contains(token))
+				continue;
+			var stem = Stemmer.stem(token);
+			if (!stem.isEmpty()) {
+				set.add(stem);
+			}
+		}
+		return set;
+	}
+
+	private static Set<String> compartmentGramsOf(
+			CompartmentStemmer stemmer, FlowRef ref) {
+		var set = new HashSet<String>();
+		if (ref == null || ref.flowCategory == null)
+			return set;
+		for (var part : stemmer.stem(ref.flowCategory)) {
+			if (part == null)
+				continue;
+			var s = " " + part + " ";
+			for (int i = 0; i + 3 <= s.length(); i++) {
+				set.add(s.substring(i, i + 3));
+			}
+		}
+		return set;
+	}
+
+	private static Set<String> readStopwords() {
+		var set = new HashSet<String>();
+		var stream = CandidateIndex.class.getResourceAsStream("stopwords.txt");
+		if (stream == null)
+			return set;
+		try (var reader = new BufferedReader(
+				new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				var word = line.trim().toLowerCase();
+				if (word.isEmpty() || word.startsWith("#"))
+					continue;
+				set.add(word);
+			}
+		} catch (Exception e) {
+			LoggerFactory.getLogger(CandidateIndex.class)
+					.error("failed to read stop words", e);
+		}
+		return set;
+	}
+}
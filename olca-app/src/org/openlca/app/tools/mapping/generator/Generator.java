@@ -15,7 +15,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Try to find matching flows in a target system for the flows in a source
- * system that do not have a mapping assigned.
+ * system that do not have a mapping assigned. The source flows are matched in
+ * parallel; the generated entries are added in the order of the source flows.
  */
 public class Generator implements Runnable {
 
@@ -45,17 +46,21 @@ public class Generator implements Runnable {
 
 			log.info("match unmapped flows");
 			var matcher = new Matcher(targetSystem);
-			for (var sourceFlow : sourceFlows) {
-				var source = sourceFlow.copy();
-				source.status = MappingStatus.ok();
-				FlowRef matched = matcher.find(source);
-				FlowRef target = null;
-				if (matched != null) {
-					target = matched.copy();
-					target.status = getStatus(source, target);
-				}
-				mapping.entries.add(new FlowMapEntry(source, target, 1.0));
-			}
+			var matchers = ThreadLocal.withInitial(matcher::fork);
+			var entries = sourceFlows.parallelStream()
+				.map(sourceFlow -> {
+					var source = sourceFlow.copy();
+					source.status = MappingStatus.ok();
+					FlowRef matched = matchers.get().find(source);
+					FlowRef target = null;
+					if (matched != null) {
+						target = matched.copy();
+						target.status = getStatus(source, target);
+					}
+					return new FlowMapEntry(source, target, 1.0);
+				})
+				.toList();
+			mapping.entries.addAll(entries);
 
 		} catch (Exception e) {
 			log.error("Generation of flow mappings failed", e);
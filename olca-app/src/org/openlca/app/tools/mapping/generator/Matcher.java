@@ -19,10 +19,19 @@ import org.openlca.text.PhraseSimilarity;
 import org.openlca.text.WordBuffer;
 import org.openlca.util.Categories;
 
+/**
+ * Finds the best matching target flow for a source flow. A matcher is not
+ * thread-safe; for a parallel generation, each worker thread needs its own
+ * instance that can be created via {@link #fork()}. The forked instances
+ * share the target flows, the candidate index, and the provider information
+ * of the original matcher.
+ */
 class Matcher {
 
 	private final IDatabase db;
 	private final Map<String, FlowRef> targetFlows;
+	private final CandidateIndex index;
+	private final Providers providers;
 
 	final CompartmentStemmer compartmentStemmer;
 
@@ -31,11 +40,6 @@ class Matcher {
 	private final WordBuffer phrase1;
 	private final WordBuffer phrase2;
 
-
-	// helper structures for collecting provider information
-	private Categories.PathBuilder categories;
-	private Map<Long, String> locations;
-
 	Matcher(FlowProvider targetSystem) {
 		db = targetSystem instanceof DBProvider
 			? ((DBProvider) targetSystem).db()
@@ -43,6 +47,8 @@ class Matcher {
 		this.targetFlows = targetSystem.getFlowRefs().stream()
 			.filter(f -> f.flow != null && f.flow.refId != null)
 			.collect(Collectors.toMap(f -> f.flow.refId, f -> f));
+		this.index = CandidateIndex.of(targetFlows.values());
+		this.providers = new Providers();
 
 		this.compartmentStemmer = new CompartmentStemmer();
 		this.similarity = new PhraseSimilarity();
@@ -51,6 +57,26 @@ class Matcher {
 		this.phrase2 = new WordBuffer();
 	}
 
+	private Matcher(Matcher origin) {
+		this.db = origin.db;
+		this.targetFlows = origin.targetFlows;
+		this.index = origin.index;
+		this.providers = origin.providers;
+		this.compartmentStemmer = new CompartmentStemmer();
+		this.similarity = new PhraseSimilarity();
+		this.parser = new PhraseParser();
+		this.phrase1 = new WordBuffer();
+		this.phrase2 = new WordBuffer();
+	}
+
+	/**
+	 * Creates a new matcher for another worker thread that shares the target
+	 * flows and the index of this matcher.
+	 */
+	Matcher fork() {
+		return new Matcher(this);
+	}
+
 	double similarityOf(String s1, String s2) {
 		if (s1 == null || s2 == null)
 			return 0;
@@ -67,13 +93,12 @@ class Matcher {
 
 		// test whether there is a direct match based on the reference IDs
 		var t = targetFlows.get(s.flow.refId);
-		if (t != null) {
-			checkAddProvider(s, t);
-			return t;
-		}
+		if (t != null)
+			return withProvider(s, t);
 
+		// only the top candidates of the index are scored exactly
 		var score = Score.noMatch();
-		for (var candidate : targetFlows.values()) {
+		for (var candidate : index.candidatesOf(s, compartmentStemmer)) {
 			var nextScore = Score.compute(this, s, candidate);
 			if (nextScore.betterThan(score)) {
 				score = nextScore;
@@ -83,9 +108,22 @@ class Matcher {
 
 		if (t == null)
 			return null;
+		return withProvider(s, t);
+	}
 
-		checkAddProvider(s, t);
-		return t;
+	/**
+	 * Returns a copy of the given target flow with the provider information
+	 * added, if applicable. We do not modify the target flow directly as it
+	 * is shared between the matchers of different threads.
+	 */
+	private FlowRef withProvider(FlowRef s, FlowRef t) {
+		if (db == null || t == null || t.flow == null)
+			return t;
+		if (t.flow.flowType == FlowType.ELEMENTARY_FLOW)
+			return t;
+		var copy = t.copy();
+		checkAddProvider(s, copy);
+		return copy;
 	}
 
 	private void checkAddProvider(FlowRef s, FlowRef t) {
@@ -97,15 +135,9 @@ class Matcher {
 		if (prov == null)
 			return;
 		t.provider = prov;
-		if (categories == null) {
-			categories = Categories.pathsOf(db);
-		}
-		t.providerCategory = categories.pathOf(prov.category);
-		if (locations == null) {
-			locations = new LocationDao(db).getCodes();
-		}
+		t.providerCategory = providers.categoryOf(prov.category);
 		if (prov.location != null) {
-			t.providerLocation = locations.get(prov.location);
+			t.providerLocation = providers.locationOf(prov.location);
 		}
 	}
 
@@ -140,4 +172,29 @@ class Matcher {
 		}
 		return cand;
 	}
+
+	/**
+	 * Helper structures for collecting provider information. They are loaded
+	 * when they are needed for the first time and are shared between the
+	 * forked matchers.
+	 */
+	private class Providers {
+
+		private Categories.PathBuilder categories;
+		private Map<Long, String> locations;
+
+		synchronized String categoryOf(Long id) {
+			if (categories == null) {
+				categories = Categories.pathsOf(db);
+			}
+			return categories.pathOf(id);
+		}
+
+		synchronized String locationOf(Long id) {
+			if (locations == null) {
+				locations = new LocationDao(db).getCodes();
+			}
+			return locations.get(id);
+		}
+	}
 }
@@ -4,6 +4,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
 import org.openlca.core.io.maps.FlowMapEntry;
+import org.openlca.core.model.AbstractEntity;
+import org.openlca.core.model.AllocationFactor;
 import org.openlca.core.model.ModelType;
 
 class AllocationCursor extends UpdatableCursor {
@@ -15,6 +17,26 @@ class AllocationCursor extends UpdatableCursor {
 		this.replacer = replacer;
 	}
 
+	@Override
+	String table() {
+		return "tbl_allocation_factors";
+	}
+
+	@Override
+	String ownerColumn() {
+		return "f_process";
+	}
+
+	@Override
+	Class<? extends AbstractEntity> rowType() {
+		return AllocationFactor.class;
+	}
+
+	@Override
+	boolean isRelevantOwner(long ownerID) {
+		return replacer.processes.contains(ownerID);
+	}
+
 	@Override
 	void next(ResultSet cursor, PreparedStatement update) {
 		long flowID = -1;
@@ -32,10 +54,10 @@ class AllocationCursor extends UpdatableCursor {
 				return;
 
 			update.setLong(1, entry.targetFlow().flow.id);
+			long rowID = cursor.getLong("id");
+			update.setLong(2, rowID);
 
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(processID);
+			add(update, flowID, processID, rowID);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
@@ -45,15 +67,16 @@ class AllocationCursor extends UpdatableCursor {
 	String querySQL() {
 		return "SELECT "
 				+ " f_process,"
-				+ " f_product"
-				+ " FROM tbl_allocation_factors"
-				+ " FOR UPDATE OF f_product";
+				+ " f_product,"
+				+ " id"
+				+ " FROM tbl_allocation_factors";
 	}
 
 	@Override
 	String updateSQL() {
 		return "UPDATE tbl_allocation_factors"
-				+ " SET f_product = ? ";
+				+ " SET f_product = ? "
+				+ " WHERE id = ?";
 	}
 
 }
@@ -4,12 +4,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.Set;
 
 import org.openlca.core.io.maps.FlowMapEntry;
 import org.openlca.core.io.maps.FlowRef;
+import org.openlca.core.model.AbstractEntity;
+import org.openlca.core.model.Exchange;
 import org.openlca.core.model.Flow;
 import org.openlca.core.model.FlowPropertyFactor;
+import org.openlca.core.model.ImpactFactor;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.Uncertainty;
 import org.openlca.core.model.UncertaintyType;
@@ -32,6 +34,34 @@ class AmountCursor extends UpdatableCursor {
 		this.replacer = replacer;
 	}
 
+	@Override
+	String table() {
+		return type == ModelType.PROCESS
+				? "tbl_exchanges"
+				: "tbl_impact_factors";
+	}
+
+	@Override
+	String ownerColumn() {
+		return type == ModelType.PROCESS
+				? "f_owner"
+				: "f_impact_category";
+	}
+
+	@Override
+	Class<? extends AbstractEntity> rowType() {
+		return type == ModelType.PROCESS
+				? Exchange.class
+				: ImpactFactor.class;
+	}
+
+	@Override
+	boolean isRelevantOwner(long ownerID) {
+		return type == ModelType.PROCESS
+				? replacer.processes.contains(ownerID)
+				: replacer.impacts.contains(ownerID);
+	}
+
 	@Override
 	void next(ResultSet cursor, PreparedStatement update) {
 		long flowID = -1;
@@ -49,10 +79,7 @@ class AmountCursor extends UpdatableCursor {
 
 			// check if we should replace a flow here
 			long ownerID = cursor.getLong(1);
-			Set<Long> owners = type == ModelType.PROCESS
-					? replacer.processes
-					: replacer.impacts;
-			if (!owners.contains(ownerID))
+			if (!isRelevantOwner(ownerID))
 				return;
 
 			// get the conversion factor
@@ -91,17 +118,19 @@ class AmountCursor extends UpdatableCursor {
 			updateUncertainty(update, factor, uncertainty);
 
 			// f_default_provider
+			int idParam = 10;
 			if (type == ModelType.PROCESS) {
 				if (entry.targetFlow().provider == null) {
 					update.setNull(10, Types.INTEGER);
 				} else {
 					update.setLong(10, entry.targetFlow().provider.id);
 				}
+				idParam = 11;
 			}
 
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(ownerID);
+			long rowID = cursor.getLong("id");
+			update.setLong(idParam, rowID);
+			add(update, flowID, ownerID, rowID);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
@@ -109,24 +138,18 @@ class AmountCursor extends UpdatableCursor {
 
 	@Override
 	String querySQL() {
-		String table;
-		String owner;
 		String value;
 		String formula;
 		if (type == ModelType.PROCESS) {
-			table = "tbl_exchanges";
-			owner = "f_owner";
 			value = "resulting_amount_value";
 			formula = "resulting_amount_formula";
 		} else {
-			table = "tbl_impact_factors";
-			owner = "f_impact_category";
 			value = "value";
 			formula = "formula";
 		}
 
 		String query = "SELECT "
-				/* 1 */ + owner + ", "
+				/* 1 */ + ownerColumn() + ", "
 				/* 2 */ + "f_flow, "
 				/* 3 */ + "f_unit, "
 				/* 4 */ + "f_flow_property_factor, "
@@ -135,47 +158,30 @@ class AmountCursor extends UpdatableCursor {
 				/* 7 */ + "distribution_type, "
 				/* 8 */ + "parameter1_value, "
 				/* 9 */ + "parameter2_value, "
-				/* 10 */ + "parameter3_value ";
-
-		if (type == ModelType.PROCESS) {
-			query += ", f_default_provider ";
-		}
-
-		query += "FROM " + table + " "
-				+ "FOR UPDATE OF "
-				+ "f_flow, "
-				+ "f_unit, "
-				+ "f_flow_property_factor, "
-				+ value + " , "
-				+ formula + ", "
-				+ "distribution_type, "
-				+ "parameter1_value, "
-				+ "parameter2_value, "
-				+ "parameter3_value";
+				/* 10 */ + "parameter3_value, "
+				/* 11 */ + "id ";
 
 		if (type == ModelType.PROCESS) {
 			query += ", f_default_provider ";
 		}
 
+		query += "FROM " + table();
 		return query;
 	}
 
 	@Override
 	String updateSQL() {
-		String table;
 		String value;
 		String formula;
 		if (type == ModelType.PROCESS) {
-			table = "tbl_exchanges";
 			value = "resulting_amount_value";
 			formula = "resulting_amount_formula";
 		} else {
-			table = "tbl_impact_factors";
 			value = "value";
 			formula = "formula";
 		}
 
-		String sql = "UPDATE " + table + " "
+		String sql = "UPDATE " + table() + " "
 		/* 1 */ + "SET f_flow = ? , "
 		/* 2 */ + "f_unit = ? , "
 		/* 3 */ + "f_flow_property_factor = ? , "
@@ -189,6 +195,7 @@ class AmountCursor extends UpdatableCursor {
 		if (type == ModelType.PROCESS) {
 			/* 10 */ sql += " , f_default_provider = ?";
 		}
+		/* 10 or 11 */ sql += " WHERE id = ?";
 		return sql;
 	}
 
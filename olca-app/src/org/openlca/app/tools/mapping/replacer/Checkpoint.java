@@ -0,0 +1,103 @@
+package org.openlca.app.tools.mapping.replacer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.core.database.IDatabase;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the partitions of a flow replacement that were already committed to
+ * the database. The checkpoint is stored in a file in the storage folder of
+ * the database and is identified by a key that is derived from the mapping
+ * entries and models of the replacement. When a replacement with the same key
+ * is started again (e.g. after it was canceled or failed), the committed
+ * partitions are skipped. The file is deleted when the replacement finished
+ * without errors.
+ * <p>
+ * A partition is recorded after its transaction was committed. If the
+ * application stops between these two steps, the partition is processed
+ * again. This is safe as the replaced rows then contain the target flows and
+ * are not matched again.
+ */
+class Checkpoint {
+
+	private final File file;
+	private final Set<String> done = new HashSet<>();
+
+	private Checkpoint(File file) {
+		this.file = file;
+	}
+
+	static Checkpoint of(IDatabase db, String key) {
+		var dir = new File(DatabaseDir.getFileStorageLocation(db), "replacer");
+		var checkpoint = new Checkpoint(new File(dir, key + ".txt"));
+		checkpoint.read();
+		return checkpoint;
+	}
+
+	synchronized boolean isDone(String table, long from, long to) {
+		return done.contains(line(table, from, to));
+	}
+
+	/** Returns the number of committed partitions of a previous run. */
+	synchronized int size() {
+		return done.size();
+	}
+
+	synchronized void add(String table, long from, long to) {
+		var line = line(table, from, to);
+		if (!done.add(line))
+			return;
+		try {
+			var dir = file.getParentFile();
+			if (!dir.exists()) {
+				Files.createDirectories(dir.toPath());
+			}
+			Files.writeString(file.toPath(), line + "\n",
+					StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to write checkpoint " + file, e);
+		}
+	}
+
+	synchronized void delete() {
+		done.clear();
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to delete checkpoint " + file, e);
+		}
+	}
+
+	private void read() {
+		if (!file.exists())
+			return;
+		try {
+			for (var line : Files.readAllLines(file.toPath(),
+					StandardCharsets.UTF_8)) {
+				var s = line.trim();
+				if (!s.isEmpty()) {
+					done.add(s);
+				}
+			}
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to read checkpoint " + file, e);
+		}
+	}
+
+	private static String line(String table, long from, long to) {
+		return table + " " + from + " " + to;
+	}
+}
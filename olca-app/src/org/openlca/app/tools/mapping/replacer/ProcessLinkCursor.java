@@ -4,6 +4,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
 import org.openlca.core.io.maps.FlowMapEntry;
+import org.openlca.core.model.AbstractEntity;
 import org.openlca.core.model.ModelType;
 
 class ProcessLinkCursor extends UpdatableCursor {
@@ -15,6 +16,22 @@ class ProcessLinkCursor extends UpdatableCursor {
 		this.replacer = replacer;
 	}
 
+	@Override
+	String table() {
+		return "tbl_process_links";
+	}
+
+	@Override
+	String ownerColumn() {
+		return "f_product_system";
+	}
+
+	@Override
+	Class<? extends AbstractEntity> rowType() {
+		// process links are not entities but embedded in product systems
+		return null;
+	}
+
 	@Override
 	void next(ResultSet cursor, PreparedStatement update) {
 		long flowID = -1;
@@ -42,10 +59,10 @@ class ProcessLinkCursor extends UpdatableCursor {
 			update.setLong(1, provider);
 			update.setLong(2, entry.targetFlow().flow.id);
 			long systemID = cursor.getLong("f_product_system");
+			update.setLong(3, systemID);
+			update.setLong(4, cursor.getLong("f_exchange"));
 
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(systemID);
+			add(update, flowID, systemID, -1);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
@@ -57,18 +74,18 @@ class ProcessLinkCursor extends UpdatableCursor {
 				+ " f_product_system,"
 				+ " f_provider,"
 				+ " f_flow,"
-				+ " f_process"
-				+ " FROM tbl_process_links"
-				+ " FOR UPDATE OF "
-				+ " f_provider, "
-				+ " f_flow";
+				+ " f_process,"
+				+ " f_exchange"
+				+ " FROM tbl_process_links";
 	}
 
 	@Override
 	String updateSQL() {
 		return "UPDATE tbl_process_links"
 				+ " SET f_provider = ? , "
-				+ " f_flow = ? ";
+				+ " f_flow = ? "
+				+ " WHERE f_product_system = ?"
+				+ " AND f_exchange = ?";
 	}
 
 }
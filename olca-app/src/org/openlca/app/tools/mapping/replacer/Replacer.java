@@ -1,15 +1,22 @@
 package org.openlca.app.tools.mapping.replacer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.openlca.app.db.Database;
 import org.openlca.app.tools.mapping.model.DBProvider;
 import org.openlca.app.util.Labels;
@@ -49,6 +56,18 @@ public class Replacer implements Runnable {
 
 	@Override
 	public void run() {
+		run(new NullProgressMonitor());
+	}
+
+	/**
+	 * Runs the replacement and reports the progress and throughput of the
+	 * updated partitions to the given monitor. When the monitor is canceled,
+	 * the running partitions are finished and an
+	 * {@link OperationCanceledException} is thrown. The committed partitions
+	 * are then skipped when the same replacement is started again. When a
+	 * cursor fails, the checkpoint is kept and the error is re-thrown.
+	 */
+	public void run(IProgressMonitor monitor) {
 		if (conf == null || (conf.models.isEmpty())) {
 			log.info("no configuration; nothing to replace");
 			return;
@@ -75,14 +94,26 @@ public class Replacer implements Runnable {
 		}
 		log.info("found {} flows that can be mapped", entries.size());
 
+		var checkpoint = Checkpoint.of(db, checkpointKey());
+		if (checkpoint.size() > 0) {
+			log.info("resume replacement; skip {} committed partitions",
+					checkpoint.size());
+		}
+
+		List<UpdatableCursor> cursors = createCursors();
 		try {
 
 			// start and wait for the cursors to finish
-			log.info("start updatable cursors");
-			List<UpdatableCursor> cursors = createCursors();
+			int partitions = 0;
+			for (var c : cursors) {
+				partitions += c.prepare(checkpoint, monitor);
+			}
+			log.info("start updatable cursors; {} partitions", partitions);
+			monitor.beginTask("Replace flows ...", partitions);
 			ExecutorService pool = Executors.newFixedThreadPool(4);
+			var futures = new ArrayList<Future<?>>();
 			for (UpdatableCursor c : cursors) {
-				pool.execute(c);
+				futures.add(pool.submit(c));
 			}
 			pool.shutdown();
 			int i = 0;
@@ -91,7 +122,24 @@ public class Replacer implements Runnable {
 				log.info("waiting for cursors to finish; {} seconds", i * 10);
 			}
 			log.info("cursors finished");
-			db.getEntityFactory().getCache().evictAll();
+			evict(cursors);
+
+			// a cursor that failed with an exception did not count its
+			// remaining partitions as failures; so we need to check the
+			// futures before the checkpoint could be deleted
+			for (var future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException("a cursor of the flow replacement"
+							+ " failed; the committed partitions are kept", e.getCause());
+				}
+			}
+			if (monitor.isCanceled()) {
+				log.info("replacement canceled; committed partitions are"
+						+ " skipped when it is started again");
+				throw new OperationCanceledException();
+			}
 
 			// TODO when products were replaced we also need to check
 			// whether these products are used in the quant. ref. of
@@ -125,6 +173,10 @@ public class Replacer implements Runnable {
 				}
 			}
 
+			if (stats.failures == 0) {
+				checkpoint.delete();
+			}
+
 			// update the mapping entries
 			for (Long flowID : entries.keySet()) {
 				FlowMapEntry e = entries.get(flowID);
@@ -145,11 +197,61 @@ public class Replacer implements Runnable {
 					e.sourceFlow().status = MappingStatus.ok("Applied (not removed)");
 				}
 			}
+		} catch (OperationCanceledException e) {
+			throw e;
 		} catch (Exception e) {
+			evict(cursors);
 			log.error("Flow replacement failed", e);
+			throw e instanceof RuntimeException re
+					? re
+					: new RuntimeException(e);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Evicts the updated models and rows from the entity cache. Other
+	 * entities in the cache are not affected by the replacement.
+	 */
+	private void evict(List<UpdatableCursor> cursors) {
+		var cache = db.getEntityFactory().getCache();
+		for (var c : cursors) {
+			var modelType = c.type.getModelClass();
+			for (long id : c.updatedModels) {
+				cache.evict(modelType, id);
+			}
+			var rowType = c.rowType();
+			if (rowType == null)
+				continue;
+			for (long id : c.updatedRows) {
+				cache.evict(rowType, id);
+			}
 		}
 	}
 
+	/**
+	 * Returns a key that identifies the replacement of the mapped flows in the
+	 * selected models; see {@link Checkpoint}.
+	 */
+	private String checkpointKey() {
+		var b = new StringBuilder();
+		entries.keySet().stream().sorted().forEach(id -> {
+			var e = entries.get(id);
+			b.append(id).append('>').append(e.targetFlow().flow.id);
+			if (e.targetFlow().provider != null) {
+				b.append('/').append(e.targetFlow().provider.id);
+			}
+			b.append(';');
+		});
+		b.append('|');
+		processes.stream().sorted().forEach(id -> b.append(id).append(';'));
+		b.append('|');
+		impacts.stream().sorted().forEach(id -> b.append(id).append(';'));
+		return UUID.nameUUIDFromBytes(
+				b.toString().getBytes(StandardCharsets.UTF_8)).toString();
+	}
+
 	private List<UpdatableCursor> createCursors() {
 		List<UpdatableCursor> cursors = new ArrayList<>();
 		if (!processes.isEmpty()) {
@@ -3,22 +3,41 @@ package org.openlca.app.tools.mapping.replacer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.AbstractEntity;
 import org.openlca.core.model.ModelType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * A method template for implementing updatable cursors.
- * 
- * see: https://db.apache.org/derby/docs/10.0/manuals/develop/develop66.html
+ * A method template for implementing partitioned batch updates of a table.
+ * The rows of the table are partitioned by ranges of the IDs of their owners
+ * (processes, LCIA categories, product systems; see the type below). Each
+ * partition is read with a plain query, the updates are executed in JDBC
+ * batches of {@link #BATCH_SIZE} rows, and the partition is committed in its
+ * own transaction. Committed partitions are recorded in a {@link Checkpoint}
+ * so that they are skipped when the replacement is started again.
+ * <p>
+ * When a partition fails, it is rolled back and the replacements of that
+ * partition are counted as failures; the other partitions are still
+ * processed.
  */
 abstract class UpdatableCursor implements Runnable {
 
-	private static final AtomicInteger seq = new AtomicInteger(0);
+	/** The maximum number of owners in a partition. */
+	static final int PARTITION_SIZE = 200;
+
+	/** The maximum number of updates in a JDBC batch. */
+	static final int BATCH_SIZE = 1000;
 
 	final IDatabase db;
 	final Stats stats = new Stats();
@@ -28,57 +47,189 @@ abstract class UpdatableCursor implements Runnable {
 	 */
 	final Set<Long> updatedModels = new HashSet<>();
 
+	/**
+	 * Contains the IDs of the updated rows when they are mapped to an entity
+	 * type; see {@link #rowType()}.
+	 */
+	final Set<Long> updatedRows = new HashSet<>();
+
 	/** The type of the updated models. */
 	final ModelType type;
 
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final List<long[]> partitions = new ArrayList<>();
+	private final List<Row> pending = new ArrayList<>();
+	private int batchSize;
+	private Checkpoint checkpoint;
+	private IProgressMonitor monitor = new NullProgressMonitor();
+
 	UpdatableCursor(IDatabase db, ModelType type) {
 		this.db = db;
 		this.type = type;
 	}
 
-	/** The SQL query for selecting the records. */
+	/** The name of the updated table. */
+	abstract String table();
+
+	/** The column with the owner IDs that is used for the partitioning. */
+	abstract String ownerColumn();
+
+	/**
+	 * The entity type of the table rows or {@code null} when the rows are not
+	 * mapped to an entity type. The updated rows of this type are evicted from
+	 * the entity cache after the replacement.
+	 */
+	abstract Class<? extends AbstractEntity> rowType();
+
+	/**
+	 * The SQL query for selecting the records without a WHERE clause. The
+	 * clause for selecting the rows of a partition is appended.
+	 */
 	abstract String querySQL();
 
-	/** The SQL statement for updating a record. */
+	/**
+	 * The SQL statement for updating a single record, including the WHERE
+	 * clause that identifies the record.
+	 */
 	abstract String updateSQL();
 
 	/**
-	 * This method is called when the cursor moved to the next row. The update
-	 * needs to be called within this method and possible errors should also be
-	 * handled and logged there.
+	 * This method is called for each row of a partition. When the row should
+	 * be updated, the parameters of the update statement need to be set and
+	 * {@link #add} needs to be called. Possible errors should be handled and
+	 * logged there.
 	 */
-	abstract void next(ResultSet cursor, PreparedStatement update);
-
-	@Override
-	public final void run() {
-		try {
-			Connection con = db.createConnection();
-			con.setAutoCommit(false);
+	abstract void next(ResultSet row, PreparedStatement update);
 
-			// prepare the query and cursor
-			Statement query = con.createStatement();
-			String name = "UPDATE_CURSOR_" + seq.incrementAndGet();
-			query.setCursorName(name);
-			ResultSet cursor = query.executeQuery(querySQL());
+	/**
+	 * Returns true when the rows of the owner with the given ID could be
+	 * updated. Owners for which this returns false are not included in the
+	 * partitions.
+	 */
+	boolean isRelevantOwner(long ownerID) {
+		return true;
+	}
 
-			// prepare the update statement
-			String usql = updateSQL() + " WHERE CURRENT OF " + name;
-			PreparedStatement update = con.prepareStatement(usql);
+	/**
+	 * Adds the update with the current parameters to the batch.
+	 */
+	final void add(PreparedStatement update, long flowID, long modelID,
+			long rowID) throws SQLException {
+		update.addBatch();
+		pending.add(new Row(flowID, modelID, rowID));
+		batchSize++;
+	}
 
-			// run through the table
-			while (cursor.next()) {
-				next(cursor, update);
+	/**
+	 * Selects the owner-ID ranges of the partitions and returns the number of
+	 * partitions. This needs to be called before the cursor is executed.
+	 */
+	int prepare(Checkpoint checkpoint, IProgressMonitor monitor) {
+		this.checkpoint = checkpoint;
+		if (monitor != null) {
+			this.monitor = monitor;
+		}
+		partitions.clear();
+		var owners = new ArrayList<Long>();
+		String sql = "SELECT DISTINCT " + ownerColumn() + " FROM " + table();
+		NativeSql.on(db).query(sql, r -> {
+			long id = r.getLong(1);
+			if (isRelevantOwner(id)) {
+				owners.add(id);
 			}
+			return true;
+		});
+		owners.sort(null);
+		for (int i = 0; i < owners.size(); i += PARTITION_SIZE) {
+			int last = Math.min(i + PARTITION_SIZE, owners.size()) - 1;
+			partitions.add(new long[] { owners.get(i), owners.get(last) });
+		}
+		return partitions.size();
+	}
 
-			// free and commit
-			cursor.close();
-			query.close();
-			update.close();
-			con.commit();
-			con.close();
+	@Override
+	public final void run() {
+		String sql = querySQL()
+				+ " WHERE " + ownerColumn() + " BETWEEN ? AND ?";
+		try (Connection con = db.createConnection()) {
+			con.setAutoCommit(false);
+			try (var query = con.prepareStatement(sql);
+					 var update = con.prepareStatement(updateSQL())) {
+				for (int i = 0; i < partitions.size(); i++) {
+					if (monitor.isCanceled())
+						return;
+					var p = partitions.get(i);
+					if (checkpoint != null && checkpoint.isDone(table(), p[0], p[1])) {
+						monitor.worked(1);
+						continue;
+					}
+					runPartition(con, query, update, i);
+					monitor.worked(1);
+				}
+			}
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	private void runPartition(Connection con, PreparedStatement query,
+			PreparedStatement update, int i) throws SQLException {
+		var p = partitions.get(i);
+		long start = System.nanoTime();
+		int scanned = 0;
+		pending.clear();
+		batchSize = 0;
+		try {
+			query.setLong(1, p[0]);
+			query.setLong(2, p[1]);
+			try (var rows = query.executeQuery()) {
+				while (rows.next()) {
+					scanned++;
+					next(rows, update);
+					if (batchSize >= BATCH_SIZE) {
+						update.executeBatch();
+						batchSize = 0;
+					}
+				}
+			}
+			if (batchSize > 0) {
+				update.executeBatch();
+				batchSize = 0;
+			}
+			con.commit();
+		} catch (SQLException e) {
+			log.error("failed to update partition " + p[0] + " - " + p[1]
+					+ " of " + table() + "; rolled back", e);
+			update.clearBatch();
+			con.rollback();
+			for (var row : pending) {
+				stats.inc(row.flowID, Stats.FAILURE);
+			}
+			pending.clear();
+			return;
+		}
+
+		for (var row : pending) {
+			stats.inc(row.flowID, Stats.REPLACEMENT);
+			updatedModels.add(row.modelID);
+			if (row.rowID >= 0) {
+				updatedRows.add(row.rowID);
+			}
+		}
+		if (checkpoint != null) {
+			checkpoint.add(table(), p[0], p[1]);
+		}
+
+		double secs = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+		var info = String.format(
+				"%s, partition %d of %d: %d of %d rows updated in %.1f s (%.0f rows/s)",
+				table(), i + 1, partitions.size(), pending.size(), scanned, secs,
+				scanned / secs);
+		log.info(info);
+		monitor.subTask(info);
+		pending.clear();
+	}
+
+	private record Row(long flowID, long modelID, long rowID) {
+	}
 }
@@ -0,0 +1,526 @@
+package org.openlca.app.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads a file with HTTP range requests. When the server supports range
+ * requests, the file is downloaded in chunks of {@link #CHUNK_SIZE} bytes by
+ * {@link #THREADS} parallel workers into a pre-allocated file
+ * {@code <target>.part}. The finished chunks are recorded in a state file
+ * {@code <target>.part.state}, so that an interrupted or canceled download
+ * continues with the missing chunks when it is started again for the same
+ * target (see {@link DownloadState}). Failed chunks are retried a few times.
+ * Each chunk response must have the validator (ETag or last-modified date)
+ * of the first response; otherwise the resource was changed on the server
+ * and the download fails, with the finished chunks discarded. When the server does not
+ * support range requests, the file is downloaded with a single request.
+ * <p>
+ * After the download, the file size and, if available, the checksum of the
+ * file are verified. The checksum can be given explicitly or is taken from
+ * the {@code Digest} or {@code X-Checksum-*} headers of the response. Only
+ * when the verification succeeds, the part file is moved to the target file.
+ */
+public class Download {
+
+	/** The size of a chunk in bytes. */
+	public static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+	/** The number of parallel chunk requests. */
+	public static final int THREADS = 4;
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final Source source;
+	private final File target;
+	private final File part;
+	private final File stateFile;
+	private Checksum checksum;
+	private IProgressMonitor monitor = new NullProgressMonitor();
+
+	private Download(Source source, File target) {
+		this.source = source;
+		this.target = target;
+		this.part = new File(target.getPath() + ".part");
+		this.stateFile = new File(target.getPath() + ".part.state");
+	}
+
+	public static Download of(Source source, File target) {
+		return new Download(source, target);
+	}
+
+	/**
+	 * Creates a source for the given URL that uses plain JDK connections.
+	 */
+	public static Source url(String url) {
+		return (from, to) -> {
+			var con = (HttpURLConnection) new URL(url).openConnection();
+			con.setConnectTimeout(30_000);
+			con.setReadTimeout(300_000);
+			rangeHeaders(from, to).forEach(con::setRequestProperty);
+			int status = con.getResponseCode();
+			if (status >= 400) {
+				con.disconnect();
+				throw new IOException("HTTP " + status + " for " + url);
+			}
+			return Response.of(status, con::getHeaderField, con.getInputStream());
+		};
+	}
+
+	/**
+	 * Returns the request headers for the given byte range. The content
+	 * encoding is set to identity, as the range would otherwise refer to the
+	 * encoded content.
+	 */
+	public static Map<String, String> rangeHeaders(long from, long to) {
+		var headers = new LinkedHashMap<String, String>();
+		headers.put("Range", "bytes=" + from + "-" + (to >= 0 ? to : ""));
+		headers.put("Accept-Encoding", "identity");
+		return headers;
+	}
+
+	/**
+	 * Sets the expected checksum of the file, e.g. {@code SHA-256} and the
+	 * hex string of the digest.
+	 */
+	public Download withChecksum(String algorithm, String hex) {
+		this.checksum = algorithm != null && hex != null
+				? new Checksum(algorithm, hex.trim().toLowerCase())
+				: null;
+		return this;
+	}
+
+	public Download withProgress(IProgressMonitor monitor) {
+		if (monitor != null) {
+			this.monitor = monitor;
+		}
+		return this;
+	}
+
+	/**
+	 * Runs the download. Throws an {@link OperationCanceledException} when
+	 * the download was canceled; the finished chunks are kept then.
+	 */
+	public void run() throws IOException {
+		var parent = target.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			Files.createDirectories(parent.toPath());
+		}
+		var probe = source.get(0, 0);
+		if (checksum == null) {
+			checksum = probe.checksum();
+		}
+		long total = probe.total();
+		if (probe.status() == 206 && total > 0) {
+			probe.close();
+			chunked(total, probe.validator());
+		} else if (probe.status() == 206) {
+			// the total size is unknown, so we request the full range
+			probe.close();
+			try (var response = source.get(0, -1)) {
+				single(response);
+			}
+		} else {
+			try (probe) {
+				single(probe);
+			}
+		}
+		verify(total);
+		Files.move(part.toPath(), target.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		Files.deleteIfExists(stateFile.toPath());
+	}
+
+	private void single(Response response) throws IOException {
+		Files.deleteIfExists(stateFile.toPath());
+		var progress = new Progress(response.total(), 0);
+		try (var out = Files.newOutputStream(part.toPath())) {
+			var buffer = new byte[64 * 1024];
+			var in = response.stream();
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				out.write(buffer, 0, n);
+				progress.bytes.addAndGet(n);
+				progress.report();
+			}
+		}
+		progress.report();
+	}
+
+	private void chunked(long total, String validator) throws IOException {
+		var state = DownloadState.read(stateFile, total, validator);
+		int chunks = (int) ((total + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		try (var file = new RandomAccessFile(part, "rw")) {
+			if (file.length() != total) {
+				file.setLength(total);
+				state.reset();
+			}
+			long done = 0;
+			for (int i = 0; i < chunks; i++) {
+				if (state.isDone(i)) {
+					done += sizeOf(i, total);
+				}
+			}
+			if (done > 0) {
+				log.info("resume download of {} at {} of {} bytes", target, done, total);
+			}
+			var progress = new Progress(total, done);
+			boolean canceled = false;
+			var stop = new AtomicBoolean(false);
+			var channel = file.getChannel();
+			var pool = Executors.newFixedThreadPool(THREADS, runnable -> {
+				var thread = new Thread(runnable, "Download " + target.getName());
+				thread.setDaemon(true);
+				return thread;
+			});
+			var futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < chunks; i++) {
+				if (state.isDone(i))
+					continue;
+				int chunk = i;
+				futures.add(pool.submit(() -> {
+					try {
+						fetch(chunk, total, validator, channel, progress.bytes, stop);
+					} catch (ResourceChangedException e) {
+						stop.set(true);
+						throw e;
+					}
+					channel.force(false);
+					state.add(chunk);
+					return null;
+				}));
+			}
+			pool.shutdown();
+			try {
+				while (!pool.awaitTermination(250, TimeUnit.MILLISECONDS)) {
+					progress.report();
+					if (monitor.isCanceled()) {
+						canceled = true;
+						stop.set(true);
+					}
+				}
+			} catch (InterruptedException e) {
+				canceled = true;
+				stop.set(true);
+				Thread.currentThread().interrupt();
+			}
+			progress.report();
+			if (canceled)
+				throw new OperationCanceledException();
+			IOException error = null;
+			for (var future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("download interrupted");
+				} catch (ExecutionException e) {
+					var cause = e.getCause();
+					if (cause instanceof ResourceChangedException changed) {
+						// the finished chunks belong to another version
+						state.reset();
+						throw changed;
+					}
+					if (error == null) {
+						error = cause instanceof IOException io
+								? io
+								: new IOException("download failed", cause);
+					}
+				}
+			}
+			if (error != null)
+				throw error;
+		}
+	}
+
+	private void fetch(int chunk, long total, String validator,
+			FileChannel channel, AtomicLong bytes, AtomicBoolean stop)
+			throws IOException {
+		long from = (long) chunk * CHUNK_SIZE;
+		long to = from + sizeOf(chunk, total) - 1;
+		IOException last = null;
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			long written = 0;
+			try (var response = source.get(from, to)) {
+				if (response.status() != 206)
+					throw new IOException("server did not return the range "
+							+ from + "-" + to);
+				if (validator != null && !validator.equals(response.validator()))
+					throw new ResourceChangedException(target);
+				var buffer = new byte[64 * 1024];
+				var in = response.stream();
+				long pos = from;
+				int n;
+				while ((n = in.read(buffer)) != -1) {
+					if (stop.get())
+						throw new InterruptedIOException("download canceled");
+					if (pos + n > to + 1)
+						throw new IOException("server returned more bytes than requested");
+					var buf = ByteBuffer.wrap(buffer, 0, n);
+					while (buf.hasRemaining()) {
+						pos += channel.write(buf, pos);
+					}
+					written += n;
+					bytes.addAndGet(n);
+				}
+				if (pos != to + 1)
+					throw new IOException("incomplete range " + from + "-" + to);
+				return;
+			} catch (InterruptedIOException | ResourceChangedException e) {
+				bytes.addAndGet(-written);
+				throw e;
+			} catch (IOException e) {
+				bytes.addAndGet(-written);
+				last = e;
+				log.warn("failed to download range {}-{} of {}, attempt {} of {}",
+						from, to, target, attempt, MAX_ATTEMPTS);
+			}
+		}
+		throw last;
+	}
+
+	private static long sizeOf(int chunk, long total) {
+		long from = (long) chunk * CHUNK_SIZE;
+		return Math.min(CHUNK_SIZE, total - from);
+	}
+
+	private void verify(long total) throws IOException {
+		if (total > 0 && part.length() != total) {
+			discard();
+			throw new IOException("download of " + target + " is incomplete: "
+					+ part.length() + " of " + total + " bytes");
+		}
+		if (checksum == null)
+			return;
+		monitor.subTask("Verify checksum");
+		String actual;
+		try (var in = new FileInputStream(part)) {
+			var digest = MessageDigest.getInstance(checksum.algorithm());
+			var buffer = new byte[64 * 1024];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, n);
+			}
+			actual = HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			log.warn("unknown checksum algorithm {}; skip verification",
+					checksum.algorithm());
+			return;
+		}
+		if (!actual.equals(checksum.hex())) {
+			discard();
+			throw new IOException("invalid " + checksum.algorithm()
+					+ " checksum of " + target + ": expected " + checksum.hex()
+					+ " but was " + actual);
+		}
+	}
+
+	private void discard() throws IOException {
+		Files.deleteIfExists(part.toPath());
+		Files.deleteIfExists(stateFile.toPath());
+	}
+
+	/**
+	 * Sends a GET request for a byte range of the downloaded resource.
+	 */
+	@FunctionalInterface
+	public interface Source {
+
+		/**
+		 * Requests the bytes {@code from..to} (inclusive) of the resource;
+		 * {@code to} is negative for the rest of the resource. A server that
+		 * does not support range requests responds with the full resource
+		 * and status 200.
+		 */
+		Response get(long from, long to) throws IOException;
+
+	}
+
+	/**
+	 * The response of a range request.
+	 *
+	 * @param status    the HTTP status code, 206 for partial content
+	 * @param total     the total size of the resource or -1 if unknown
+	 * @param validator the ETag or last-modified date of the resource, used to
+	 *                  check that a resumed download is still valid
+	 * @param checksum  the checksum of the resource if the server sent one
+	 * @param stream    the response body
+	 */
+	public record Response(
+			int status,
+			long total,
+			String validator,
+			Checksum checksum,
+			InputStream stream) implements Closeable {
+
+		public static Response of(
+				int status, Function<String, String> header, InputStream stream) {
+			long total = -1;
+			var range = header.apply("Content-Range");
+			if (status == 206 && range != null) {
+				int slash = range.lastIndexOf('/');
+				total = slash >= 0 ? parseLong(range.substring(slash + 1)) : -1;
+			} else if (status == 200) {
+				total = parseLong(header.apply("Content-Length"));
+			}
+			var validator = header.apply("ETag");
+			if (validator == null) {
+				validator = header.apply("Last-Modified");
+			}
+			return new Response(status, total, validator,
+					Checksum.of(header), stream);
+		}
+
+		private static long parseLong(String s) {
+			if (s == null)
+				return -1;
+			try {
+				return Long.parseLong(s.trim());
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (stream != null) {
+				stream.close();
+			}
+		}
+	}
+
+	public record Checksum(String algorithm, String hex) {
+
+		/**
+		 * Reads the checksum from the {@code Digest} header (RFC 3230) or the
+		 * {@code X-Checksum-*} headers. Returns null if there is none.
+		 */
+		static Checksum of(Function<String, String> header) {
+			var digest = header.apply("Digest");
+			if (digest != null) {
+				for (var part : digest.split(",")) {
+					int eq = part.indexOf('=');
+					if (eq < 0)
+						continue;
+					var alg = switch (part.substring(0, eq).trim().toLowerCase()) {
+						case "sha-256" -> "SHA-256";
+						case "sha-512" -> "SHA-512";
+						case "sha" -> "SHA-1";
+						case "md5" -> "MD5";
+						default -> null;
+					};
+					if (alg == null)
+						continue;
+					try {
+						var bytes = Base64.getDecoder()
+								.decode(part.substring(eq + 1).trim());
+						return new Checksum(alg, HexFormat.of().formatHex(bytes));
+					} catch (IllegalArgumentException e) {
+						// not a valid base64 value
+					}
+				}
+			}
+			var headers = List.of(
+					new String[] { "X-Checksum-Sha256", "SHA-256" },
+					new String[] { "X-Checksum-Sha1", "SHA-1" },
+					new String[] { "X-Checksum-Md5", "MD5" });
+			for (var h : headers) {
+				var value = header.apply(h[0]);
+				if (value != null && !value.isBlank())
+					return new Checksum(h[1], value.trim().toLowerCase());
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Reports the downloaded bytes and the throughput to the progress
+	 * monitor; this is only called from the thread that runs the download.
+	 */
+	private class Progress {
+
+		final AtomicLong bytes;
+		private final long total;
+		private final long startBytes;
+		private final long start = System.nanoTime();
+		private long reportedKb;
+
+		Progress(long total, long done) {
+			this.total = total;
+			this.bytes = new AtomicLong(done);
+			this.startBytes = done;
+			monitor.beginTask("Download " + target.getName(), total > 0
+					? (int) (total / 1024)
+					: IProgressMonitor.UNKNOWN);
+			reportedKb = done / 1024;
+			if (reportedKb > 0) {
+				monitor.worked((int) reportedKb);
+			}
+		}
+
+		void report() {
+			long current = bytes.get();
+			long kb = current / 1024;
+			if (kb > reportedKb) {
+				monitor.worked((int) (kb - reportedKb));
+				reportedKb = kb;
+			}
+			double secs = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+			double rate = (current - startBytes) / secs / 1e6;
+			var text = total > 0
+					? String.format("%.1f of %.1f MB (%.1f MB/s)",
+							current / 1e6, total / 1e6, rate)
+					: String.format("%.1f MB (%.1f MB/s)", current / 1e6, rate);
+			monitor.subTask(text);
+		}
+	}
+
+	/**
+	 * Thrown when a chunk response has another validator than the first
+	 * response of the download; such a chunk is not retried.
+	 */
+	private static class ResourceChangedException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		ResourceChangedException(File target) {
+			super("the resource of " + target.getName()
+					+ " was changed on the server during the download");
+		}
+	}
+}
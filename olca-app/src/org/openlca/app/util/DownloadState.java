@@ -0,0 +1,130 @@
+package org.openlca.app.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * The finished chunks of a {@link Download}. The first line of the state file
+ * contains the size and validator of the resource; when they do not match
+ * the current resource, the download starts from the beginning. Each further
+ * line contains the index of a finished chunk and a CRC32 check value of the
+ * index and the header. As the file is only appended, an interrupted write
+ * can leave a truncated line; lines that are not terminated, that cannot be
+ * parsed, or that do not match their check value are skipped, so that the
+ * respective chunks are just downloaded again.
+ */
+class DownloadState {
+
+	private final File file;
+	private final String header;
+	private final int chunks;
+	private final Set<Integer> done = new HashSet<>();
+
+	private DownloadState(File file, String header, int chunks) {
+		this.file = file;
+		this.header = header;
+		this.chunks = chunks;
+	}
+
+	static DownloadState read(File file, long total, String validator)
+			throws IOException {
+		var header = total + " " + (validator != null ? validator : "-");
+		int chunks = (int) ((total + Download.CHUNK_SIZE - 1) / Download.CHUNK_SIZE);
+		var state = new DownloadState(file, header, chunks);
+		if (!file.exists()) {
+			state.reset();
+			return state;
+		}
+
+		// malformed bytes are replaced, and a last line without a line
+		// break was not written completely
+		var text = new String(Files.readAllBytes(file.toPath()),
+				StandardCharsets.UTF_8);
+		int end = text.lastIndexOf('\n');
+		var lines = end > 0
+				? text.substring(0, end).split("\n")
+				: new String[0];
+		if (lines.length == 0 || !lines[0].equals(header)) {
+			state.reset();
+			return state;
+		}
+		int skipped = end < text.length() - 1 ? 1 : 0;
+		for (int i = 1; i < lines.length; i++) {
+			int chunk = state.parse(lines[i]);
+			if (chunk >= 0) {
+				state.done.add(chunk);
+			} else {
+				skipped++;
+			}
+		}
+		if (skipped > 0) {
+			LoggerFactory.getLogger(DownloadState.class).warn(
+					"skipped {} invalid lines in download state {}", skipped, file);
+			state.write();
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the chunk index of the given line or -1 if the line is not
+	 * valid.
+	 */
+	private int parse(String line) {
+		var parts = line.trim().split(" ");
+		if (parts.length != 2)
+			return -1;
+		try {
+			int chunk = Integer.parseInt(parts[0]);
+			if (chunk < 0 || chunk >= chunks)
+				return -1;
+			return parts[1].equals(check(chunk)) ? chunk : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private String check(int chunk) {
+		var crc = new CRC32();
+		crc.update((header + " " + chunk).getBytes(StandardCharsets.UTF_8));
+		return Long.toHexString(crc.getValue());
+	}
+
+	private String lineOf(int chunk) {
+		return chunk + " " + check(chunk) + "\n";
+	}
+
+	synchronized boolean isDone(int chunk) {
+		return done.contains(chunk);
+	}
+
+	synchronized void add(int chunk) throws IOException {
+		if (done.add(chunk)) {
+			Files.writeString(file.toPath(), lineOf(chunk),
+					StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+	}
+
+	synchronized void reset() throws IOException {
+		done.clear();
+		write();
+	}
+
+	/** Rewrites the state file with the header and the finished chunks. */
+	private void write() throws IOException {
+		var b = new StringBuilder(header).append('\n');
+		for (int chunk : done) {
+			b.append(lineOf(chunk));
+		}
+		Files.writeString(file.toPath(), b.toString(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,252 @@
+package org.openlca.app.wizards.calculation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.openlca.app.App;
+import org.openlca.app.M;
+import org.openlca.app.db.Database;
+import org.openlca.app.db.Libraries;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.matrix.index.ImpactIndex;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.ProductSystem;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.LcaResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates a set of product systems with the settings of a shared
+ * calculation setup (allocation method, impact assessment method, NW set,
+ * regionalization, and costs). The calculations run on a fixed number of
+ * worker threads and the results are not opened in editors. Instead, the total
+ * results are directly written into two CSV files in the output folder and
+ * the result of a system is disposed as soon as it is written:
+ * <ul>
+ * <li>{@code lcia_results.csv}: one row per product system with the status of
+ * the calculation and the total impact results</li>
+ * <li>{@code inventory_results.csv}: one row per product system and
+ * elementary flow with the total inventory result</li>
+ * </ul>
+ * The impact method and NW set of the template are loaded once and shared
+ * between the calculations; their lazy collections are loaded before the
+ * workers are started, so that the workers only read them. The matrix cache of the application is not used
+ * here: the {@link SystemCalculator} of the core builds the matrices directly
+ * from the database and has no parameter for a {@code MatrixCache}, which is
+ * only read by the product system builder.
+ */
+class BatchCalculation {
+
+	static final String LCIA_FILE = "lcia_results.csv";
+	static final String INVENTORY_FILE = "inventory_results.csv";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db = Database.get();
+	private final CalculationSetup template;
+	private final List<Long> systems;
+	private final int threads;
+	private final File folder;
+	private final List<ImpactDescriptor> impacts = new ArrayList<>();
+
+	private final AtomicInteger done = new AtomicInteger(0);
+	private final AtomicInteger failed = new AtomicInteger(0);
+
+	BatchCalculation(
+			CalculationSetup template, List<Long> systems, int threads, File folder) {
+		this.template = template;
+		this.systems = List.copyOf(systems);
+		this.threads = Math.max(1, Math.min(threads, systems.size()));
+		this.folder = folder;
+		var method = template.impactMethod();
+		if (method != null) {
+			for (var impact : method.impactCategories) {
+				impact.impactFactors.size();
+				impact.parameters.size();
+			}
+			ImpactIndex.of(method)
+					.each((i, impact) -> impacts.add(impact));
+		}
+		if (template.nwSet() != null) {
+			template.nwSet().factors.size();
+		}
+	}
+
+	/**
+	 * Runs the calculations. This method blocks until all product systems are
+	 * calculated or the calculation was canceled via the given monitor.
+	 */
+	void run(IProgressMonitor monitor) throws IOException, InterruptedException {
+		monitor.beginTask(M.RunCalculation, systems.size());
+		try (var lcia = writer(LCIA_FILE);
+				 var inventory = writer(INVENTORY_FILE)) {
+			writeHeaders(lcia, inventory);
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			for (var systemId : systems) {
+				pool.submit(() -> {
+					if (monitor.isCanceled())
+						return;
+					calculate(systemId, lcia, inventory);
+					done.incrementAndGet();
+					monitor.worked(1);
+				});
+			}
+			pool.shutdown();
+			while (!pool.awaitTermination(250, TimeUnit.MILLISECONDS)) {
+				monitor.subTask(done.get() + " / " + systems.size());
+				if (monitor.isCanceled()) {
+					pool.shutdownNow();
+				}
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * The number of product systems that were processed, including the
+	 * failed calculations.
+	 */
+	int done() {
+		return done.get();
+	}
+
+	int failed() {
+		return failed.get();
+	}
+
+	private void calculate(
+			long systemId, BufferedWriter lcia, BufferedWriter inventory) {
+		var system = db.get(ProductSystem.class, systemId);
+		if (system == null)
+			return;
+		LcaResult result = null;
+		try {
+			var calc = new SystemCalculator(db)
+					.withSolver(App.getSolver());
+			Libraries.forCalculation().ifPresent(calc::withLibraries);
+			result = calc.calculateLazy(setupOf(system));
+			writeResult(system, result, lcia, inventory);
+		} catch (Throwable e) {
+			log.error("calculation of product system " + system.refId + " failed", e);
+			failed.incrementAndGet();
+			writeError(system, e, lcia);
+		} finally {
+			if (result != null) {
+				result.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Creates the calculation setup of the given system from the template. The
+	 * baseline parameter set of the system is applied like in the calculation
+	 * wizard.
+	 */
+	private CalculationSetup setupOf(ProductSystem system) {
+		var setup = CalculationSetup.of(system)
+				.withAllocation(template.allocation())
+				.withImpactMethod(template.impactMethod())
+				.withNwSet(template.nwSet())
+				.withRegionalization(template.hasRegionalization())
+				.withCosts(template.hasCosts());
+		var baseline = Setup.baselineOf(system);
+		if (baseline != null) {
+			setup.withParameters(baseline.parameters);
+		}
+		return setup;
+	}
+
+	private void writeHeaders(BufferedWriter lcia, BufferedWriter inventory)
+			throws IOException {
+		var header = new ArrayList<String>();
+		header.add("Product system UUID");
+		header.add("Product system");
+		header.add("Status");
+		for (var impact : impacts) {
+			header.add(impact.name + " [" + impact.referenceUnit + "]");
+		}
+		writeLine(lcia, header.toArray(String[]::new));
+		writeLine(inventory, "Product system UUID", "Flow UUID", "Flow",
+				"Location UUID", "Direction", "Amount");
+	}
+
+	private void writeResult(ProductSystem system, LcaResult result,
+			BufferedWriter lcia, BufferedWriter inventory) throws IOException {
+
+		var row = new ArrayList<String>(impacts.size() + 3);
+		row.add(system.refId);
+		row.add(system.name);
+		row.add("OK");
+		for (var impact : impacts) {
+			row.add(Double.toString(result.getTotalImpactValueOf(impact)));
+		}
+
+		// collect the inventory rows of the system first so that the writer
+		// is only locked for a single write
+		var lines = new StringBuilder();
+		for (var flow : result.enviIndex()) {
+			double value = result.getTotalFlowValueOf(flow);
+			if (value == 0)
+				continue;
+			var location = flow.location() != null
+					? flow.location().refId
+					: "";
+			lines.append(csv(system.refId, flow.flow().refId, flow.flow().name,
+					location, flow.isInput() ? "Input" : "Output",
+					Double.toString(value)));
+			lines.append(System.lineSeparator());
+		}
+
+		synchronized (inventory) {
+			inventory.write(lines.toString());
+		}
+		writeLine(lcia, row.toArray(String[]::new));
+	}
+
+	private void writeError(
+			ProductSystem system, Throwable e, BufferedWriter lcia) {
+		try {
+			writeLine(lcia, system.refId, system.name, "Error: " + e.getMessage());
+		} catch (IOException ex) {
+			log.error("failed to write result of " + system.refId, ex);
+		}
+	}
+
+	private BufferedWriter writer(String name) throws IOException {
+		return Files.newBufferedWriter(
+				new File(folder, name).toPath(), StandardCharsets.UTF_8);
+	}
+
+	private static void writeLine(BufferedWriter w, String... fields)
+			throws IOException {
+		var line = csv(fields);
+		synchronized (w) {
+			w.write(line);
+			w.newLine();
+		}
+	}
+
+	private static String csv(String... fields) {
+		var b = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				b.append(',');
+			}
+			var field = fields[i] == null ? "" : fields[i];
+			b.append('"').append(field.replace("\"", "\"\"")).append('"');
+		}
+		return b.toString();
+	}
+}
@@ -0,0 +1,134 @@
+package org.openlca.app.wizards.calculation;
+
+import java.io.File;
+import java.util.Objects;
+
+import org.eclipse.jface.wizard.WizardPage;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Spinner;
+import org.openlca.app.M;
+import org.openlca.app.components.FileSelection;
+import org.openlca.app.db.Database;
+import org.openlca.app.preferences.Preferences;
+import org.openlca.app.rcp.images.Icon;
+import org.openlca.app.util.Controls;
+import org.openlca.app.util.UI;
+import org.openlca.app.viewers.combo.AllocationCombo;
+import org.openlca.app.viewers.combo.ImpactMethodViewer;
+import org.openlca.app.viewers.combo.NwSetComboViewer;
+import org.openlca.core.model.AllocationMethod;
+import org.openlca.core.model.descriptors.Descriptor;
+
+/**
+ * Page for setting the shared calculation properties of a batch calculation.
+ * Only the properties that can be applied to all product systems of the batch
+ * are provided here; the parameter sets are taken from the respective product
+ * systems.
+ */
+class BatchCalculationPage extends WizardPage {
+
+	private final Setup setup;
+	private NwSetComboViewer nwViewer;
+	private Spinner threadSpinner;
+	private FileSelection folderSelection;
+
+	BatchCalculationPage(Setup setup, int count) {
+		super("BatchCalculationPage");
+		this.setup = setup;
+		setTitle(M.CalculationProperties);
+		setDescription("Calculate " + count + " product systems; the results"
+				+ " are written to the selected folder");
+		setImageDescriptor(Icon.CALCULATION_WIZARD.descriptor());
+		setPageComplete(false);
+	}
+
+	@Override
+	public void createControl(Composite parent) {
+		var body = UI.composite(parent);
+		UI.gridLayout(body, 2, 10, 10);
+		setControl(body);
+
+		// allocation
+		UI.label(body, M.AllocationMethod);
+		var allocation = new AllocationCombo(body, AllocationMethod.values());
+		allocation.setNullable(false);
+		allocation.select(Objects.requireNonNullElse(
+				setup.calcSetup.allocation(), AllocationMethod.NONE));
+		allocation.addSelectionChangedListener(setup.calcSetup::withAllocation);
+
+		// impact method and NW set
+		UI.label(body, M.ImpactAssessmentMethod);
+		var methods = new ImpactMethodViewer(body);
+		methods.setNullable(true);
+		methods.setInput(Database.get());
+		if (setup.calcSetup.impactMethod() != null) {
+			methods.select(Descriptor.of(setup.calcSetup.impactMethod()));
+		}
+		methods.addSelectionChangedListener(_e -> {
+			var method = methods.getSelected();
+			nwViewer.setInput(method);
+			setup.setMethod(method);
+		});
+
+		UI.label(body, M.NormalizationAndWeightingSet);
+		nwViewer = new NwSetComboViewer(body, Database.get());
+		nwViewer.setNullable(true);
+		var method = setup.calcSetup.impactMethod();
+		if (method != null) {
+			nwViewer.setInput(Descriptor.of(method));
+		}
+		if (setup.calcSetup.nwSet() != null) {
+			nwViewer.select(setup.calcSetup.nwSet());
+		}
+		nwViewer.addSelectionChangedListener(setup::setNwSet);
+
+		// options
+		UI.label(body);
+		var options = UI.composite(body);
+		UI.gridLayout(options, 1, 10, 0);
+		var regioCheck = UI.checkbox(options, "Regionalized calculation");
+		regioCheck.setSelection(setup.calcSetup.hasRegionalization());
+		Controls.onSelect(regioCheck,
+				_e -> setup.calcSetup.withRegionalization(regioCheck.getSelection()));
+		var costCheck = UI.checkbox(options, M.IncludeCostCalculation);
+		costCheck.setSelection(setup.calcSetup.hasCosts());
+		Controls.onSelect(costCheck,
+				_e -> setup.calcSetup.withCosts(costCheck.getSelection()));
+
+		// the number of parallel calculations
+		UI.label(body, M.ParallelCalculations);
+		threadSpinner = new Spinner(body, SWT.BORDER);
+		int cores = Runtime.getRuntime().availableProcessors();
+		threadSpinner.setValues(
+				Math.min(cores, Preferences.getInt(Preferences.CALCULATION_THREADS, 1)),
+				1, cores, 0, 1, 1);
+		threadSpinner.setToolTipText("Each calculation holds its own copy of"
+				+ " the matrices of a product system in memory");
+
+		// output folder
+		UI.label(body, M.Folder);
+		folderSelection = new FileSelection(body);
+		folderSelection.setSelectDirectory(true);
+		folderSelection.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				setPageComplete(folderSelection.getFile() != null);
+			}
+		});
+	}
+
+	int threads() {
+		return threadSpinner != null
+				? threadSpinner.getSelection()
+				: 1;
+	}
+
+	File folder() {
+		return folderSelection != null
+				? folderSelection.getFile()
+				: null;
+	}
+}
@@ -0,0 +1,92 @@
+package org.openlca.app.wizards.calculation;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.wizard.Wizard;
+import org.eclipse.jface.wizard.WizardDialog;
+import org.openlca.app.App;
+import org.openlca.app.M;
+import org.openlca.app.db.Database;
+import org.openlca.app.preferences.Preferences;
+import org.openlca.app.util.ErrorReporter;
+import org.openlca.app.util.MsgBox;
+import org.openlca.app.util.UI;
+import org.openlca.core.model.ProductSystem;
+
+/**
+ * Wizard for calculating a set of product systems with shared calculation
+ * properties. The calculations run in a background job and the results are
+ * written to files instead of being opened in editors; see
+ * {@link BatchCalculation}.
+ */
+public class BatchCalculationWizard extends Wizard {
+
+	private final List<Long> systems;
+	private final Setup setup;
+	private BatchCalculationPage page;
+
+	private BatchCalculationWizard(List<Long> systems, ProductSystem first) {
+		this.systems = systems;
+		this.setup = Setup.init(first);
+		setWindowTitle(M.CalculationProperties);
+	}
+
+	public static void open(List<Long> systemIds) {
+		if (systemIds == null || systemIds.isEmpty())
+			return;
+		var first = Database.get().get(ProductSystem.class, systemIds.get(0));
+		if (first == null)
+			return;
+		var wizard = new BatchCalculationWizard(systemIds, first);
+		var dialog = new WizardDialog(UI.shell(), wizard);
+		dialog.open();
+	}
+
+	@Override
+	public void addPages() {
+		page = new BatchCalculationPage(setup, systems.size());
+		addPage(page);
+	}
+
+	@Override
+	public boolean performFinish() {
+		var folder = page.folder();
+		if (folder == null)
+			return false;
+		setup.savePreferences();
+		Preferences.set(Preferences.CALCULATION_THREADS, page.threads());
+		var batch = new BatchCalculation(
+				setup.calcSetup, systems, page.threads(), folder);
+		schedule(batch, folder);
+		return true;
+	}
+
+	private void schedule(BatchCalculation batch, File folder) {
+		var job = new Job(M.RunCalculation) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					batch.run(monitor);
+				} catch (Exception e) {
+					ErrorReporter.on("Batch calculation failed", e);
+					return Status.CANCEL_STATUS;
+				}
+				App.runInUI(M.RunCalculation, () -> MsgBox.info(
+						M.RunCalculation,
+						"Calculated " + batch.done() + " of " + systems.size()
+								+ " product systems (" + batch.failed() + " failed)."
+								+ " The results were written to " + folder));
+				return monitor.isCanceled()
+						? Status.CANCEL_STATUS
+						: Status.OK_STATUS;
+			}
+		};
+		job.setUser(true);
+		job.schedule();
+	}
+}
@@ -8,6 +8,7 @@ import org.openlca.core.model.CalculationTarget;
 import org.openlca.core.model.ImpactMethod;
 import org.openlca.core.model.NwSet;
 import org.openlca.core.model.ParameterRedefSet;
+import org.openlca.core.model.ProductSystem;
 import org.openlca.core.model.descriptors.ImpactMethodDescriptor;
 import org.openlca.util.ProductSystems;
 
@@ -33,17 +34,25 @@ class Setup {
 		dqSetup = new DQSetup();
 
 		// add parameter redefinitions
-		if (system != null && system.parameterSets.size() > 0) {
-			var baseline = system.parameterSets.stream()
-					.filter(ps -> ps.isBaseline)
-					.findFirst()
-					.orElse(system.parameterSets.get(0));
-			if (baseline != null) {
-				calcSetup.withParameters(baseline.parameters);
-			}
+		var baseline = baselineOf(system);
+		if (baseline != null) {
+			calcSetup.withParameters(baseline.parameters);
 		}
 	}
 
+	/**
+	 * Returns the baseline parameter set of the given system, or the first
+	 * parameter set if no set is marked as baseline.
+	 */
+	static ParameterRedefSet baselineOf(ProductSystem system) {
+		if (system == null || system.parameterSets.isEmpty())
+			return null;
+		return system.parameterSets.stream()
+				.filter(ps -> ps.isBaseline)
+				.findFirst()
+				.orElse(system.parameterSets.get(0));
+	}
+
 	void setParameters(ParameterRedefSet params) {
 		calcSetup.withParameters(params.parameters);
 	}
@@ -66,8 +66,7 @@ class LibraryResolver {
 		Library resolved = dialog.isFileSelected()
 				? App.exec("Extracting library " + link.id(),
 						() -> Libraries.importFromFile(new File(dialog.getLocation())))
-				: App.exec("Downloading and extracting library " + link.id(),
-						() -> Libraries.importFromUrl(dialog.getLocation()));
+				: Libraries.importFromUrl(dialog.getLocation());
 		if (resolved == null) {
 			askFor(link);
 		} else {
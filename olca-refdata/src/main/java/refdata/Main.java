@@ -29,6 +29,9 @@ public class Main {
 			create("flows", Set.FLOWS);
 			Util.zip();
 			Util.copyToApp();
+			if (args.length > 0) {
+				Util.writeImages(new File(args[0]));
+			}
 			System.out.println("  done");
 		} catch (Exception e) {
 			throw new RuntimeException("Database build failed", e);
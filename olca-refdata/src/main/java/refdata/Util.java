@@ -1,8 +1,13 @@
 package refdata;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
 import org.openlca.util.Dirs;
 import org.zeroturnaround.zip.ZipUtil;
@@ -41,6 +46,57 @@ class Util {
 		}
 	}
 
+	/**
+	 * Writes the built databases as extracted template images into the given
+	 * template cache folder of an openLCA workspace (`db_templates`). Each
+	 * image is tagged with the SHA-256 hash of the respective zip file, so that
+	 * the application uses it directly instead of unpacking the template.
+	 */
+	static void writeImages(File cacheDir) throws Exception {
+		System.out.println("  Write template images to " + cacheDir + " ...");
+		Files.createDirectories(cacheDir.toPath());
+		String[] names = { "empty", "units", "flows" };
+		for (String name : names) {
+			File image = new File(cacheDir, name);
+			File idFile = new File(cacheDir, name + ".id");
+			File temp = Files.createTempDirectory(
+					cacheDir.toPath(), name + "-").toFile();
+			copyDir(F("build/" + name).toPath(), temp.toPath());
+			Files.deleteIfExists(idFile.toPath());
+			if (image.exists()) {
+				Dirs.delete(image);
+			}
+			Files.move(temp.toPath(), image.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+			Files.writeString(idFile.toPath(), sha256(F("dist/" + name + ".zolca")));
+		}
+	}
+
+	private static void copyDir(Path source, Path target) throws IOException {
+		try (var paths = Files.walk(source)) {
+			for (var path : (Iterable<Path>) paths::iterator) {
+				var dest = target.resolve(source.relativize(path));
+				if (Files.isDirectory(path)) {
+					Files.createDirectories(dest);
+				} else {
+					Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		}
+	}
+
+	private static String sha256(File file) throws Exception {
+		var digest = MessageDigest.getInstance("SHA-256");
+		try (var in = new FileInputStream(file)) {
+			var buffer = new byte[64 * 1024];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, n);
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
 	static File F(String path) {
 		return new File(path);
 	}